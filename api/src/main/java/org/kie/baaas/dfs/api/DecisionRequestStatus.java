@@ -50,5 +50,8 @@ public class DecisionRequestStatus {
     private String reason;
     @JsonProperty
     private String message;
+    // The generation of the spec this status was reconciled from
+    @JsonProperty
+    private Long observedGeneration;
 
 }
@@ -48,4 +48,8 @@ public class DecisionStatus {
     @PrinterColumn
     private String versionId;
 
+    // The generation of the spec this status was reconciled from
+    @JsonProperty
+    private Long observedGeneration;
+
 }
@@ -64,6 +64,9 @@ public class DecisionVersionStatus {
     private String kogitoServiceRef;
     @JsonProperty
     private URI endpoint;
+    // The generation of the spec this status was reconciled from
+    @JsonProperty
+    private Long observedGeneration;
 
     @JsonIgnore
     private Map<String, Condition> conditions = new HashMap<>();
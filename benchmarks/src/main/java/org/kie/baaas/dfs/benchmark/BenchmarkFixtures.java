@@ -0,0 +1,200 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+
+import org.kie.baaas.dfs.api.DecisionRequestSpec;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.DecisionVersionBuilder;
+import org.kie.baaas.dfs.api.DecisionVersionSpec;
+import org.kie.baaas.dfs.api.DecisionVersionStatus;
+import org.kie.baaas.dfs.api.Kafka;
+import org.kie.baaas.dfs.api.KafkaCredential;
+import org.kie.baaas.dfs.api.KafkaRequest;
+import org.kie.baaas.dfs.api.Phase;
+import org.kie.baaas.dfs.api.ResourceUtils;
+import org.kie.baaas.dfs.api.Webhook;
+import org.kie.baaas.dfs.api.WebhookBuilder;
+
+import io.fabric8.kubernetes.api.model.ConditionBuilder;
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
+
+import static org.kie.baaas.dfs.api.DecisionVersionStatus.CONDITION_BUILD;
+import static org.kie.baaas.dfs.api.DecisionVersionStatus.REASON_SUCCESS;
+import static org.kie.baaas.dfs.controller.DecisionLabels.CUSTOMER_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.DECISION_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.MANAGED_BY_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.OPERATOR_NAME;
+
+/**
+ * Payloads shared by the benchmarks. Sizes and shapes are taken from resources observed on a running shard.
+ */
+public class BenchmarkFixtures {
+
+    public static final String CUSTOMER = "acme";
+    public static final String CUSTOMER_NS = "baaas-" + CUSTOMER;
+    public static final String CONTROLLER_NS = "baaas-dfs";
+    public static final String DECISION = "loan-approval";
+    public static final String VERSION = "3";
+    public static final String VERSION_UID = "5f0c3c8e-6a7d-4a55-9d8b-2f1f6a3b9e10";
+    public static final String REGISTRY = "image-registry.openshift-image-registry.svc:5000";
+
+    public static final String PIPELINE_RUN = "fixtures/pipelinerun.json";
+    public static final String KOGITO_RUNTIME = "fixtures/kogitoruntime.json";
+    public static final String INGRESS = "fixtures/ingress.json";
+    public static final String DECISION_VERSION = "fixtures/decisionversion.json";
+
+    // JUL only keeps weak references to loggers, hold on to the one that gets tuned
+    private static final java.util.logging.Logger OPERATOR_LOGGER = java.util.logging.Logger.getLogger("org.kie.baaas");
+
+    private BenchmarkFixtures() {
+    }
+
+    public static String resource(String name) {
+        try (InputStream is = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(name)) {
+            if (is == null) {
+                throw new IllegalArgumentException("Missing benchmark fixture " + name);
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static JsonObject json(String name) {
+        try (JsonReader reader = Json.createReader(new StringReader(resource(name)))) {
+            return reader.readObject();
+        }
+    }
+
+    /**
+     * The recorded PipelineRun with its taskRuns replicated, to reproduce the status size of long-lived or retried builds.
+     */
+    public static String pipelineRunWithTaskRuns(int copies) {
+        JsonObject pipelineRun = json(PIPELINE_RUN);
+        JsonObject taskRuns = pipelineRun.getJsonObject("status").getJsonObject("taskRuns");
+        JsonObjectBuilder replicated = Json.createObjectBuilder();
+        for (int i = 0; i < copies; i++) {
+            for (Map.Entry<String, JsonValue> taskRun : taskRuns.entrySet()) {
+                replicated.add(taskRun.getKey() + "-" + i, taskRun.getValue());
+            }
+        }
+        return Json.createObjectBuilder(pipelineRun)
+                .add("status", Json.createObjectBuilder(pipelineRun.getJsonObject("status"))
+                        .add("taskRuns", replicated))
+                .build()
+                .toString();
+    }
+
+    /**
+     * The event sources log every event at INFO. Unless the level is under test, keep console I/O out of the measurements.
+     */
+    public static void operatorLogLevel(Level level) {
+        OPERATOR_LOGGER.setLevel(level);
+    }
+
+    public static DecisionVersionSpec decisionVersionSpec() {
+        return new DecisionVersionSpec()
+                .setVersion(VERSION)
+                .setSource(URI.create("https://baaas-decisions.s3.eu-west-1.amazonaws.com/acme/loan-approval/3/loan-approval.dmn"))
+                .setEnv(List.of(new EnvVar("QUARKUS_LOG_LEVEL", "INFO", null), new EnvVar("LOAN_MAX_AMOUNT", "250000", null)))
+                .setKafka(new Kafka()
+                        .setBootstrapServers("acme-kafka-bootstrap.kafka.svc:9093")
+                        .setSecretName(CUSTOMER + "-kafka-auth")
+                        .setInputTopic("loan-approval-requests")
+                        .setOutputTopic("loan-approval-responses"));
+    }
+
+    public static DecisionVersion decisionVersion() {
+        return new DecisionVersionBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName(DECISION + "-" + VERSION)
+                        .withNamespace(CUSTOMER_NS)
+                        .withUid(VERSION_UID)
+                        .withResourceVersion("184467290")
+                        .withGeneration(1L)
+                        .addToLabels(DECISION_LABEL, DECISION)
+                        .addToLabels(CUSTOMER_LABEL, CUSTOMER)
+                        .addToLabels(MANAGED_BY_LABEL, OPERATOR_NAME)
+                        .withOwnerReferences(new OwnerReferenceBuilder()
+                                .withApiVersion("operator.baaas/v1alpha1")
+                                .withKind("Decision")
+                                .withName(DECISION)
+                                .withUid("c3a1f0de-7b1e-4f3a-9e52-8d0c6b7a5f21")
+                                .withController(Boolean.TRUE)
+                                .build())
+                        .build())
+                .withSpec(decisionVersionSpec())
+                .withStatus(new DecisionVersionStatus()
+                        .setReady(Boolean.FALSE)
+                        .setCondition(CONDITION_BUILD, new ConditionBuilder()
+                                .withType(CONDITION_BUILD)
+                                .withStatus(ResourceUtils.capitalize(Boolean.TRUE))
+                                .withReason(REASON_SUCCESS)
+                                .withLastTransitionTime(ResourceUtils.now())
+                                .build())
+                        .setPipelineRef(CUSTOMER + "-" + DECISION + "-" + VERSION)
+                        .setImageRef(REGISTRY + "/" + CUSTOMER_NS + "/" + DECISION + ":" + VERSION))
+                .build();
+    }
+
+    public static DecisionRequestSpec decisionRequestSpec() {
+        return new DecisionRequestSpec()
+                .setCustomerId(CUSTOMER)
+                .setName(DECISION)
+                .setVersion(VERSION)
+                .setSource(decisionVersionSpec().getSource())
+                .setEnv(decisionVersionSpec().getEnv())
+                .setWebhooks(List.of(URI.create("https://hooks.acme.example.com/baaas"), URI.create("https://audit.acme.example.com/decisions")))
+                .setKafka(new KafkaRequest()
+                        .setBootstrapServers("acme-kafka-bootstrap.kafka.svc:9093")
+                        .setInputTopic("loan-approval-requests")
+                        .setOutputTopic("loan-approval-responses")
+                        .setCredential(new KafkaCredential()
+                                .setClientId("srvc-acct-6f1d2e3c-0b9a-4c8d-a7e6-5f4d3c2b1a09")
+                                .setClientSecret("0d1c2b3a-4f5e-6d7c-8b9a-0f1e2d3c4b5a")));
+    }
+
+    public static Webhook webhook() {
+        return new WebhookBuilder()
+                .withCustomer(CUSTOMER)
+                .withDecision(DECISION)
+                .withNamespace(CUSTOMER_NS)
+                .withVersion(VERSION)
+                .withVersionResource(DECISION + "-" + VERSION)
+                .withPhase(Phase.CURRENT)
+                .withAt(ResourceUtils.now())
+                .withVersionEndpoint(URI.create("http://loan-approval-3-baaas-acme.apps.shard-1.baaas.example.com"))
+                .withCurrentEndpoint(URI.create("http://loan-approval-current-endpoint-baaas-acme.apps.shard-1.baaas.example.com"))
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.javaoperatorsdk.operator.processing.event.Event;
+import io.javaoperatorsdk.operator.processing.event.EventHandler;
+
+/**
+ * Stands in for the operator's DefaultEventHandler so only the event source is measured.
+ */
+public class BlackholeEventHandler implements EventHandler {
+
+    private final Blackhole blackhole;
+
+    public BlackholeEventHandler(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void handleEvent(Event event) {
+        blackhole.consume(event);
+    }
+}
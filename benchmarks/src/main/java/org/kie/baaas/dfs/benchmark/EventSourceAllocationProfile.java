@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.benchmark;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.kie.baaas.dfs.controller.DecisionVersionEventSourceBenchmark;
+import org.kie.baaas.dfs.controller.GenericResourceEventSourceBenchmark;
+import org.kie.baaas.dfs.controller.k8s.IngressResourceEventSourceBenchmark;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the event source benchmarks with the GC profiler and a JFR recording per benchmark class, so the allocation hot spots behind
+ * gc.alloc.rate.norm can be inspected with JDK Mission Control.
+ * <p>
+ * Usage: {@code java -cp benchmarks/target/benchmarks.jar org.kie.baaas.dfs.benchmark.EventSourceAllocationProfile [output dir]}
+ */
+public class EventSourceAllocationProfile {
+
+    private static final List<Class<?>> EVENT_SOURCE_BENCHMARKS = List.of(
+            GenericResourceEventSourceBenchmark.class,
+            DecisionVersionEventSourceBenchmark.class,
+            IngressResourceEventSourceBenchmark.class);
+
+    public static void main(String[] args) throws RunnerException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "target/event-source-profile").toAbsolutePath();
+        output.toFile().mkdirs();
+        for (Class<?> benchmark : EVENT_SOURCE_BENCHMARKS) {
+            String name = benchmark.getSimpleName();
+            Options options = new OptionsBuilder()
+                    .include(benchmark.getName())
+                    .param("logLevel", "WARNING")
+                    .addProfiler(GCProfiler.class)
+                    .forks(1)
+                    .jvmArgsAppend(
+                            "-Djava.util.logging.manager=org.jboss.logmanager.LogManager",
+                            "-XX:StartFlightRecording=settings=profile,dumponexit=true,filename=" + output.resolve(name + ".jfr"))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(output.resolve(name + ".json").toString())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
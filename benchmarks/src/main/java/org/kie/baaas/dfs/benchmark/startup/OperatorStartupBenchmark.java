@@ -0,0 +1,206 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.benchmark.startup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.CONTROLLER_NS;
+
+/**
+ * Measures how long an operator restart leaves a shard unresponsive. The operator is started as a separate process, JVM
+ * or native, against a mock server already holding {@code -Ddecisions} decisions and their resources, and the
+ * benchmark records:
+ * <ul>
+ * <li>time to first reconcile: from process start to the first request that is not a list or watch</li>
+ * <li>time to resync: from process start to the last reconcile request, once no request came for {@code -Dquiet}</li>
+ * <li>peak RSS of the process (Linux only)</li>
+ * </ul>
+ * Usage:
+ * {@code java -Ddecisions=1000 -cp benchmarks/target/benchmarks.jar org.kie.baaas.dfs.benchmark.startup.OperatorStartupBenchmark jvm=<runner jar> native=<runner binary>}
+ */
+public class OperatorStartupBenchmark {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    private final Path crds;
+    private final int decisions;
+    private final int customers;
+    private final int iterations;
+    private final Duration quiet;
+    private final Duration timeout;
+
+    OperatorStartupBenchmark(Path crds, int decisions, int customers, int iterations, Duration quiet, Duration timeout) {
+        this.crds = crds;
+        this.decisions = decisions;
+        this.customers = customers;
+        this.iterations = iterations;
+        this.quiet = quiet;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int decisions = Integer.getInteger("decisions", 1000);
+        OperatorStartupBenchmark benchmark = new OperatorStartupBenchmark(
+                Paths.get(System.getProperty("crds", "crd")),
+                decisions,
+                Integer.getInteger("customers", Math.max(1, decisions / 10)),
+                Integer.getInteger("iterations", 3),
+                Duration.ofMillis(Long.getLong("quiet", 3000)),
+                Duration.ofMillis(Long.getLong("timeout", 600_000)));
+        Path output = Paths.get(System.getProperty("output", "target/operator-startup.json")).toAbsolutePath();
+
+        JsonArrayBuilder results = Json.createArrayBuilder();
+        for (String arg : args.length > 0 ? args : new String[] { "jvm=decision-fleet-shard-operator/target/baaas-decision-fleet-shard-operator-1.0-SNAPSHOT-runner.jar" }) {
+            String[] modeAndRunner = arg.split("=", 2);
+            Path runner = Paths.get(modeAndRunner[1]);
+            for (int i = 0; i < benchmark.iterations; i++) {
+                Sample sample = benchmark.run(command(modeAndRunner[0], runner));
+                System.out.printf("%s #%d: %s%n", modeAndRunner[0], i, sample);
+                results.add(sample.toJson(modeAndRunner[0], decisions));
+            }
+        }
+        Files.createDirectories(output.getParent());
+        Files.write(output, results.build().toString().getBytes(StandardCharsets.UTF_8));
+        System.out.println("Results written to " + output);
+    }
+
+    private static List<String> command(String mode, Path runner) {
+        List<String> command = new ArrayList<>();
+        switch (mode) {
+            case "jvm":
+                command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+                command.add("-jar");
+                break;
+            case "native":
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mode " + mode + ", expected jvm or native");
+        }
+        command.add(runner.toAbsolutePath().toString());
+        return command;
+    }
+
+    Sample run(List<String> command) throws IOException, InterruptedException {
+        try (PrePopulatedCluster cluster = new PrePopulatedCluster().populate(crds, decisions, customers)) {
+            ProcessBuilder builder = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(Files.createTempFile("operator-startup", ".log").toFile());
+            Map<String, String> env = builder.environment();
+            env.put("KUBERNETES_MASTER", cluster.getMasterUrl());
+            env.put("KUBERNETES_NAMESPACE", CONTROLLER_NS);
+            env.put("KUBERNETES_TRUST_CERTIFICATES", "true");
+            env.put("KUBERNETES_AUTH_TRYKUBECONFIG", "false");
+            env.put("KUBERNETES_AUTH_TRYSERVICEACCOUNT", "false");
+            env.put("BAAAS_K8S_PLATFORM", "k8s");
+            env.put("QUARKUS_HTTP_PORT", String.valueOf(freePort()));
+
+            cluster.resetTimings();
+            long start = System.nanoTime();
+            Process process = builder.start();
+            try {
+                return measure(cluster, process, start);
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    private Sample measure(PrePopulatedCluster cluster, Process process, long start) throws InterruptedException {
+        Sample sample = new Sample();
+        long deadline = start + timeout.toNanos();
+        while (System.nanoTime() < deadline && process.isAlive()) {
+            sample.peakRssKb = Math.max(sample.peakRssKb, peakRssKb(process.pid()));
+            long last = cluster.getLastReconcileRequest();
+            if (last > 0 && System.nanoTime() - last > quiet.toNanos()) {
+                sample.firstReconcile = Duration.ofNanos(cluster.getFirstReconcileRequest() - start);
+                sample.resync = Duration.ofNanos(last - start);
+                sample.requests = cluster.getReconcileRequests();
+                return sample;
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        throw new IllegalStateException(process.isAlive()
+                ? "The operator did not finish its resync within " + timeout
+                : "The operator exited with " + process.exitValue() + " before finishing its resync");
+    }
+
+    // VmHWM is the resident set high water mark, so it also covers peaks between two polls
+    private static long peakRssKb(long pid) {
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try {
+            return Files.readAllLines(status).stream()
+                    .filter(l -> l.startsWith("VmHWM:"))
+                    .mapToLong(l -> Long.parseLong(l.replaceAll("[^0-9]", "")))
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static class Sample {
+
+        private Duration firstReconcile;
+        private Duration resync;
+        private long requests;
+        private long peakRssKb = -1;
+
+        JsonObject toJson(String mode, int decisions) {
+            return Json.createObjectBuilder()
+                    .add("mode", mode)
+                    .add("decisions", decisions)
+                    .add("timeToFirstReconcileMs", firstReconcile.toMillis())
+                    .add("timeToResyncMs", resync.toMillis())
+                    .add("reconcileRequests", requests)
+                    .add("peakRssKb", peakRssKb)
+                    .build();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("first reconcile %dms, resync %dms (%d requests), peak RSS %dkB",
+                    firstReconcile.toMillis(), resync.toMillis(), requests, peakRssKb);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.benchmark.startup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.benchmark.BenchmarkFixtures;
+
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.api.model.networking.v1.Ingress;
+import io.fabric8.kubernetes.client.server.mock.KubernetesCrudDispatcher;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.fabric8.mockwebserver.Context;
+import io.fabric8.mockwebserver.ServerRequest;
+import io.fabric8.mockwebserver.ServerResponse;
+import io.fabric8.openshift.client.NamespacedOpenShiftClient;
+import io.fabric8.openshift.client.server.mock.OpenShiftMockServer;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.CONTROLLER_NS;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.CUSTOMER;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.CUSTOMER_NS;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.DECISION;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.VERSION_UID;
+import static org.kie.baaas.dfs.service.KogitoService.KOGITO_RUNTIME_CONTEXT;
+import static org.kie.baaas.dfs.service.PipelineService.PIPELINE_RUN_CONTEXT;
+
+/**
+ * A CRUD mock server holding the resources of a running shard: per decision a Decision, its DecisionVersion, the
+ * PipelineRun that built it, its KogitoRuntime and Ingress, all as they look once the version is CURRENT.
+ * <p>
+ * The server remembers when the operator sent its first and last reconcile request, i.e. any request other than the
+ * lists and watches that start the event sources.
+ */
+public class PrePopulatedCluster implements AutoCloseable {
+
+    private static final String DECISION_UID = "c3a1f0de-7b1e-4f3a-9e52-8d0c6b7a5f21";
+    private static final String DASHBOARD_AUTH_SECRET = "baaas-dfs-kafka-credentials";
+
+    private final OpenShiftMockServer server;
+    private final NamespacedOpenShiftClient client;
+    private final AtomicLong firstReconcileRequest = new AtomicLong();
+    private final AtomicLong lastReconcileRequest = new AtomicLong();
+    private final AtomicLong reconcileRequests = new AtomicLong();
+
+    public PrePopulatedCluster() {
+        server = new OpenShiftMockServer(new Context(), new MockWebServer(), new HashMap<ServerRequest, Queue<ServerResponse>>(), new TimingDispatcher(), false);
+        server.init();
+        client = server.createOpenShiftClient();
+    }
+
+    public NamespacedOpenShiftClient getClient() {
+        return client;
+    }
+
+    public String getMasterUrl() {
+        return client.getMasterUrl().toString();
+    }
+
+    /**
+     * Loads the CRDs from the given directory, then {@code decisions} decisions spread over {@code customers}
+     * customer namespaces.
+     */
+    public PrePopulatedCluster populate(Path crds, int decisions, int customers) {
+        try (Stream<Path> files = Files.list(crds)) {
+            files.filter(f -> f.toString().endsWith(".yaml")).forEach(f -> {
+                try (InputStream is = Files.newInputStream(f)) {
+                    client.apiextensions().v1().customResourceDefinitions().load(is).createOrReplace();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        client.namespaces().createOrReplace(new NamespaceBuilder().withNewMetadata().withName(CONTROLLER_NS).endMetadata().build());
+        client.secrets().inNamespace(CONTROLLER_NS).createOrReplace(new SecretBuilder()
+                .withMetadata(new ObjectMetaBuilder().withName(DASHBOARD_AUTH_SECRET).withNamespace(CONTROLLER_NS).build())
+                .addToStringData("bootstrapservers", "dashboard-kafka-bootstrap:9093")
+                .build());
+        for (int c = 0; c < customers; c++) {
+            String namespace = CUSTOMER_NS + "-" + c;
+            client.namespaces().createOrReplace(new NamespaceBuilder().withNewMetadata().withName(namespace).endMetadata().build());
+            client.secrets().inNamespace(namespace).createOrReplace(new SecretBuilder()
+                    .withMetadata(new ObjectMetaBuilder().withName(CUSTOMER + "-" + c + "-kafka-auth").withNamespace(namespace).build())
+                    .addToStringData("clientid", "client")
+                    .build());
+        }
+        for (int i = 0; i < decisions; i++) {
+            addDecision(i, i % customers);
+        }
+        resetTimings();
+        return this;
+    }
+
+    private void addDecision(int index, int customer) {
+        String namespace = CUSTOMER_NS + "-" + customer;
+        String decisionUid = UUID.randomUUID().toString();
+        String versionUid = UUID.randomUUID().toString();
+        JsonObject version = fixture(BenchmarkFixtures.DECISION_VERSION, index, customer, decisionUid, versionUid);
+        JsonObject decision = Json.createObjectBuilder()
+                .add("apiVersion", version.getString("apiVersion"))
+                .add("kind", "Decision")
+                .add("metadata", Json.createObjectBuilder()
+                        .add("name", DECISION + "-" + index)
+                        .add("namespace", namespace)
+                        .add("uid", decisionUid)
+                        .add("labels", version.getJsonObject("metadata").getJsonObject("labels")))
+                .add("spec", Json.createObjectBuilder().add("definition", version.getJsonObject("spec")))
+                .build();
+        client.customResources(Decision.class).inNamespace(namespace).create(Serialization.unmarshal(decision.toString(), Decision.class));
+        client.customResources(DecisionVersion.class).inNamespace(namespace).create(Serialization.unmarshal(version.toString(), DecisionVersion.class));
+        try {
+            client.customResource(PIPELINE_RUN_CONTEXT).create(CONTROLLER_NS,
+                    fixture(BenchmarkFixtures.PIPELINE_RUN, index, customer, decisionUid, versionUid).toString());
+            client.customResource(KOGITO_RUNTIME_CONTEXT).create(namespace,
+                    fixture(BenchmarkFixtures.KOGITO_RUNTIME, index, customer, decisionUid, versionUid).toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        client.network().v1().ingresses().inNamespace(namespace).create(Serialization.unmarshal(
+                fixture(BenchmarkFixtures.INGRESS, index, customer, decisionUid, versionUid).toString(), Ingress.class));
+    }
+
+    // The recorded resource renamed for this decision and customer, as the API server would return it on creation
+    private static JsonObject fixture(String name, int index, int customer, String decisionUid, String versionUid) {
+        String json = BenchmarkFixtures.resource(name)
+                .replace(DECISION_UID, decisionUid)
+                .replace(VERSION_UID, versionUid)
+                .replace(CUSTOMER_NS, CUSTOMER_NS + "-" + customer)
+                .replace("\"" + CUSTOMER + "\"", "\"" + CUSTOMER + "-" + customer + "\"")
+                .replace(CUSTOMER + "-kafka-auth", CUSTOMER + "-" + customer + "-kafka-auth")
+                .replace(DECISION, DECISION + "-" + index);
+        JsonObject object;
+        try (JsonReader reader = Json.createReader(new StringReader(json))) {
+            object = reader.readObject();
+        }
+        JsonObjectBuilder metadata = Json.createObjectBuilder(object.getJsonObject("metadata"))
+                .remove("resourceVersion")
+                .remove("managedFields");
+        if (!BenchmarkFixtures.DECISION_VERSION.equals(name)) {
+            metadata.add("uid", UUID.randomUUID().toString());
+        }
+        return Json.createObjectBuilder(object).add("metadata", metadata).build();
+    }
+
+    public void resetTimings() {
+        firstReconcileRequest.set(0);
+        lastReconcileRequest.set(0);
+        reconcileRequests.set(0);
+    }
+
+    /**
+     * @return when the first reconcile request was received, in {@link System#nanoTime()}, or 0 if none was yet
+     */
+    public long getFirstReconcileRequest() {
+        return firstReconcileRequest.get();
+    }
+
+    public long getLastReconcileRequest() {
+        return lastReconcileRequest.get();
+    }
+
+    public long getReconcileRequests() {
+        return reconcileRequests.get();
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        server.destroy();
+    }
+
+    private class TimingDispatcher extends KubernetesCrudDispatcher {
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            MockResponse response = super.dispatch(request);
+            if (isReconcileRequest(request)) {
+                long now = System.nanoTime();
+                firstReconcileRequest.compareAndSet(0, now);
+                lastReconcileRequest.set(now);
+                reconcileRequests.incrementAndGet();
+            }
+            return response;
+        }
+
+        // Lists, watches and CRD lookups are issued when the event sources start, not by a reconcile
+        private boolean isReconcileRequest(RecordedRequest request) {
+            HttpUrl url = request.getRequestUrl();
+            List<String> segments = url.pathSegments();
+            if (segments.contains("customresourcedefinitions") || "true".equals(url.queryParameter("watch"))) {
+                return false;
+            }
+            if (!"GET".equals(request.getMethod())) {
+                return true;
+            }
+            // Only reads of a single resource: [/namespaces/{ns}]/{plural}/{name} after /api/{version} or /apis/{group}/{version}
+            int start = "apis".equals(segments.get(0)) ? 3 : 2;
+            int length = segments.size() - start;
+            if (length > 2 && "namespaces".equals(segments.get(start))) {
+                length -= 2;
+            }
+            return length >= 2;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.client;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionBuilder;
+import org.kie.baaas.dfs.api.DecisionRequest;
+import org.kie.baaas.dfs.api.DecisionRequestBuilder;
+import org.kie.baaas.dfs.api.DecisionSpec;
+import org.kie.baaas.dfs.api.DecisionStatus;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.Phase;
+import org.kie.baaas.dfs.controller.TenantExecutor;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.extension.requestfilter.RequestFilterAction;
+import com.github.tomakehurst.wiremock.extension.requestfilter.StubRequestFilter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.CUSTOMER;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.CUSTOMER_NS;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.DECISION;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.decisionRequestSpec;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.decisionVersion;
+import static org.kie.baaas.dfs.controller.DecisionLabels.CUSTOMER_LABEL;
+
+/**
+ * Fires bursts of Decision, DecisionVersion and DecisionRequest notifications through {@link RemoteResourceClient} at
+ * WireMock endpoints answering with a log-normal latency and a share of 500s, as during a mass re-deploy. Reports per
+ * burst the deliveries per second, the queueing delay from the notify call until the endpoint receives the webhook and
+ * the threads in use.
+ * <p>
+ * Usage: {@code java -Dbursts=5 -Dburst=1000 -Dwebhooks=2 -Dlatency-median-ms=50 -Dlatency-sigma=0.5 -Derror-rate=0.05
+ * -cp benchmarks/target/benchmarks.jar org.kie.baaas.dfs.client.WebhookDeliveryBenchmark [output file]}
+ */
+public class WebhookDeliveryBenchmark {
+
+    private static final String SEQUENCE_SEPARATOR = "@";
+
+    private final int burst;
+    private final int webhooks;
+    private final long timeoutMs;
+    private final WireMockServer server;
+    private final RemoteResourceClient client = new RemoteResourceClient();
+    private final Map<Integer, Long> enqueuedAt = new ConcurrentHashMap<>();
+    private final DelaySamples delays = new DelaySamples();
+    private final AtomicInteger delivered = new AtomicInteger();
+
+    WebhookDeliveryBenchmark(int burst, int webhooks, long latencyMedianMs, double latencySigma, double errorRate, long timeoutMs) {
+        this.burst = burst;
+        this.webhooks = webhooks;
+        this.timeoutMs = timeoutMs;
+        client.tenantExecutor = new TenantExecutor();
+        server = new WireMockServer(wireMockConfig()
+                .dynamicPort()
+                .containerThreads(Math.max(64, burst * webhooks / 4))
+                .extensions(new ArrivalRecorder(), new RandomErrors(errorRate)));
+        server.start();
+        server.stubFor(post(urlPathMatching("/hooks/.*")).willReturn(latencySigma > 0
+                ? aResponse().withStatus(200).withLogNormalRandomDelay(latencyMedianMs, latencySigma).withTransformers(RandomErrors.NAME)
+                : aResponse().withStatus(200).withFixedDelay((int) latencyMedianMs).withTransformers(RandomErrors.NAME)));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int bursts = Integer.getInteger("bursts", 5);
+        WebhookDeliveryBenchmark benchmark = new WebhookDeliveryBenchmark(
+                Integer.getInteger("burst", 1000),
+                Integer.getInteger("webhooks", 2),
+                Long.getLong("latency-median-ms", 50),
+                Double.parseDouble(System.getProperty("latency-sigma", "0.5")),
+                Double.parseDouble(System.getProperty("error-rate", "0")),
+                Long.getLong("timeout-ms", 300_000));
+        JsonArrayBuilder results = Json.createArrayBuilder();
+        try {
+            for (int i = 0; i < bursts; i++) {
+                JsonObject result = benchmark.runBurst();
+                System.out.println("Burst " + i + ": " + result);
+                results.add(result);
+            }
+        } finally {
+            benchmark.server.stop();
+        }
+        Path output = Paths.get(args.length > 0 ? args[0] : "target/webhook-delivery.json").toAbsolutePath();
+        try {
+            Files.createDirectories(output.getParent());
+            Files.write(output, results.build().toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println("Results written to " + output);
+    }
+
+    JsonObject runBurst() throws InterruptedException {
+        List<URI> endpoints = new ArrayList<>();
+        for (int w = 0; w < webhooks; w++) {
+            endpoints.add(URI.create("http://localhost:" + server.port() + "/hooks/" + w));
+        }
+        Decision decision = decision(endpoints);
+        DecisionVersion version = decisionVersion();
+        DecisionRequest request = new DecisionRequestBuilder()
+                .withMetadata(new ObjectMetaBuilder().withName(CUSTOMER + "-" + DECISION).build())
+                .withSpec(decisionRequestSpec().setWebhooks(endpoints))
+                .build();
+        enqueuedAt.clear();
+        delays.reset();
+        delivered.set(0);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        int expected = burst * webhooks;
+        int peakPoolActive = 0;
+        int peakPoolQueued = 0;
+
+        long start = System.nanoTime();
+        for (int seq = 0; seq < burst; seq++) {
+            String message = "mass re-deploy" + SEQUENCE_SEPARATOR + seq;
+            enqueuedAt.put(seq, System.nanoTime());
+            switch (seq % 3) {
+                case 0:
+                    client.notify(decision, version, message, Phase.CURRENT);
+                    break;
+                case 1:
+                    client.notify(version, endpoints, message, Phase.CURRENT);
+                    break;
+                default:
+                    client.notify(request, message, Phase.CURRENT);
+            }
+        }
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (delivered.get() < expected && System.nanoTime() < deadline) {
+            peakPoolActive = Math.max(peakPoolActive, ForkJoinPool.commonPool().getActiveThreadCount());
+            peakPoolQueued = Math.max(peakPoolQueued, (int) ForkJoinPool.commonPool().getQueuedSubmissionCount());
+            Thread.sleep(5);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        return Json.createObjectBuilder()
+                .add("notifications", burst)
+                .add("expectedDeliveries", expected)
+                .add("deliveries", delivered.get())
+                .add("deliveriesPerSecond", delivered.get() / seconds)
+                .add("queueingDelayP50Ms", delays.percentile(50))
+                .add("queueingDelayP99Ms", delays.percentile(99))
+                .add("queueingDelayMaxMs", delays.percentile(100))
+                .add("peakThreads", threads.getPeakThreadCount())
+                .add("peakCommonPoolActive", peakPoolActive)
+                .add("peakCommonPoolQueued", peakPoolQueued)
+                .add("commonPoolParallelism", ForkJoinPool.commonPool().getParallelism())
+                .build();
+    }
+
+    private static Decision decision(List<URI> endpoints) {
+        Decision decision = new DecisionBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName(DECISION)
+                        .withNamespace(CUSTOMER_NS)
+                        .addToLabels(CUSTOMER_LABEL, CUSTOMER)
+                        .build())
+                .withSpec(new DecisionSpec().setWebhooks(endpoints))
+                .build();
+        decision.setStatus(new DecisionStatus()
+                .setVersionId(decisionVersion().getSpec().getVersion())
+                .setEndpoint(decisionVersion().getStatus().getEndpoint()));
+        return decision;
+    }
+
+    // Runs as soon as the request reaches WireMock, before the stub's delay
+    private class ArrivalRecorder extends StubRequestFilter {
+
+        @Override
+        public RequestFilterAction filter(Request request) {
+            long now = System.nanoTime();
+            try (JsonReader reader = Json.createReader(new StringReader(request.getBodyAsString()))) {
+                String message = reader.readObject().getString("message", "");
+                int separator = message.lastIndexOf(SEQUENCE_SEPARATOR);
+                Long enqueued = separator < 0 ? null : enqueuedAt.get(Integer.parseInt(message.substring(separator + 1)));
+                if (enqueued != null) {
+                    delays.add(TimeUnit.NANOSECONDS.toMillis(now - enqueued));
+                }
+            }
+            delivered.incrementAndGet();
+            return RequestFilterAction.continueWith(request);
+        }
+
+        @Override
+        public String getName() {
+            return "arrival-recorder";
+        }
+    }
+
+    private static class RandomErrors extends ResponseDefinitionTransformer {
+
+        static final String NAME = "random-errors";
+
+        private final double errorRate;
+
+        RandomErrors(double errorRate) {
+            this.errorRate = errorRate;
+        }
+
+        @Override
+        public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                return ResponseDefinitionBuilder.like(responseDefinition).but().withStatus(500).build();
+            }
+            return responseDefinition;
+        }
+
+        @Override
+        public boolean applyGlobally() {
+            return false;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+    }
+
+    private static class DelaySamples {
+
+        private long[] samples = new long[1024];
+        private int size;
+
+        synchronized void add(long delayMs) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, samples.length * 2);
+            }
+            samples[size++] = delayMs;
+        }
+
+        synchronized void reset() {
+            size = 0;
+        }
+
+        synchronized long percentile(int percentile) {
+            if (size == 0) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            return sorted[Math.min(size - 1, (int) Math.ceil(percentile / 100.0 * size) - 1)];
+        }
+    }
+}
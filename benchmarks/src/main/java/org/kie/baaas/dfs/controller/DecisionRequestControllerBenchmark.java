@@ -0,0 +1,62 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.kie.baaas.dfs.api.DecisionRequestSpec;
+import org.kie.baaas.dfs.api.DecisionVersionSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.decisionRequestSpec;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.decisionVersionSpec;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DecisionRequestControllerBenchmark {
+
+    private DecisionRequestSpec request;
+    private DecisionVersionSpec existing;
+
+    @Setup
+    public void setup() {
+        request = decisionRequestSpec();
+        existing = decisionVersionSpec();
+    }
+
+    @Benchmark
+    public DecisionVersionSpec toDefinition() {
+        return DecisionRequestController.toDefinition(request);
+    }
+
+    // Mirrors the duplicated version check done on every DecisionRequest admission
+    @Benchmark
+    public boolean toDefinitionAndCompare() {
+        return existing.equals(DecisionRequestController.toDefinition(request));
+    }
+}
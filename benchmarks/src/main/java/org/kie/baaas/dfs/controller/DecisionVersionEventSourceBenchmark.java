@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.benchmark.BlackholeEventHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.utils.Serialization;
+
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.DECISION_VERSION;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.operatorLogLevel;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.resource;
+
+/**
+ * DecisionVersion watch events. The typed watch deserializes on the watch thread as well, so both the handling of an already
+ * deserialized resource and the full path from the raw payload are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.util.logging.manager=org.jboss.logmanager.LogManager")
+public class DecisionVersionEventSourceBenchmark {
+
+    @Param({ "WARNING", "INFO" })
+    public String logLevel;
+
+    private DecisionVersionEventSource eventSource;
+    private String payload;
+    private DecisionVersion version;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        operatorLogLevel(Level.parse(logLevel));
+        eventSource = new DecisionVersionEventSource(null, new WatchEventRecorder());
+        eventSource.setEventHandler(new BlackholeEventHandler(blackhole));
+        payload = resource(DECISION_VERSION);
+        version = Serialization.unmarshal(payload, DecisionVersion.class);
+    }
+
+    @Benchmark
+    public void eventReceived() {
+        eventSource.eventReceived(Watcher.Action.MODIFIED, version);
+    }
+
+    @Benchmark
+    public void unmarshalAndEventReceived() {
+        eventSource.eventReceived(Watcher.Action.MODIFIED, Serialization.unmarshal(payload, DecisionVersion.class));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.kie.baaas.dfs.benchmark.BlackholeEventHandler;
+import org.kie.baaas.dfs.service.KogitoService;
+import org.kie.baaas.dfs.service.PipelineService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.base.CustomResourceDefinitionContext;
+
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.CONTROLLER_NS;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.KOGITO_RUNTIME;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.operatorLogLevel;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.pipelineRunWithTaskRuns;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.resource;
+
+/**
+ * Watch thread cost of a PipelineRun or KogitoRuntime event, from the raw payload to EventHandler.handleEvent.
+ * Run with {@code -prof gc} to get the bytes allocated per event (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.util.logging.manager=org.jboss.logmanager.LogManager")
+public class GenericResourceEventSourceBenchmark {
+
+    @Param({ "pipelinerun", "pipelinerun-large", "kogitoruntime" })
+    public String payload;
+
+    @Param({ "WARNING", "INFO" })
+    public String logLevel;
+
+    private KubernetesClient client;
+    private GenericResourceEventSource eventSource;
+    private String resource;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        operatorLogLevel(Level.parse(logLevel));
+        // Never connects, only provides the controller namespace to the event source
+        client = new DefaultKubernetesClient(new ConfigBuilder()
+                .withMasterUrl("http://localhost:1")
+                .withNamespace(CONTROLLER_NS)
+                .build());
+        CustomResourceDefinitionContext context;
+        switch (payload) {
+            case "pipelinerun":
+                context = PipelineService.PIPELINE_RUN_CONTEXT;
+                resource = pipelineRunWithTaskRuns(1);
+                break;
+            case "pipelinerun-large":
+                context = PipelineService.PIPELINE_RUN_CONTEXT;
+                resource = pipelineRunWithTaskRuns(8);
+                break;
+            default:
+                context = KogitoService.KOGITO_RUNTIME_CONTEXT;
+                resource = resource(KOGITO_RUNTIME);
+        }
+        eventSource = new GenericResourceEventSource(client, context, new WatchEventRecorder(), new EventCoalescer());
+        eventSource.setEventHandler(new BlackholeEventHandler(blackhole));
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public void eventReceived() {
+        eventSource.eventReceived(Watcher.Action.MODIFIED, resource);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.service;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.KOGITO_RUNTIME;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.PIPELINE_RUN;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.decisionVersion;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.json;
+import static org.kie.baaas.dfs.controller.DecisionLabels.CUSTOMER_LABEL;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JsonResourceUtilsBenchmark {
+
+    private JsonObject pipelineRun;
+    private JsonObject kogitoRuntime;
+    private DecisionVersion version;
+
+    @Setup
+    public void setup() {
+        pipelineRun = json(PIPELINE_RUN);
+        kogitoRuntime = json(KOGITO_RUNTIME);
+        version = decisionVersion();
+    }
+
+    @Benchmark
+    public JsonObject getConditionSucceeded() {
+        return JsonResourceUtils.getCondition(pipelineRun, "Succeeded");
+    }
+
+    @Benchmark
+    public Boolean getConditionStatusDeployed() {
+        return JsonResourceUtils.getConditionStatus(kogitoRuntime, "Deployed");
+    }
+
+    @Benchmark
+    public JsonArray getConditions() {
+        return JsonResourceUtils.getConditions(pipelineRun);
+    }
+
+    @Benchmark
+    public String getLabel() {
+        return JsonResourceUtils.getLabel(pipelineRun, CUSTOMER_LABEL);
+    }
+
+    @Benchmark
+    public String getOwnerUid() {
+        return JsonResourceUtils.getOwnerUid(kogitoRuntime);
+    }
+
+    @Benchmark
+    public JsonValue getDeepPath() {
+        return JsonResourceUtils.get(pipelineRun, "status", "pipelineSpec", "params");
+    }
+
+    @Benchmark
+    public boolean isManagedByController() {
+        return JsonResourceUtils.isManagedByController(pipelineRun);
+    }
+
+    @Benchmark
+    public JsonObject toJson() {
+        return JsonResourceUtils.toJson(version);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.service;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.KOGITO_RUNTIME;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.decisionVersion;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.json;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class KogitoServiceBenchmark {
+
+    private DecisionVersion version;
+    private JsonObject expected;
+    private JsonObject unchanged;
+    private JsonObject changedImage;
+    private JsonObject deployed;
+
+    @Setup
+    public void setup() {
+        version = decisionVersion();
+        expected = KogitoService.build(version);
+        unchanged = Json.createObjectBuilder(expected).build();
+        changedImage = Json.createObjectBuilder(expected)
+                .add("spec", Json.createObjectBuilder(expected.getJsonObject("spec"))
+                        .add("image", "image-registry.openshift-image-registry.svc:5000/baaas-acme/loan-approval:2"))
+                .build();
+        deployed = json(KOGITO_RUNTIME);
+    }
+
+    @Benchmark
+    public JsonObject build() {
+        return KogitoService.build(version);
+    }
+
+    @Benchmark
+    public boolean needsUpdateUnchanged() {
+        return KogitoService.needsUpdate(expected, unchanged);
+    }
+
+    @Benchmark
+    public boolean needsUpdateChangedImage() {
+        return KogitoService.needsUpdate(expected, changedImage);
+    }
+
+    @Benchmark
+    public boolean needsUpdateDeployed() {
+        return KogitoService.needsUpdate(expected, deployed);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.service;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.json.JsonObject;
+
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.controller.WatchEventRecorder;
+import org.kie.baaas.dfs.service.networking.k8s.KubernetesNetworkingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.CONTROLLER_NS;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.REGISTRY;
+import static org.kie.baaas.dfs.benchmark.BenchmarkFixtures.decisionVersion;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PipelineServiceBenchmark {
+
+    private PipelineService pipelineService;
+    private DecisionVersion version;
+
+    @Setup
+    public void setup() {
+        pipelineService = new PipelineService();
+        pipelineService.networkingService = new KubernetesNetworkingService(null, REGISTRY, new WatchEventRecorder());
+        version = decisionVersion();
+    }
+
+    @Benchmark
+    public JsonObject buildPipelineRun() {
+        return pipelineService.build(CONTROLLER_NS, version);
+    }
+
+    @Benchmark
+    public String buildPipelineRunAsString() {
+        return pipelineService.build(CONTROLLER_NS, version).toString();
+    }
+}
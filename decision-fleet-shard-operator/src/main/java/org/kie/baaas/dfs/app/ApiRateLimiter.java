@@ -0,0 +1,218 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.app;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Bounds the rate of requests the operator sends to the API server, so that a mass resync does not get the whole
+ * cluster throttled by API Priority and Fairness. Every request takes a token from a global bucket refilled at
+ * {@code baaas.api.qps} with room for {@code baaas.api.burst}; requests to a {@code baaas-<customerId>} namespace first
+ * take one from that customer's bucket, {@code baaas.api.customer-qps} and {@code baaas.api.customer-burst}, so one
+ * busy customer waits on its own bucket. Requests wait for their token in arrival order, for at most
+ * {@code baaas.api.max-wait-ms}; a request that would wait longer fails right away, without taking the token, and its
+ * reconcile is retried later. Lease requests are never throttled, since a delayed renewal could cost this replica its
+ * leadership or shard membership. The limits are off unless configured, a rate of 0 disables a bucket.
+ */
+@ApplicationScoped
+public class ApiRateLimiter implements Interceptor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiRateLimiter.class);
+
+    static final String GLOBAL = "global";
+    private static final String NAMESPACE_PREFIX = "baaas-";
+
+    @ConfigProperty(name = "baaas.api.qps", defaultValue = "0")
+    double qps;
+
+    @ConfigProperty(name = "baaas.api.burst", defaultValue = "100")
+    int burst;
+
+    @ConfigProperty(name = "baaas.api.customer-qps", defaultValue = "0")
+    double customerQps;
+
+    @ConfigProperty(name = "baaas.api.customer-burst", defaultValue = "20")
+    int customerBurst;
+
+    @ConfigProperty(name = "baaas.api.max-wait-ms", defaultValue = "5000")
+    long maxWaitMs;
+
+    LongSupplier clock = System::nanoTime;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    private volatile String operatorNamespace;
+
+    /**
+     * Requests to the operator namespace are only limited by the global bucket.
+     */
+    public void setOperatorNamespace(String operatorNamespace) {
+        this.operatorNamespace = operatorNamespace;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        if (isLease(chain.request().url())) {
+            return chain.proceed(chain.request());
+        }
+        String customer = getCustomer(chain.request().url());
+        if (customer != null) {
+            acquire(customer, customerQps, customerBurst);
+        }
+        acquire(GLOBAL, qps, burst);
+        return chain.proceed(chain.request());
+    }
+
+    /**
+     * @return per bucket, the requests, the ones that had to wait, the ones rejected for waiting too long and the total
+     *         and longest wait in milliseconds
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        stats.forEach((key, s) -> result.put(key, s.toMap()));
+        return result;
+    }
+
+    void acquire(String key, double rate, int capacity) throws IOException {
+        if (rate <= 0) {
+            return;
+        }
+        long maxWait = maxWaitMs > 0 ? TimeUnit.MILLISECONDS.toNanos(maxWaitMs) : Long.MAX_VALUE;
+        long wait = buckets.computeIfAbsent(key, k -> new TokenBucket(rate, capacity, clock.getAsLong())).reserve(clock.getAsLong(), maxWait);
+        Stats bucketStats = stats.computeIfAbsent(key, k -> new Stats());
+        if (wait < 0) {
+            bucketStats.rejected.increment();
+            throw new IOException("Too many API requests for " + key + ", the request would wait more than " + maxWaitMs + "ms, retry later");
+        }
+        bucketStats.record(wait);
+        if (wait <= 0) {
+            return;
+        }
+        LOGGER.debug("Throttling API request of {} for {}ms", key, TimeUnit.NANOSECONDS.toMillis(wait));
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for an API request token");
+        }
+    }
+
+    static boolean isLease(HttpUrl url) {
+        return url.pathSegments().contains("coordination.k8s.io");
+    }
+
+    String getCustomer(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        int namespaces = segments.indexOf("namespaces");
+        if (namespaces < 0 || namespaces + 1 >= segments.size()) {
+            return null;
+        }
+        String namespace = segments.get(namespaces + 1);
+        if (!namespace.startsWith(NAMESPACE_PREFIX) || namespace.equals(operatorNamespace)) {
+            return null;
+        }
+        return namespace.substring(NAMESPACE_PREFIX.length());
+    }
+
+    /**
+     * Tokens go negative as requests reserve them ahead of time, which is how long the next request has to wait.
+     */
+    static class TokenBucket {
+
+        private final double nanosPerToken;
+        private final int capacity;
+        private double tokens;
+        private long refilled;
+
+        TokenBucket(double rate, int capacity, long now) {
+            this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / rate;
+            this.capacity = Math.max(1, capacity);
+            this.tokens = this.capacity;
+            this.refilled = now;
+        }
+
+        /**
+         * @return the nanoseconds to wait before using the token
+         */
+        long reserve(long now) {
+            return reserve(now, Long.MAX_VALUE);
+        }
+
+        /**
+         * @return the nanoseconds to wait before using the token, -1 without taking it when that is more than maxWait
+         */
+        synchronized long reserve(long now, long maxWait) {
+            if (now > refilled) {
+                tokens = Math.min(capacity, tokens + (now - refilled) / nanosPerToken);
+                refilled = now;
+            }
+            long wait = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken);
+            if (wait > maxWait) {
+                return -1;
+            }
+            tokens -= 1;
+            return wait;
+        }
+    }
+
+    private static class Stats {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+        private void record(long wait) {
+            requests.increment();
+            if (wait > 0) {
+                throttled.increment();
+                waitNanos.add(wait);
+                maxWaitNanos.accumulate(wait);
+            }
+        }
+
+        private Map<String, Long> toMap() {
+            Map<String, Long> values = new TreeMap<>();
+            values.put("requests", requests.sum());
+            values.put("throttled", throttled.sum());
+            values.put("rejected", rejected.sum());
+            values.put("waitMs", TimeUnit.NANOSECONDS.toMillis(waitNanos.sum()));
+            values.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+            return values;
+        }
+    }
+}
@@ -14,16 +14,36 @@
  */
 package org.kie.baaas.dfs.app;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.inject.Produces;
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.utils.HttpClientUtils;
 import io.fabric8.openshift.client.DefaultOpenShiftClient;
 import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftConfig;
+
+import okhttp3.OkHttpClient;
 
 @Singleton
 public class ClientProducerImpl implements ClientProducer {
 
-    private final OpenShiftClient client = new DefaultOpenShiftClient();
+    @Inject
+    ApiRateLimiter rateLimiter;
+
+    private OpenShiftClient client;
+
+    @PostConstruct
+    void init() {
+        OpenShiftConfig config = OpenShiftConfig.wrap(Config.autoConfigure(null));
+        rateLimiter.setOperatorNamespace(config.getNamespace());
+        OkHttpClient httpClient = HttpClientUtils.createHttpClient(config).newBuilder()
+                .addInterceptor(rateLimiter)
+                .build();
+        client = new DefaultOpenShiftClient(httpClient, config);
+    }
 
     @Override
     @Produces
@@ -18,7 +18,9 @@ import javax.enterprise.inject.Produces;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import org.kie.baaas.dfs.controller.WatchEventRecorder;
 import org.kie.baaas.dfs.model.Platform;
+import org.kie.baaas.dfs.service.ConflictAwareWriter;
 import org.kie.baaas.dfs.service.networking.NetworkingService;
 import org.kie.baaas.dfs.service.networking.k8s.KubernetesNetworkingService;
 import org.kie.baaas.dfs.service.networking.openshift.OpenshiftNetworkingService;
@@ -34,11 +36,17 @@ public class NetworkingServiceProducer {
     @Inject
     PlatformConfigProvider platformConfigProvider;
 
+    @Inject
+    WatchEventRecorder recorder;
+
+    @Inject
+    ConflictAwareWriter writer;
+
     @Produces
     public NetworkingService getService() {
         if (Platform.OPENSHIFT.equals(platformConfigProvider.getPlatform())) {
-            return new OpenshiftNetworkingService(client, platformConfigProvider.getOpenshiftInternalRegistry());
+            return new OpenshiftNetworkingService(client, platformConfigProvider.getOpenshiftInternalRegistry(), recorder, writer);
         }
-        return new KubernetesNetworkingService(client, platformConfigProvider.getKubernetesInternalRegistry());
+        return new KubernetesNetworkingService(client, platformConfigProvider.getKubernetesInternalRegistry(), recorder, writer);
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.app;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import org.kie.baaas.dfs.controller.GenerationFilter;
+import org.kie.baaas.dfs.controller.ReconcileBackoff;
+import org.kie.baaas.dfs.controller.ReconcileScheduler;
+import org.kie.baaas.dfs.controller.ResyncScheduler;
+import org.kie.baaas.dfs.service.ConflictAwareWriter;
+
+/**
+ * Counters of the reconcile pipeline. The endpoint is not authenticated, so the counters kept per customer are only
+ * reported in total.
+ */
+@Path("/reconcile/stats")
+public class ReconcileStatsResource {
+
+    @Inject
+    ReconcileScheduler scheduler;
+
+    @Inject
+    ConflictAwareWriter writer;
+
+    @Inject
+    ReconcileBackoff backoff;
+
+    @Inject
+    ApiRateLimiter rateLimiter;
+
+    @Inject
+    ResyncScheduler resync;
+
+    @Inject
+    GenerationFilter generations;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        stats.put("queue", getQueueStats());
+        stats.put("conflicts", writer.getStats());
+        // Resources backing off after failed reconciles and the reconciles skipped meanwhile
+        stats.put("backoff", Map.of("backingOff", (long) backoff.getBackingOff(), "skipped", backoff.getSkipped()));
+        stats.put("throttling", getThrottlingStats());
+        stats.put("resync", resync.getStats());
+        // Reconciles skipped because their spec had already been reconciled
+        stats.put("generations", generations.getStats());
+        return stats;
+    }
+
+    // Reconciles waiting for a worker and the customers they belong to
+    private Map<String, Long> getQueueStats() {
+        Map<String, Integer> depths = scheduler.getQueueDepths();
+        return Map.of("waiting", depths.values().stream().mapToLong(Integer::longValue).sum(), "customers", (long) depths.size());
+    }
+
+    // API requests and the time they waited for a token, in the global bucket and in all the customer buckets together
+    private Map<String, Map<String, Long>> getThrottlingStats() {
+        Map<String, Map<String, Long>> stats = new TreeMap<>();
+        rateLimiter.getStats().forEach((key, counters) -> stats.merge(ApiRateLimiter.GLOBAL.equals(key) ? ApiRateLimiter.GLOBAL : "customers",
+                counters, ReconcileStatsResource::add));
+        return stats;
+    }
+
+    private static Map<String, Long> add(Map<String, Long> first, Map<String, Long> second) {
+        Map<String, Long> sum = new TreeMap<>(first);
+        second.forEach((name, value) -> sum.merge(name, value, "maxWaitMs".equals(name) ? Math::max : Long::sum));
+        return sum;
+    }
+}
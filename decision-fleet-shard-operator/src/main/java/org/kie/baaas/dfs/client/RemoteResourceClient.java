@@ -17,9 +17,9 @@ package org.kie.baaas.dfs.client;
 
 import java.net.URI;
 import java.util.Collection;
-import java.util.concurrent.CompletableFuture;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.MediaType;
@@ -33,6 +33,7 @@ import org.kie.baaas.dfs.api.Phase;
 import org.kie.baaas.dfs.api.ResourceUtils;
 import org.kie.baaas.dfs.api.Webhook;
 import org.kie.baaas.dfs.api.WebhookBuilder;
+import org.kie.baaas.dfs.controller.TenantExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,10 +45,13 @@ public class RemoteResourceClient {
 
     private Client client = ResteasyClientBuilder.newClient();
 
+    @Inject
+    TenantExecutor tenantExecutor;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(RemoteResourceClient.class);
 
     public void notify(DecisionRequest request, String message, Phase phase) {
-        CompletableFuture.runAsync(() -> {
+        tenantExecutor.runAsync(request.getSpec().getCustomerId(), () -> {
             Webhook webhook = new WebhookBuilder().withCustomer(request.getSpec().getCustomerId())
                     .withDecision(request.getSpec().getName())
                     .withAt(ResourceUtils.now())
@@ -59,7 +63,7 @@ public class RemoteResourceClient {
     }
 
     public void notify(Decision decision, DecisionVersion version, String message, Phase phase) {
-        CompletableFuture.runAsync(() -> {
+        tenantExecutor.runAsync(decision.getMetadata().getLabels().get(CUSTOMER_LABEL), () -> {
             Webhook webhook = new WebhookBuilder().withCustomer(decision.getMetadata().getLabels().get(CUSTOMER_LABEL))
                     .withDecision(decision.getMetadata().getName())
                     .withAt(ResourceUtils.now())
@@ -76,7 +80,7 @@ public class RemoteResourceClient {
     }
 
     public void notify(DecisionVersion version, Collection<URI> webhooks, String message, Phase phase) {
-        CompletableFuture.runAsync(() -> {
+        tenantExecutor.runAsync(version.getMetadata().getLabels().get(CUSTOMER_LABEL), () -> {
             Webhook webhook = new WebhookBuilder().withCustomer(version.getMetadata().getLabels().get(CUSTOMER_LABEL))
                     .withDecision(version.getMetadata().getLabels().get(DECISION_LABEL))
                     .withAt(ResourceUtils.now())
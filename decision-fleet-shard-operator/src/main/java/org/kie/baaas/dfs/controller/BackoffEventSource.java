@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import org.kie.baaas.dfs.model.BackoffEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.javaoperatorsdk.operator.processing.event.AbstractEventSource;
+
+/**
+ * Hands the resources scheduled by {@link ReconcileBackoff} back to the controller it is registered with.
+ */
+public class BackoffEventSource extends AbstractEventSource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackoffEventSource.class);
+
+    void trigger(String uid) {
+        if (eventHandler == null) {
+            LOGGER.warn("Ignoring backoff of resource {}. EventHandler has not yet been initialized.", uid);
+            return;
+        }
+        eventHandler.handleEvent(new BackoffEvent(uid, this));
+    }
+}
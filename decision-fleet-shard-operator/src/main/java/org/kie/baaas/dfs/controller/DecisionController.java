@@ -27,6 +27,7 @@ import org.kie.baaas.dfs.api.DecisionVersionBuilder;
 import org.kie.baaas.dfs.api.Phase;
 import org.kie.baaas.dfs.client.RemoteResourceClient;
 import org.kie.baaas.dfs.model.NetworkResource;
+import org.kie.baaas.dfs.service.ConflictAwareWriter;
 import org.kie.baaas.dfs.service.networking.NetworkingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,26 +68,79 @@ public class DecisionController implements ResourceController<Decision> {
     @Inject
     NetworkingService networkingService;
 
+    @Inject
+    WatchEventRecorder recorder;
+
+    @Inject
+    ReconcileScheduler scheduler;
+
+    @Inject
+    DecisionLocks locks;
+
+    @Inject
+    ConflictAwareWriter writer;
+
+    @Inject
+    ReconcileBackoff backoff;
+
+    @Inject
+    ShardManager shards;
+
+    @Inject
+    ResyncScheduler resync;
+
+    @Inject
+    GenerationFilter generations;
+
     @Override
     public void init(EventSourceManager eventSourceManager) {
-        eventSourceManager.registerEventSource("decision-version-event-source", DecisionVersionEventSource.createAndRegisterWatch(client));
+        eventSourceManager.registerEventSource("decision-version-event-source", DecisionVersionEventSource.createAndRegisterWatch(client, recorder));
         this.networkingEventSource = networkingService.createAndRegisterWatchNetworkingResource();
         eventSourceManager.registerEventSource("current-endpoint-event-source", this.networkingEventSource);
+        eventSourceManager.registerEventSource("decision-backoff-event-source", backoff.eventSource(Decision.class));
+        eventSourceManager.registerEventSource("decision-shard-event-source", shards.eventSource(Decision.class));
+        eventSourceManager.registerEventSource("decision-resync-event-source", resync.eventSource(Decision.class));
     }
 
     public DeleteControl deleteResource(Decision decision, Context<Decision> context) {
+        if (!shards.isOwned(decision)) {
+            shards.release(decision);
+            return DeleteControl.NO_FINALIZER_REMOVAL;
+        }
         LOGGER.info("Deleted Decision: {} in namespace {}", decision.getMetadata().getName(), decision.getMetadata().getNamespace());
         String requestName = decision.getMetadata().getLabels().get(DECISION_REQUEST_LABEL);
         LOGGER.info("Deleting DecisionRequest: {} in namespace {}", requestName, client.getNamespace());
         client.customResources(DecisionRequest.class).inNamespace(client.getNamespace()).withName(requestName).delete();
         LOGGER.info("Deleting networking resources for decision {}", decision.getMetadata().getName());
-        networkingService.deleteCurrentEndpoint(decision.getMetadata().getName(), decision.getMetadata().getNamespace());
-        return DeleteControl.DEFAULT_DELETE;
+        backoff.forget(decision);
+        resync.forget(decision);
+        generations.forget(decision);
+        writer.forget(decision);
+        return locks.withLock(getNamespace(decision), decision.getMetadata().getName(), () -> {
+            networkingService.deleteCurrentEndpoint(decision.getMetadata().getName(), decision.getMetadata().getNamespace());
+            return DeleteControl.DEFAULT_DELETE;
+        });
     }
 
     public UpdateControl<Decision> createOrUpdateResource(Decision decision, Context<Decision> context) {
+        if (!shards.accept(decision)) {
+            LOGGER.debug("Decision {} in namespace {} is reconciled by another replica", decision.getMetadata().getName(), decision.getMetadata().getNamespace());
+            return UpdateControl.noUpdate();
+        }
+        if (generations.isUnchanged(decision, decision.getStatus() == null ? null : decision.getStatus().getObservedGeneration(), context)) {
+            return UpdateControl.noUpdate();
+        }
+        if (backoff.isBackingOff(decision)) {
+            return UpdateControl.noUpdate();
+        }
         LOGGER.info("Create or update Decision: {} in namespace {}", decision.getMetadata().getName(), decision.getMetadata().getNamespace());
-        return createOrUpdateDecisionVersion(decision);
+        // Promotes new versions to the current endpoint, resyncs only look for drift
+        ReconcileScheduler.Priority priority = ResyncScheduler.isResync(context) ? ReconcileScheduler.Priority.LOW : ReconcileScheduler.Priority.HIGH;
+        // Reconciles skipped while backing off are not recorded as reconciled
+        return scheduler.execute(ReconcileScheduler.getCustomer(decision), priority,
+                () -> locks.withLock(getNamespace(decision), decision.getMetadata().getName(),
+                        () -> shards.runIfAccepted(decision, () -> backoff.run(decision, () -> generations.reconciled(decision, resync.reconciled(decision,
+                                writer.retryStatus(decision, context).orElseGet(() -> createOrUpdateDecisionVersion(decision))))))));
     }
 
     private UpdateControl<Decision> createOrUpdateDecisionVersion(Decision decision) {
@@ -115,9 +169,9 @@ public class DecisionController implements ResourceController<Decision> {
         }
 
         if (version == null || !Objects.equals(expected.getSpec(), version.getSpec())) {
-            version = client.customResources(DecisionVersion.class)
+            version = writer.write(expected.getKind(), () -> client.customResources(DecisionVersion.class)
                     .inNamespace(namespace)
-                    .createOrReplace(expected);
+                    .createOrReplace(expected));
         }
 
         if (Boolean.parseBoolean(version.getStatus().isReady()) && version.getStatus().getKogitoServiceRef() != null) {
@@ -138,7 +192,8 @@ public class DecisionController implements ResourceController<Decision> {
                 decision.getStatus().setVersionId(version.getSpec().getVersion());
                 resourceClient.notify(decision, version, null, Phase.CURRENT);
             }
-            return UpdateControl.updateStatusSubResource(decision);
+            decision.getStatus().setObservedGeneration(decision.getMetadata().getGeneration());
+            return writer.updateStatus(decision);
         }
         return UpdateControl.noUpdate();
     }
@@ -14,6 +14,9 @@
  */
 package org.kie.baaas.dfs.controller;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.kie.baaas.dfs.api.Decision;
 import org.kie.baaas.dfs.api.DecisionVersion;
 import org.kie.baaas.dfs.model.DecisionEvent;
@@ -21,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watch;
 import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.kubernetes.client.WatcherException;
 import io.javaoperatorsdk.operator.processing.event.AbstractEventSource;
@@ -34,6 +38,7 @@ import static org.kie.baaas.dfs.controller.DecisionLabels.OPERATOR_NAME;
 
 /**
  * EventSource that DecisionVersions will register to track Decision changes that might affect the owned Version.
+ * One watch is shared by all the versions of a Decision, each event is handed to the event handler once per version.
  */
 public class DecisionEventSource extends AbstractEventSource implements Watcher<Decision> {
 
@@ -41,30 +46,126 @@ public class DecisionEventSource extends AbstractEventSource implements Watcher<
 
     private final KubernetesClient client;
 
-    private final DecisionVersion version;
+    private final String customer;
+
+    private final String decision;
+
+    private final WatchEventRecorder recorder;
+
+    private final Set<String> versionUids = ConcurrentHashMap.newKeySet();
 
-    public static DecisionEventSource createAndRegisterWatch(KubernetesClient client, DecisionVersion version) {
-        DecisionEventSource eventSource = new DecisionEventSource(client, version);
-        eventSource.registerWatch();
-        return eventSource;
+    // Guarded by the monitor, null until opened and once closed
+    private Watch watch;
+
+    private volatile boolean closed;
+
+    private volatile Runnable onClosed = () -> {
+    };
+
+    /**
+     * @return an event source whose watch is only opened by {@link #registerWatch()}
+     */
+    public static DecisionEventSource create(KubernetesClient client, DecisionVersion version, WatchEventRecorder recorder) {
+        return new DecisionEventSource(client,
+                version.getMetadata().getLabels().get(CUSTOMER_LABEL),
+                version.getMetadata().getLabels().get(DECISION_LABEL),
+                recorder);
     }
 
-    private DecisionEventSource(KubernetesClient client, DecisionVersion version) {
+    private DecisionEventSource(KubernetesClient client, String customer, String decision, WatchEventRecorder recorder) {
         this.client = client;
-        this.version = version;
+        this.customer = customer;
+        this.decision = decision;
+        this.recorder = recorder;
     }
 
-    private void registerWatch() {
-        client.customResources(Decision.class)
+    public void registerWatch() {
+        Watch opened = client.customResources(Decision.class)
                 .inAnyNamespace()
                 .withLabel(MANAGED_BY_LABEL, OPERATOR_NAME)
-                .withLabel(CUSTOMER_LABEL, version.getMetadata().getLabels().get(CUSTOMER_LABEL))
-                .withField("metadata.name", version.getMetadata().getLabels().get(DECISION_LABEL))
+                .withLabel(CUSTOMER_LABEL, customer)
+                .withField("metadata.name", decision)
                 .watch(this);
+        boolean closing;
+        synchronized (this) {
+            closing = closed;
+            if (!closing) {
+                watch = opened;
+            }
+        }
+        if (closing) {
+            opened.close();
+        }
+    }
+
+    /**
+     * @return false when the event source was closed with its last version, a new one must be opened
+     */
+    public synchronized boolean addVersion(String versionUid) {
+        if (closed) {
+            return false;
+        }
+        versionUids.add(versionUid);
+        return true;
+    }
+
+    public boolean hasVersion(String versionUid) {
+        return versionUids.contains(versionUid);
+    }
+
+    /**
+     * Marks the event source closed with the last version, its watch is then closed by {@link #close()}.
+     *
+     * @return true when no version is tracked anymore
+     */
+    public synchronized boolean removeVersion(String versionUid) {
+        versionUids.remove(versionUid);
+        if (versionUids.isEmpty()) {
+            closed = true;
+        }
+        return closed;
+    }
+
+    /**
+     * @param onClosed called when the SDK removes the last version, see {@link #eventSourceDeRegisteredForResource(String)}
+     */
+    public void setOnClosed(Runnable onClosed) {
+        this.onClosed = onClosed;
+    }
+
+    // The SDK also removes deleted DecisionVersions that the controller did not deregister
+    @Override
+    public void eventSourceDeRegisteredForResource(String customResourceUid) {
+        boolean closing;
+        synchronized (this) {
+            closing = !closed && removeVersion(customResourceUid);
+        }
+        if (closing) {
+            close();
+            onClosed.run();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // Closing the watch waits on the API server, so it is done without holding the monitor
+    public void close() {
+        Watch closing;
+        synchronized (this) {
+            closed = true;
+            closing = watch;
+            watch = null;
+        }
+        if (closing != null) {
+            closing.close();
+        }
     }
 
     @Override
     public void eventReceived(Action action, Decision resource) {
+        recorder.record("decisions", action, resource);
         if (eventHandler == null) {
             LOGGER.warn("Ignoring action {} for resource {}. EventHandler has not yet been initialized.", action, resource);
             return;
@@ -81,7 +182,7 @@ public class DecisionEventSource extends AbstractEventSource implements Watcher<
                     getVersion(resource));
             return;
         }
-        eventHandler.handleEvent(new DecisionEvent(action, version.getMetadata().getUid(), resource, this));
+        versionUids.forEach(uid -> eventHandler.handleEvent(new DecisionEvent(action, uid, resource, this)));
     }
 
     @Override
@@ -89,6 +190,9 @@ public class DecisionEventSource extends AbstractEventSource implements Watcher<
         if (e == null) {
             return;
         }
+        if (closed) {
+            return;
+        }
         if (e.isHttpGone()) {
             LOGGER.warn("Received error for watch, will try to reconnect.", e);
             registerWatch();
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.javaoperatorsdk.operator.processing.event.EventSourceManager;
+
+import static org.kie.baaas.dfs.controller.DecisionLabels.CUSTOMER_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.DECISION_LABEL;
+
+/**
+ * Tracks the {@link DecisionEventSource} shared by the versions of each Decision. Registering a version that is already
+ * tracked costs a map lookup. The first version of a Decision opens the watch and registers it with the operator SDK,
+ * the last one to be removed closes it, whether the controller or the SDK removes it.
+ * <p>
+ * The map only reserves the entry: the watch is opened, closed and the SDK called outside of it, since the SDK holds
+ * its own lock while it calls back into {@link #release(String, DecisionEventSource)}. Registering and deregistering
+ * the versions of one Decision must therefore not run concurrently, the callers hold its {@link DecisionLocks} lock, so
+ * that concurrent reconciles never open a second watch nor register the same name twice with the SDK.
+ */
+public class DecisionEventSourceRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DecisionEventSourceRegistry.class);
+
+    private static final String NAME_PREFIX = "decision-event-source-";
+
+    private final Map<String, DecisionEventSource> eventSources = new ConcurrentHashMap<>();
+
+    // Keys whose source was closed by the SDK and is still registered with it, dropped on the next register or deregister
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+    private final EventSourceManager eventSourceManager;
+
+    private final Function<DecisionVersion, DecisionEventSource> factory;
+
+    public DecisionEventSourceRegistry(EventSourceManager eventSourceManager, Function<DecisionVersion, DecisionEventSource> factory) {
+        this.eventSourceManager = eventSourceManager;
+        this.factory = factory;
+    }
+
+    public void register(DecisionVersion version) {
+        String key = getKey(version);
+        String uid = version.getMetadata().getUid();
+        DecisionEventSource current = eventSources.get(key);
+        if (current != null && current.hasVersion(uid)) {
+            return;
+        }
+        AtomicReference<DecisionEventSource> created = new AtomicReference<>();
+        AtomicBoolean replaced = new AtomicBoolean();
+        eventSources.compute(key, (k, eventSource) -> {
+            if (eventSource != null && eventSource.addVersion(uid)) {
+                return eventSource;
+            }
+            // A source closed by the SDK but not released yet is still registered under the same name
+            replaced.set(eventSource != null || stale.remove(k));
+            DecisionEventSource source = factory.apply(version);
+            source.addVersion(uid);
+            source.setOnClosed(() -> release(k, source));
+            created.set(source);
+            return source;
+        });
+        if (created.get() == null) {
+            return;
+        }
+        if (replaced.get()) {
+            eventSourceManager.deRegisterEventSource(NAME_PREFIX + key);
+        }
+        LOGGER.debug("Watching Decision {} for DecisionVersion {}", key, version.getMetadata().getName());
+        try {
+            created.get().registerWatch();
+            eventSourceManager.registerEventSource(NAME_PREFIX + key, created.get());
+        } catch (RuntimeException e) {
+            eventSources.remove(key, created.get());
+            created.get().close();
+            throw e;
+        }
+    }
+
+    public void deregister(DecisionVersion version) {
+        String key = getKey(version);
+        String uid = version.getMetadata().getUid();
+        // The SDK hands the uid to the source, which closes its watch with the last version
+        eventSourceManager.deRegisterCustomResourceFromEventSource(NAME_PREFIX + key, uid);
+        AtomicReference<DecisionEventSource> removed = new AtomicReference<>();
+        AtomicBoolean registered = new AtomicBoolean();
+        eventSources.compute(key, (k, eventSource) -> {
+            if (eventSource != null && !eventSource.removeVersion(uid)) {
+                return eventSource;
+            }
+            removed.set(eventSource);
+            registered.set(eventSource != null || stale.remove(k));
+            return null;
+        });
+        if (removed.get() != null) {
+            removed.get().close();
+        }
+        if (registered.get()) {
+            LOGGER.debug("Closing the watch on Decision {}, its last DecisionVersion {} was deleted", key, version.getMetadata().getName());
+            eventSourceManager.deRegisterEventSource(NAME_PREFIX + key);
+        }
+    }
+
+    // The SDK may be iterating over its event sources, so it is only deregistered from the SDK later on
+    private void release(String key, DecisionEventSource closed) {
+        eventSources.computeIfPresent(key, (k, eventSource) -> {
+            if (eventSource != closed) {
+                return eventSource;
+            }
+            LOGGER.debug("Closed the watch on Decision {}, its last DecisionVersion was deleted", key);
+            stale.add(key);
+            return null;
+        });
+    }
+
+    public int size() {
+        return eventSources.size();
+    }
+
+    // Label values cannot contain a slash, so no two customer and Decision pairs share a key
+    private static String getKey(DecisionVersion version) {
+        return version.getMetadata().getLabels().get(CUSTOMER_LABEL) + "/" + version.getMetadata().getLabels().get(DECISION_LABEL);
+    }
+}
@@ -27,6 +27,7 @@ public class DecisionLabels {
     public static final String BAAAS_RESOURCE_LABEL = "org.kie.baaas/resource";
     public static final String BAAAS_RESOURCE_KOGITO_SERVICE = "kogitoservice";
     public static final String BAAAS_RESOURCE_PIPELINE_RUN = "pipelinerun";
+    public static final String BAAAS_RESOURCE_SHARD = "shard";
 
     private DecisionLabels() {
     }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Serializes the Decision and DecisionVersion reconciles of the same decision, so that switching the current endpoint
+ * and deploying a version endpoint do not overwrite each other. Decisions are hashed onto
+ * {@code baaas.reconcile.lock-stripes} locks: different decisions only wait for each other when they share a stripe.
+ * A reconcile holds a single stripe at a time, so the locks cannot deadlock.
+ */
+@ApplicationScoped
+public class DecisionLocks {
+
+    @ConfigProperty(name = "baaas.reconcile.lock-stripes", defaultValue = "256")
+    int stripes;
+
+    private ReentrantLock[] locks;
+
+    @PostConstruct
+    void init() {
+        locks = new ReentrantLock[Math.max(1, stripes)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(String namespace, String decision, Supplier<T> action) {
+        ReentrantLock lock = getLock(namespace, decision);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ReentrantLock getLock(String namespace, String decision) {
+        int hash = 31 * String.valueOf(namespace).hashCode() + String.valueOf(decision).hashCode();
+        // Spreads the high bits as HashMap does
+        hash ^= hash >>> 16;
+        return locks[Math.floorMod(hash, locks.length)];
+    }
+}
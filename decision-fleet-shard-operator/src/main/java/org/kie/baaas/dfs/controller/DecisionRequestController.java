@@ -40,6 +40,7 @@ import org.kie.baaas.dfs.api.Kafka;
 import org.kie.baaas.dfs.api.Phase;
 import org.kie.baaas.dfs.client.RemoteResourceClient;
 import org.kie.baaas.dfs.model.DecisionValidationException;
+import org.kie.baaas.dfs.service.ConflictAwareWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,6 +57,7 @@ import io.javaoperatorsdk.operator.api.Controller;
 import io.javaoperatorsdk.operator.api.DeleteControl;
 import io.javaoperatorsdk.operator.api.ResourceController;
 import io.javaoperatorsdk.operator.api.UpdateControl;
+import io.javaoperatorsdk.operator.processing.event.EventSourceManager;
 
 import static org.kie.baaas.dfs.api.AdmissionStatus.REJECTED;
 import static org.kie.baaas.dfs.api.DecisionConstants.CLIENTID_KEY;
@@ -88,13 +90,49 @@ public class DecisionRequestController implements ResourceController<DecisionReq
     @Inject
     Validator validator;
 
+    @Inject
+    ReconcileScheduler scheduler;
+
+    @Inject
+    ConflictAwareWriter writer;
+
+    @Inject
+    ShardManager shards;
+
+    @Inject
+    GenerationFilter generations;
+
+    @Override
+    public void init(EventSourceManager eventSourceManager) {
+        eventSourceManager.registerEventSource("decision-request-shard-event-source", shards.eventSource(DecisionRequest.class));
+    }
+
     public DeleteControl deleteResource(DecisionRequest request, Context<DecisionRequest> context) {
+        if (!shards.isOwned(request)) {
+            shards.release(request);
+            return DeleteControl.NO_FINALIZER_REMOVAL;
+        }
+        generations.forget(request);
+        writer.forget(request);
         LOGGER.info("Delete DecisionRequest: {} in namespace {}", request.getMetadata().getName(), request.getMetadata().getNamespace());
         return DeleteControl.DEFAULT_DELETE;
     }
 
     public UpdateControl<DecisionRequest> createOrUpdateResource(DecisionRequest request, Context<DecisionRequest> context) {
+        if (!shards.accept(request)) {
+            LOGGER.debug("DecisionRequest {} is reconciled by another replica", request.getMetadata().getName());
+            return UpdateControl.noUpdate();
+        }
+        if (generations.isUnchanged(request, request.getStatus() == null ? null : request.getStatus().getObservedGeneration(), context)) {
+            return UpdateControl.noUpdate();
+        }
         LOGGER.info("Create or update DecisionRequest: {} in namespace {}", request.getMetadata().getName(), request.getMetadata().getNamespace());
+        String customer = request.getSpec() == null ? null : request.getSpec().getCustomerId();
+        return scheduler.execute(customer, ReconcileScheduler.Priority.HIGH, () -> shards.runIfAccepted(request,
+                () -> generations.reconciled(request, writer.retryStatus(request, context).orElseGet(() -> reconcile(request)))));
+    }
+
+    private UpdateControl<DecisionRequest> reconcile(DecisionRequest request) {
         String targetNamespace = getTargetNamespace(request);
         try {
             validateSpec(request.getSpec(), targetNamespace);
@@ -103,9 +141,10 @@ public class DecisionRequestController implements ResourceController<DecisionReq
                     .withReason(e.getReason())
                     .withMessage(e.getMessage())
                     .withState(REJECTED)
+                    .withObservedGeneration(request.getMetadata().getGeneration())
                     .build());
             resourceClient.notify(request, e.getMessage(), Phase.FAILED);
-            return UpdateControl.updateStatusSubResource(request);
+            return writer.updateStatus(request);
         }
         try {
             Namespace targetNs = client.namespaces().withName(targetNamespace).get();
@@ -124,9 +163,10 @@ public class DecisionRequestController implements ResourceController<DecisionReq
                     .withReason(SERVER_ERROR)
                     .withMessage(e.getMessage())
                     .withState(REJECTED)
+                    .withObservedGeneration(request.getMetadata().getGeneration())
                     .build());
             resourceClient.notify(request, e.getMessage(), Phase.FAILED);
-            return UpdateControl.updateStatusSubResource(request);
+            return writer.updateStatus(request);
         }
     }
 
@@ -189,10 +229,10 @@ public class DecisionRequestController implements ResourceController<DecisionReq
                 .withName(request.getSpec().getName())
                 .get();
         if (current == null || !Objects.equals(expected.getSpec(), current.getSpec())) {
-            return client.customResources(Decision.class)
+            return writer.write(expected.getKind(), () -> client.customResources(Decision.class)
                     .inNamespace(namespace)
                     .withName(expected.getMetadata().getName())
-                    .createOrReplace(expected);
+                    .createOrReplace(expected));
         }
         return current;
     }
@@ -204,10 +244,11 @@ public class DecisionRequestController implements ResourceController<DecisionReq
                         .setName(decision.getMetadata().getName())
                         .setNamespace(decision.getMetadata().getNamespace())
                         .setVersion(request.getSpec().getVersion()))
+                .withObservedGeneration(request.getMetadata().getGeneration())
                 .build();
         if (request.getStatus() == null || !expected.equals(request.getStatus())) {
             request.setStatus(expected);
-            return UpdateControl.updateStatusSubResource(request);
+            return writer.updateStatus(request);
         }
         return UpdateControl.noUpdate();
     }
@@ -233,7 +274,7 @@ public class DecisionRequestController implements ResourceController<DecisionReq
                 .build();
         if (current == null || !Objects.equals(current.getStringData(), expected.getStringData())) {
             LOGGER.debug("Create or replace kafka-auth secret {} in {}", expected.getMetadata().getName(), expected.getMetadata().getNamespace());
-            client.secrets().inNamespace(namespace).createOrReplace(expected);
+            writer.write(expected.getKind(), () -> client.secrets().inNamespace(namespace).createOrReplace(expected));
         }
     }
 
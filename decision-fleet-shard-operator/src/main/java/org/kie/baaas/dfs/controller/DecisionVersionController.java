@@ -14,12 +14,28 @@
  */
 package org.kie.baaas.dfs.controller;
 
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.json.JsonObject;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.baaas.dfs.api.Decision;
 import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.DecisionVersionStatus;
+import org.kie.baaas.dfs.model.DecisionEvent;
+import org.kie.baaas.dfs.model.GenericResourceEvent;
+import org.kie.baaas.dfs.model.NetworkResourceEvent;
+import org.kie.baaas.dfs.service.ConflictAwareWriter;
 import org.kie.baaas.dfs.service.DecisionVersionService;
 import org.kie.baaas.dfs.service.KogitoService;
 import org.kie.baaas.dfs.service.PipelineService;
@@ -37,6 +53,7 @@ import io.javaoperatorsdk.operator.api.config.ControllerConfiguration;
 import io.javaoperatorsdk.operator.processing.event.AbstractEventSource;
 import io.javaoperatorsdk.operator.processing.event.EventSourceManager;
 
+import static org.kie.baaas.dfs.controller.DecisionLabels.DECISION_LABEL;
 import static org.kie.baaas.dfs.service.KogitoService.KOGITO_RUNTIME_CONTEXT;
 import static org.kie.baaas.dfs.service.PipelineService.PIPELINE_RUN_CONTEXT;
 
@@ -46,15 +63,13 @@ public class DecisionVersionController implements ResourceController<DecisionVer
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DecisionVersionController.class);
 
-    private final ReentrantLock lock = new ReentrantLock();
-
     private GenericResourceEventSource kogitoRuntimeEventSource;
 
     private GenericResourceEventSource pipelineRunEventSource;
 
     private AbstractEventSource networkingEventSource;
 
-    private EventSourceManager eventSourceManager;
+    private DecisionEventSourceRegistry decisionEventSources;
 
     @Inject
     KubernetesClient client;
@@ -71,41 +86,188 @@ public class DecisionVersionController implements ResourceController<DecisionVer
     @Inject
     NetworkingService networkingService;
 
+    @Inject
+    WatchEventRecorder recorder;
+
+    @Inject
+    ReconcileScheduler scheduler;
+
+    @Inject
+    DecisionLocks locks;
+
+    @Inject
+    ConflictAwareWriter writer;
+
+    @Inject
+    EventCoalescer coalescer;
+
+    @Inject
+    TenantExecutor tenantExecutor;
+
+    @Inject
+    ReconcileBackoff backoff;
+
+    @Inject
+    ShardManager shards;
+
+    @Inject
+    ResyncScheduler resync;
+
+    @Inject
+    GenerationFilter generations;
+
+    @ConfigProperty(name = "baaas.reconcile.stage-threads", defaultValue = "10")
+    int stageThreads;
+
+    private Executor stageExecutor;
+
+    @PostConstruct
+    void startStageExecutor() {
+        if (stageThreads <= 0) {
+            stageExecutor = Runnable::run;
+            return;
+        }
+        AtomicInteger count = new AtomicInteger();
+        stageExecutor = Executors.newFixedThreadPool(stageThreads, r -> {
+            Thread thread = new Thread(r, "decision-version-stage-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopStageExecutor() {
+        if (stageExecutor instanceof ExecutorService) {
+            ((ExecutorService) stageExecutor).shutdownNow();
+        }
+    }
+
     @Override
     public void init(EventSourceManager eventSourceManager) {
-        lock.lock();
-        try {
-            this.eventSourceManager = eventSourceManager;
-            this.kogitoRuntimeEventSource = GenericResourceEventSource.createAndRegisterWatch(client, KOGITO_RUNTIME_CONTEXT);
-            eventSourceManager.registerEventSource("pipeline-run-event-source", this.kogitoRuntimeEventSource);
-            this.pipelineRunEventSource = GenericResourceEventSource.createAndRegisterWatch(client, PIPELINE_RUN_CONTEXT);
-            eventSourceManager.registerEventSource("kogito-runtime-event-source", this.pipelineRunEventSource);
-            this.networkingEventSource = networkingService.createAndRegisterWatchNetworkingResource();
-            eventSourceManager.registerEventSource("kogito-networking-event-source", this.networkingEventSource);
-        } finally {
-            lock.unlock();
-        }
+        this.decisionEventSources = new DecisionEventSourceRegistry(eventSourceManager, version -> DecisionEventSource.create(client, version, recorder));
+        this.kogitoRuntimeEventSource = GenericResourceEventSource.createAndRegisterWatch(client, KOGITO_RUNTIME_CONTEXT, recorder, coalescer);
+        eventSourceManager.registerEventSource("pipeline-run-event-source", this.kogitoRuntimeEventSource);
+        this.pipelineRunEventSource = GenericResourceEventSource.createAndRegisterWatch(client, PIPELINE_RUN_CONTEXT, recorder, coalescer);
+        eventSourceManager.registerEventSource("kogito-runtime-event-source", this.pipelineRunEventSource);
+        this.networkingEventSource = networkingService.createAndRegisterWatchNetworkingResource();
+        eventSourceManager.registerEventSource("kogito-networking-event-source", this.networkingEventSource);
+        eventSourceManager.registerEventSource("decision-version-backoff-event-source", backoff.eventSource(DecisionVersion.class));
+        eventSourceManager.registerEventSource("decision-version-shard-event-source", shards.eventSource(DecisionVersion.class));
+        eventSourceManager.registerEventSource("decision-version-resync-event-source", resync.eventSource(DecisionVersion.class));
     }
 
     public DeleteControl deleteResource(DecisionVersion version, Context<DecisionVersion> context) {
+        if (!shards.isOwned(version)) {
+            shards.release(version);
+            return DeleteControl.NO_FINALIZER_REMOVAL;
+        }
         LOGGER.info("Delete DecisionVersion: {} in namespace {}", version.getMetadata().getName(), version.getMetadata().getNamespace());
         pipelineService.delete(version);
-        networkingService.delete(version.getMetadata().getName(), version.getMetadata().getNamespace());
-        eventSourceManager.deRegisterCustomResourceFromEventSource(getEventSourceName(version), version.getMetadata().getUid());
-        return DeleteControl.DEFAULT_DELETE;
+        backoff.forget(version);
+        resync.forget(version);
+        generations.forget(version);
+        writer.forget(version);
+        return locks.withLock(version.getMetadata().getNamespace(), version.getMetadata().getLabels().get(DECISION_LABEL), () -> {
+            networkingService.delete(version.getMetadata().getName(), version.getMetadata().getNamespace());
+            decisionEventSources.deregister(version);
+            return DeleteControl.DEFAULT_DELETE;
+        });
     }
 
     public UpdateControl<DecisionVersion> createOrUpdateResource(DecisionVersion version, Context<DecisionVersion> context) {
+        if (!shards.accept(version)) {
+            LOGGER.debug("DecisionVersion {} in namespace {} is reconciled by another replica", version.getMetadata().getName(), version.getMetadata().getNamespace());
+            return UpdateControl.noUpdate();
+        }
+        if (generations.isUnchanged(version, version.getStatus() == null ? null : version.getStatus().getObservedGeneration(), context)) {
+            return UpdateControl.noUpdate();
+        }
+        if (backoff.isBackingOff(version)) {
+            return UpdateControl.noUpdate();
+        }
         LOGGER.info("Create or update DecisionVersion: {} in namespace {}", version.getMetadata().getName(), version.getMetadata().getNamespace());
-        if (!eventSourceManager.getRegisteredEventSources().containsKey(getEventSourceName(version))) {
-            eventSourceManager.registerEventSource(getEventSourceName(version), DecisionEventSource.createAndRegisterWatch(client, version));
+        // Reconciles skipped while backing off are not recorded as reconciled
+        return scheduler.execute(ReconcileScheduler.getCustomer(version), getPriority(version, context),
+                () -> locks.withLock(version.getMetadata().getNamespace(), version.getMetadata().getLabels().get(DECISION_LABEL),
+                        () -> shards.runIfAccepted(version, () -> backoff.run(version, () -> generations.reconciled(version, resync.reconciled(version,
+                                writer.retryStatus(version, context).orElseGet(() -> reconcile(version))))))));
+    }
+
+    // Resyncs and Ready versions without drift can wait, the others have a build or deployment in progress or a
+    // KogitoRuntime, Ingress, Route or Decision that changed under them
+    static ReconcileScheduler.Priority getPriority(DecisionVersion version, Context<DecisionVersion> context) {
+        if (ResyncScheduler.isResync(context)) {
+            return ReconcileScheduler.Priority.LOW;
+        }
+        if (version.getStatus() != null && Boolean.parseBoolean(version.getStatus().isReady()) && !hasDrift(context)) {
+            return ReconcileScheduler.Priority.LOW;
+        }
+        return ReconcileScheduler.Priority.NORMAL;
+    }
+
+    private static boolean hasDrift(Context<DecisionVersion> context) {
+        return context != null && context.getEvents() != null && context.getEvents().getList().stream()
+                .anyMatch(e -> e instanceof GenericResourceEvent || e instanceof NetworkResourceEvent || e instanceof DecisionEvent);
+    }
+
+    private UpdateControl<DecisionVersion> reconcile(DecisionVersion version) {
+        if (version.getStatus() == null) {
+            // Newly created, nothing was reported yet
+            version.setStatus(new DecisionVersionStatus());
+        }
+        decisionEventSources.register(version);
+        // Lookups that do not depend on each other overlap with the PipelineRun stage, none outlives the reconcile
+        try (ReconcileStages stages = new ReconcileStages(tenantExecutor.forCustomer(ReconcileScheduler.getCustomer(version), stageExecutor))) {
+            CompletableFuture<JsonObject> latestRun = stages.supplyAsync(() -> pipelineService.getLatestRun(version));
+            CompletableFuture<DecisionVersion> current = stages.supplyAsync(() -> versionService.getCurrent(version));
+            Supplier<Decision> decision;
+            Runnable dashboardAuthSecret;
+            if (KogitoService.isBuilt(version)) {
+                // Already built, the KogitoRuntime stage will need the Decision and, when current, the dashboard secret
+                CompletableFuture<Decision> lookup = stages.supplyAsync(() -> kogitoService.getDecision(version));
+                CompletableFuture<Void> secret = stages.thenAcceptAsync(lookup, d -> {
+                    if (KogitoService.isCurrent(version, d)) {
+                        kogitoService.createOrUpdateDashboardAuthSecret(version.getMetadata().getNamespace());
+                    }
+                });
+                decision = () -> join(lookup);
+                dashboardAuthSecret = () -> join(secret);
+            } else {
+                decision = memoize(() -> kogitoService.getDecision(version));
+                dashboardAuthSecret = () -> kogitoService.createOrUpdateDashboardAuthSecret(version.getMetadata().getNamespace());
+            }
+            pipelineService.createOrUpdate(version, () -> join(latestRun));
+            kogitoService.createOrUpdate(version, decision, dashboardAuthSecret);
+            return versionService.updateStatus(version, () -> join(current), decision);
+        }
+    }
+
+    // Rethrows a failed stage's exception as the reconcile would have thrown it
+    private static <T> T join(CompletableFuture<T> stage) {
+        try {
+            return stage.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
         }
-        pipelineService.createOrUpdate(version);
-        kogitoService.createOrUpdate(version);
-        return versionService.updateStatus(version);
     }
 
-    private static String getEventSourceName(DecisionVersion version) {
-        return "decision-event-source-" + version.getMetadata().getName();
+    // The stages may ask for the value from different threads
+    private static <T> Supplier<T> memoize(Supplier<T> supplier) {
+        return new Supplier<>() {
+            private boolean done;
+            private T value;
+
+            @Override
+            public synchronized T get() {
+                if (!done) {
+                    value = supplier.get();
+                    done = true;
+                }
+                return value;
+            }
+        };
     }
 }
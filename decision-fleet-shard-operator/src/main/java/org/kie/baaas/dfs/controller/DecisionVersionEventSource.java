@@ -35,14 +35,24 @@ public class DecisionVersionEventSource extends AbstractEventSource implements W
 
     private final KubernetesClient client;
 
-    public static DecisionVersionEventSource createAndRegisterWatch(KubernetesClient client) {
-        DecisionVersionEventSource eventSource = new DecisionVersionEventSource(client);
+    private final WatchEventRecorder recorder;
+
+    // DecisionController promotes the versions that became ready or moved to another service, and reverts spec edits
+    private final TransitionFilter<DecisionVersion> transitions = TransitionFilter.onChangeOf(
+            version -> version.getMetadata().getGeneration(),
+            version -> version.getStatus().isReady(),
+            version -> version.getStatus().getEndpoint(),
+            version -> version.getStatus().getKogitoServiceRef());
+
+    public static DecisionVersionEventSource createAndRegisterWatch(KubernetesClient client, WatchEventRecorder recorder) {
+        DecisionVersionEventSource eventSource = new DecisionVersionEventSource(client, recorder);
         eventSource.registerWatch();
         return eventSource;
     }
 
-    private DecisionVersionEventSource(KubernetesClient client) {
+    DecisionVersionEventSource(KubernetesClient client, WatchEventRecorder recorder) {
         this.client = client;
+        this.recorder = recorder;
     }
 
     private void registerWatch() {
@@ -54,6 +64,7 @@ public class DecisionVersionEventSource extends AbstractEventSource implements W
 
     @Override
     public void eventReceived(Action action, DecisionVersion resource) {
+        recorder.record("decisionversions", action, resource);
         if (eventHandler == null) {
             LOGGER.warn("Ignoring action {} for resource {}. EventHandler has not yet been initialized.", action, resource);
             return;
@@ -72,6 +83,10 @@ public class DecisionVersionEventSource extends AbstractEventSource implements W
                     getVersion(resource));
             return;
         }
+        if (!transitions.accept(action, resource)) {
+            LOGGER.debug("Dropping {} event for DecisionVersion {}, no relevant change", action, resource.getMetadata().getName());
+            return;
+        }
         eventHandler.handleEvent(new DecisionVersionEvent(action, resource, this));
     }
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.javaoperatorsdk.operator.processing.event.Event;
+import io.javaoperatorsdk.operator.processing.event.EventHandler;
+
+/**
+ * Collapses bursts of events for the same custom resource into one. The first event for an owner UID opens a window of
+ * {@code baaas.events.coalesce-window-ms}; events arriving for that UID during the window replace the pending one and
+ * only the latest is handed to the event handler when the window closes. The controllers read the current state from
+ * the cluster on every reconcile, so the intermediate events carry nothing the reconcile would miss.
+ * <p>
+ * At most {@code baaas.events.max-pending} UIDs are held back; past that, events are handled straight away. A window of
+ * 0 disables coalescing.
+ */
+@ApplicationScoped
+public class EventCoalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventCoalescer.class);
+
+    @ConfigProperty(name = "baaas.events.coalesce-window-ms", defaultValue = "500")
+    long windowMs;
+
+    @ConfigProperty(name = "baaas.events.max-pending", defaultValue = "10000")
+    int maxPending;
+
+    private final Map<String, Pending> pending = new HashMap<>();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        if (windowMs <= 0) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "event-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LOGGER.info("Coalescing events per owner within {}ms", windowMs);
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    public void handleEvent(Event event, EventHandler handler) {
+        if (!isEnabled()) {
+            handler.handleEvent(event);
+            return;
+        }
+        String uid = event.getRelatedCustomResourceUid();
+        synchronized (pending) {
+            Pending current = pending.get(uid);
+            if (current != null) {
+                current.event = event;
+                current.handler = handler;
+                coalesced.increment();
+                return;
+            }
+            if (pending.size() < maxPending) {
+                pending.put(uid, new Pending(event, handler));
+                executor.schedule(() -> flush(uid), windowMs, TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+        LOGGER.debug("{} owners already have pending events, handling event for {} now", maxPending, uid);
+        handler.handleEvent(event);
+    }
+
+    /**
+     * @return the number of events replaced by a later one for the same owner
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public int getPending() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    private void flush(String uid) {
+        Pending flushed;
+        synchronized (pending) {
+            flushed = pending.remove(uid);
+        }
+        if (flushed == null) {
+            return;
+        }
+        try {
+            flushed.handler.handleEvent(flushed.event);
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to handle event for {}", uid, e);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (!isEnabled()) {
+            return;
+        }
+        executor.shutdownNow();
+    }
+
+    private static class Pending {
+
+        private Event event;
+        private EventHandler handler;
+
+        private Pending(Event event, EventHandler handler) {
+            this.event = event;
+            this.handler = handler;
+        }
+    }
+}
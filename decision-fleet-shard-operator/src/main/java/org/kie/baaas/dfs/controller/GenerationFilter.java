@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.client.CustomResource;
+import io.javaoperatorsdk.operator.api.Context;
+import io.javaoperatorsdk.operator.api.UpdateControl;
+import io.javaoperatorsdk.operator.processing.event.internal.CustomResourceEvent;
+
+/**
+ * Skips the reconciles triggered only by changes that left a resource's spec alone, such as the operator's own status
+ * updates, which do not bump {@code metadata.generation}. A reconcile is skipped when every event behind it is an
+ * event of the resource itself and its generation is both the {@code observedGeneration} recorded in its status and
+ * the generation this replica last reconciled. Events of the resources it depends on, resyncs, shard and backoff
+ * triggers, SDK retries and the first event after a restart or a failover always run the reconcile.
+ */
+@ApplicationScoped
+public class GenerationFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerationFilter.class);
+
+    private final Map<String, Long> reconciled = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> skipped = new ConcurrentHashMap<>();
+
+    /**
+     * @param observedGeneration the generation recorded in the resource's status
+     * @return whether the reconcile can be skipped
+     */
+    public boolean isUnchanged(CustomResource<?, ?> resource, Long observedGeneration, Context<?> context) {
+        Long generation = resource.getMetadata().getGeneration();
+        String uid = resource.getMetadata().getUid();
+        if (generation == null || uid == null || !generation.equals(observedGeneration) || !generation.equals(reconciled.get(uid))) {
+            return false;
+        }
+        if (context == null || context.getRetryInfo().isPresent() || context.getEvents() == null || context.getEvents().getList().isEmpty()
+                || !context.getEvents().getList().stream().allMatch(CustomResourceEvent.class::isInstance)) {
+            return false;
+        }
+        String kind = resource.getClass().getSimpleName();
+        LOGGER.debug("Skipping reconcile of {} {}, generation {} already observed", kind, resource.getMetadata().getName(), generation);
+        skipped.computeIfAbsent(kind, k -> new LongAdder()).increment();
+        return true;
+    }
+
+    /**
+     * Records the generation the resource was reconciled at.
+     *
+     * @return the given update control
+     */
+    public <R extends CustomResource<?, ?>> UpdateControl<R> reconciled(R resource, UpdateControl<R> control) {
+        String uid = resource.getMetadata().getUid();
+        if (uid != null && resource.getMetadata().getGeneration() != null) {
+            reconciled.put(uid, resource.getMetadata().getGeneration());
+        }
+        return control;
+    }
+
+    public void forget(CustomResource<?, ?> resource) {
+        if (resource.getMetadata().getUid() != null) {
+            reconciled.remove(resource.getMetadata().getUid());
+        }
+    }
+
+    /**
+     * @return per resource type, the reconciles skipped
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> result = new TreeMap<>();
+        skipped.forEach((kind, counter) -> result.put(kind, counter.sum()));
+        return result;
+    }
+}
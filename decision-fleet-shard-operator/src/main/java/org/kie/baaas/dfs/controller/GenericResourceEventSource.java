@@ -50,16 +50,21 @@ public class GenericResourceEventSource extends AbstractEventSource implements W
 
     private final KubernetesClient client;
     private final CustomResourceDefinitionContext context;
+    private final WatchEventRecorder recorder;
+    private final EventCoalescer coalescer;
 
-    public static GenericResourceEventSource createAndRegisterWatch(KubernetesClient client, CustomResourceDefinitionContext context) {
-        GenericResourceEventSource eventSource = new GenericResourceEventSource(client, context);
+    public static GenericResourceEventSource createAndRegisterWatch(KubernetesClient client, CustomResourceDefinitionContext context, WatchEventRecorder recorder,
+            EventCoalescer coalescer) {
+        GenericResourceEventSource eventSource = new GenericResourceEventSource(client, context, recorder, coalescer);
         eventSource.registerWatch();
         return eventSource;
     }
 
-    private GenericResourceEventSource(KubernetesClient client, CustomResourceDefinitionContext context) {
+    GenericResourceEventSource(KubernetesClient client, CustomResourceDefinitionContext context, WatchEventRecorder recorder, EventCoalescer coalescer) {
         this.client = client;
         this.context = context;
+        this.recorder = recorder;
+        this.coalescer = coalescer;
     }
 
     private void registerWatch() {
@@ -73,6 +78,7 @@ public class GenericResourceEventSource extends AbstractEventSource implements W
 
     @Override
     public void eventReceived(Action action, String resource) {
+        recorder.record(context.getPlural(), action, resource);
         if (eventHandler == null) {
             LOGGER.warn("Ignoring action {} for resource {}. EventHandler has not yet been initialized.", action, resource);
             return;
@@ -110,7 +116,7 @@ public class GenericResourceEventSource extends AbstractEventSource implements W
                         getUID(object),
                         ownerUid,
                         getResourceVersion(object));
-                eventHandler.handleEvent(new GenericResourceEvent(action, ownerUid, object, this));
+                coalescer.handleEvent(new GenericResourceEvent(action, ownerUid, object, this), eventHandler);
             }
         }
     }
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+
+import static org.kie.baaas.dfs.controller.DecisionLabels.MANAGED_BY_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.OPERATOR_NAME;
+
+/**
+ * Lets one operator replica reconcile while the others stand by, when {@code baaas.leader-election.enabled} is set.
+ * The leader holds the {@code baaas-dfs-leader} Lease in the operator namespace and renews it every
+ * {@code baaas.leader-election.retry-ms}; a standby takes it over once it has not seen it change for
+ * {@code baaas.leader-election.lease-duration-s}, see {@link LeaseObserver}. Updates are made against the
+ * resourceVersion read, so only one of the replicas racing for an expired Lease wins. As in client-go, the leader stops
+ * reconciling once it could not renew the Lease for {@code baaas.leader-election.renew-deadline-s}, which has to be
+ * shorter than the Lease duration, so that it has stepped down before a standby can take over.
+ * <p>
+ * Standby replicas run the operator as the leader does, keeping their watches open, but {@link ShardManager} drops
+ * their reconciles. On failover the new leader only has to reconcile what it has seen, without relisting. The operator
+ * SDK adds its finalizer before calling the controllers, so a standby also adds the finalizer to the resources that
+ * lack it. The leader would write the same finalizer, so this is accepted rather than delaying the controllers'
+ * registration until leadership is acquired, which would cost the standby its warm watches.
+ */
+@ApplicationScoped
+public class LeaderElection {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeaderElection.class);
+
+    static final String LEASE_NAME = "baaas-dfs-leader";
+
+    @Inject
+    KubernetesClient client;
+
+    @ConfigProperty(name = "baaas.leader-election.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "baaas.leader-election.identity")
+    Optional<String> identity;
+
+    @ConfigProperty(name = "baaas.leader-election.lease-duration-s", defaultValue = "15")
+    int leaseDurationSeconds;
+
+    @ConfigProperty(name = "baaas.leader-election.renew-deadline-s", defaultValue = "10")
+    int renewDeadlineSeconds;
+
+    @ConfigProperty(name = "baaas.leader-election.retry-ms", defaultValue = "2000")
+    long retryMs;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private final LeaseObserver observer = new LeaseObserver();
+
+    String self;
+
+    private volatile boolean leading;
+
+    private volatile long renewed;
+
+    // The Lease as last written by this replica
+    private Lease held;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        self = resolveIdentity(identity);
+        if (!enabled) {
+            return;
+        }
+        checkRenewDeadline(renewDeadlineSeconds, leaseDurationSeconds);
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "leader-election");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::tryAcquireOrRenew, 0, retryMs, TimeUnit.MILLISECONDS);
+        LOGGER.info("Standing by for leadership as {}", self);
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        boolean release = enabled && held != null && isLeading();
+        leading = false;
+        if (!release) {
+            // Past the renew deadline a standby may already hold the Lease
+            return;
+        }
+        try {
+            // Lets a standby take over without waiting for the Lease to expire, unless one already did
+            Lease released = new LeaseBuilder(held).editSpec().withHolderIdentity(null).endSpec().build();
+            client.leases().inNamespace(held.getMetadata().getNamespace()).withName(LEASE_NAME)
+                    .lockResourceVersion(held.getMetadata().getResourceVersion())
+                    .replace(released);
+        } catch (KubernetesClientException e) {
+            if (e.getCode() == HttpURLConnection.HTTP_CONFLICT) {
+                LOGGER.debug("Another replica took the leader Lease over first");
+            } else {
+                LOGGER.warn("Unable to release the leader Lease", e);
+            }
+        }
+    }
+
+    /**
+     * @return whether this replica reconciles, always true without leader election
+     */
+    public boolean isLeading() {
+        // Even while a renewal hangs, the leader stops once the deadline has passed
+        return !enabled || (leading && clock.getAsLong() - renewed < TimeUnit.SECONDS.toMillis(renewDeadlineSeconds));
+    }
+
+    /**
+     * Notifies the listener every time this replica gains or loses leadership.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    synchronized void tryAcquireOrRenew() {
+        long now = clock.getAsLong();
+        if (leading && now - renewed >= TimeUnit.SECONDS.toMillis(renewDeadlineSeconds)) {
+            // The last renewals hung or were delayed, the listeners learn about it before leadership is acquired again
+            LOGGER.warn("The leader Lease was not renewed within {}s, stepping down", renewDeadlineSeconds);
+            setLeading(false);
+        }
+        try {
+            String namespace = client.getNamespace();
+            Lease lease = client.leases().inNamespace(namespace).withName(LEASE_NAME).get();
+            if (lease == null) {
+                held = client.leases().inNamespace(namespace).create(newLease(namespace, now, 0));
+            } else {
+                String holder = lease.getSpec() == null ? null : lease.getSpec().getHolderIdentity();
+                if (!self.equals(holder) && observer.isLive(lease, now, leaseDurationSeconds)) {
+                    setLeading(false);
+                    return;
+                }
+                int transitions = lease.getSpec() == null || lease.getSpec().getLeaseTransitions() == null ? 0 : lease.getSpec().getLeaseTransitions();
+                held = client.leases().inNamespace(namespace).withName(LEASE_NAME)
+                        .lockResourceVersion(lease.getMetadata().getResourceVersion())
+                        .replace(newLease(namespace, now, self.equals(holder) ? transitions : transitions + 1));
+            }
+            renewed = now;
+            setLeading(true);
+        } catch (KubernetesClientException e) {
+            if (e.getCode() == HttpURLConnection.HTTP_CONFLICT) {
+                LOGGER.debug("Another replica updated the leader Lease first");
+                setLeading(false);
+            } else if (leading && now - renewed >= TimeUnit.SECONDS.toMillis(renewDeadlineSeconds)) {
+                // A standby may already have taken over
+                LOGGER.warn("Unable to renew the leader Lease, stepping down", e);
+                setLeading(false);
+            } else {
+                LOGGER.warn("Unable to renew the leader Lease", e);
+            }
+        }
+    }
+
+    static void checkRenewDeadline(int renewDeadlineSeconds, int leaseDurationSeconds) {
+        if (renewDeadlineSeconds <= 0 || renewDeadlineSeconds >= leaseDurationSeconds) {
+            throw new IllegalStateException("baaas.leader-election.renew-deadline-s (" + renewDeadlineSeconds
+                    + ") must be positive and shorter than baaas.leader-election.lease-duration-s (" + leaseDurationSeconds + ")");
+        }
+    }
+
+    static String resolveIdentity(Optional<String> identity) {
+        return identity.orElseGet(() -> Optional.ofNullable(System.getenv("HOSTNAME")).orElseGet(() -> UUID.randomUUID().toString()));
+    }
+
+    private void setLeading(boolean leading) {
+        if (this.leading == leading) {
+            return;
+        }
+        this.leading = leading;
+        LOGGER.info(leading ? "{} is now leading" : "{} is now standing by", self);
+        listeners.forEach(Runnable::run);
+    }
+
+    private Lease newLease(String namespace, long now, int transitions) {
+        return new LeaseBuilder()
+                .withNewMetadata()
+                .withName(LEASE_NAME)
+                .withNamespace(namespace)
+                .addToLabels(MANAGED_BY_LABEL, OPERATOR_NAME)
+                .addToAnnotations(ShardManager.RENEWED_ANNOTATION, String.valueOf(now))
+                .endMetadata()
+                .withNewSpec()
+                .withHolderIdentity(self)
+                .withLeaseDurationSeconds(leaseDurationSeconds)
+                .withLeaseTransitions(transitions)
+                .endSpec()
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+
+/**
+ * Tells whether the holders of Leases still renew them. A Lease expires once it has not changed for its duration, timed
+ * with the local clock from when this replica saw its resourceVersion or renew annotation change, so that the clocks
+ * of the replicas do not have to agree. A Lease seen for the first time is live for a full duration.
+ */
+class LeaseObserver {
+
+    private final Map<String, Observation> observations = new ConcurrentHashMap<>();
+
+    /**
+     * @param now the local clock
+     * @return whether the Lease changed within its duration, {@code defaultDurationSeconds} when it has none
+     */
+    boolean isLive(Lease lease, long now, int defaultDurationSeconds) {
+        if (lease.getSpec() == null || lease.getSpec().getHolderIdentity() == null) {
+            return false;
+        }
+        String resourceVersion = lease.getMetadata().getResourceVersion();
+        String renewed = lease.getMetadata().getAnnotations() == null ? null : lease.getMetadata().getAnnotations().get(ShardManager.RENEWED_ANNOTATION);
+        Observation observation = observations.compute(lease.getMetadata().getName(), (name, previous) -> previous != null
+                && Objects.equals(previous.resourceVersion, resourceVersion) && Objects.equals(previous.renewed, renewed) ? previous
+                        : new Observation(resourceVersion, renewed, now));
+        int duration = lease.getSpec().getLeaseDurationSeconds() == null ? defaultDurationSeconds : lease.getSpec().getLeaseDurationSeconds();
+        return now - observation.changedAt < TimeUnit.SECONDS.toMillis(duration);
+    }
+
+    /**
+     * Forgets the Leases that are gone.
+     */
+    void retain(Collection<String> names) {
+        observations.keySet().retainAll(names);
+    }
+
+    private static class Observation {
+
+        private final String resourceVersion;
+        private final String renewed;
+        private final long changedAt;
+
+        private Observation(String resourceVersion, String renewed, long changedAt) {
+            this.resourceVersion = resourceVersion;
+            this.renewed = renewed;
+            this.changedAt = changedAt;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.client.CustomResource;
+import io.javaoperatorsdk.operator.api.UpdateControl;
+
+/**
+ * Keeps resources whose reconcile keeps failing, e.g. on a missing pipeline or a broken Kogito operator, from being
+ * reconciled again on every event. After a failure the resource waits {@code baaas.backoff.initial-ms}, doubled on
+ * every further failure up to {@code baaas.backoff.max-ms}, with half of the delay randomized so that resources that
+ * failed together do not retry together. Events arriving in the meantime are dropped; a {@link BackoffEventSource}
+ * triggers the reconcile once the delay has elapsed. A successful reconcile, a deletion or a new generation of the
+ * resource resets the backoff. An initial delay of 0 disables it.
+ */
+@ApplicationScoped
+public class ReconcileBackoff {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReconcileBackoff.class);
+
+    @ConfigProperty(name = "baaas.backoff.initial-ms", defaultValue = "1000")
+    long initialMs;
+
+    @ConfigProperty(name = "baaas.backoff.max-ms", defaultValue = "300000")
+    long maxMs;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, BackoffEventSource> eventSources = new ConcurrentHashMap<>();
+
+    private final LongAdder skipped = new LongAdder();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        if (initialMs <= 0) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reconcile-backoff");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the event source to register with the controller of the given type
+     */
+    public BackoffEventSource eventSource(Class<? extends CustomResource<?, ?>> type) {
+        return eventSources.computeIfAbsent(type, t -> new BackoffEventSource());
+    }
+
+    /**
+     * To be checked before the reconcile is scheduled, so that it does not take a worker only to be skipped.
+     *
+     * @return true when the reconcile is to be skipped, the resource failed and its delay has not elapsed
+     */
+    public boolean isBackingOff(CustomResource<?, ?> resource) {
+        String uid = resource.getMetadata().getUid();
+        if (executor == null || uid == null) {
+            return false;
+        }
+        State state = states.get(uid);
+        if (state != null && Objects.equals(state.generation, resource.getMetadata().getGeneration()) && clock.getAsLong() < state.nextAttempt) {
+            LOGGER.debug("Skipping reconcile of {} {} after {} failures", resource.getKind(), resource.getMetadata().getName(), state.failures);
+            skipped.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Runs the reconcile unless the resource started backing off while it was waiting for a worker.
+     *
+     * @return the result of the reconcile, no update when it was skipped
+     */
+    public <R extends CustomResource<?, ?>> UpdateControl<R> run(R resource, Supplier<UpdateControl<R>> reconcile) {
+        String uid = resource.getMetadata().getUid();
+        if (executor == null || uid == null) {
+            return reconcile.get();
+        }
+        if (isBackingOff(resource)) {
+            return UpdateControl.noUpdate();
+        }
+        State state = states.get(uid);
+        UpdateControl<R> control;
+        try {
+            control = reconcile.get();
+        } catch (RuntimeException e) {
+            onFailure(resource, state);
+            throw e;
+        }
+        states.remove(uid);
+        return control;
+    }
+
+    public void forget(CustomResource<?, ?> resource) {
+        if (resource.getMetadata().getUid() != null) {
+            states.remove(resource.getMetadata().getUid());
+        }
+    }
+
+    /**
+     * @return the number of resources backing off
+     */
+    public int getBackingOff() {
+        return states.size();
+    }
+
+    /**
+     * @return the number of reconciles skipped while backing off
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    long getDelay(int failures) {
+        long delay = initialMs << Math.min(failures - 1, 30);
+        if (delay <= 0 || delay > maxMs) {
+            delay = maxMs;
+        }
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void onFailure(CustomResource<?, ?> resource, State previous) {
+        Long generation = resource.getMetadata().getGeneration();
+        int failures = previous != null && Objects.equals(previous.generation, generation) ? previous.failures + 1 : 1;
+        long delay = getDelay(failures);
+        String uid = resource.getMetadata().getUid();
+        states.put(uid, new State(generation, failures, clock.getAsLong() + delay));
+        LOGGER.debug("Reconcile of {} {} failed {} times, next attempt in {}ms", resource.getKind(), resource.getMetadata().getName(), failures, delay);
+        BackoffEventSource eventSource = eventSources.get(resource.getClass());
+        if (eventSource != null) {
+            executor.schedule(() -> eventSource.trigger(uid), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static class State {
+
+        private final Long generation;
+        private final int failures;
+        private final long nextAttempt;
+
+        private State(Long generation, int failures, long nextAttempt) {
+            this.generation = generation;
+            this.failures = failures;
+            this.nextAttempt = nextAttempt;
+        }
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.javaoperatorsdk.operator.api.config.ConfigurationService;
+import io.quarkus.runtime.StartupEvent;
+
+import static org.kie.baaas.dfs.controller.DecisionLabels.CUSTOMER_LABEL;
+
+/**
+ * Runs the controllers' reconciles on a fixed pool of workers, taking turns between customers so that one customer
+ * re-deploying many decisions cannot starve the others.
+ * <p>
+ * Each customer has its own FIFO queue. With the {@code round-robin} policy a worker takes one reconcile from the next
+ * customer with pending work. With {@code weighted} a customer may run up to its weight in consecutive reconciles
+ * before the turn passes (deficit round robin), weights are given as {@code baaas.reconcile.weights=customer1=3,customer2=2}
+ * and default to 1.
+ * <p>
+ * Reconciles are also given a {@link Priority}: workers serve the highest class with pending work first and customers
+ * take turns within a class. A class gains one level for every {@code baaas.reconcile.aging-ms} its oldest reconcile has
+ * been waiting, so low priority work still runs while the higher classes are busy.
+ * <p>
+ * A customer never holds more than {@code baaas.reconcile.max-per-customer} workers at once, its next reconciles wait
+ * while the other customers' run, so that a customer whose reconciles are slow does not take over the pool.
+ * <p>
+ * With {@code baaas.threads.virtual=true} the workers are virtual threads, see {@link TenantExecutor}. They wait on a
+ * {@link ReentrantLock} rather than a monitor, so that a waiting worker does not pin its carrier thread.
+ * <p>
+ * The operator SDK threads block until their reconcile has run, so the reconciles in flight never exceed
+ * {@code quarkus.operator-sdk.concurrent-reconciliation-threads}, whatever the number of workers. The SDK should be given more threads than there are
+ * workers for the queues to fill up here, where the order is fair, rather than in the SDK. The SDK threads beyond the
+ * workers are how many reconciles the fair queues can choose from, {@code quarkus.operator-sdk.concurrent-reconciliation-threads}
+ * is checked against {@code baaas.reconcile.workers} on startup.
+ */
+@ApplicationScoped
+public class ReconcileScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReconcileScheduler.class);
+
+    public static final String ROUND_ROBIN = "round-robin";
+    public static final String WEIGHTED = "weighted";
+    static final String UNKNOWN_CUSTOMER = "";
+
+    public enum Priority {
+        /**
+         * Admissions and promotions, which a user is waiting for.
+         */
+        HIGH,
+        /**
+         * Build and deploy progress.
+         */
+        NORMAL,
+        /**
+         * Resyncs of resources that already reached their desired state.
+         */
+        LOW
+    }
+
+    @ConfigProperty(name = "baaas.reconcile.workers", defaultValue = "5")
+    int workers;
+
+    @ConfigProperty(name = "baaas.reconcile.policy", defaultValue = ROUND_ROBIN)
+    String policy;
+
+    @ConfigProperty(name = "baaas.reconcile.weights")
+    Optional<List<String>> weights;
+
+    @ConfigProperty(name = "baaas.reconcile.aging-ms", defaultValue = "5000")
+    long agingMs;
+
+    @ConfigProperty(name = "baaas.reconcile.max-per-customer", defaultValue = "3")
+    int maxPerCustomer;
+
+    @Inject
+    TenantExecutor tenantExecutor;
+
+    @Inject
+    Instance<ConfigurationService> sdkConfiguration;
+
+    private final Map<Priority, FairQueue> classes = new EnumMap<>(Priority.class);
+
+    private final Map<String, Integer> customerWeights = new HashMap<>();
+
+    // Reconciles running per customer, guarded by the scheduler's lock
+    private final Map<String, Integer> running = new HashMap<>();
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Signalled when a reconcile is queued, a worker finishes or the scheduler stops
+    private final Condition changed = lock.newCondition();
+
+    private boolean stopped;
+
+    @PostConstruct
+    void init() {
+        if (WEIGHTED.equals(policy)) {
+            weights.orElse(List.of()).forEach(w -> {
+                String[] customerAndWeight = w.split("=", 2);
+                customerWeights.put(customerAndWeight[0].trim(), Math.max(1, Integer.parseInt(customerAndWeight[1].trim())));
+            });
+        } else if (!ROUND_ROBIN.equals(policy)) {
+            throw new IllegalArgumentException("Unknown baaas.reconcile.policy " + policy + ", expected " + ROUND_ROBIN + " or " + WEIGHTED);
+        }
+        for (Priority priority : Priority.values()) {
+            classes.put(priority, new FairQueue());
+        }
+        for (int i = 0; i < workers; i++) {
+            Thread thread = tenantExecutor.newThread(this::work, "reconcile-worker-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        LOGGER.info("Reconciling on {} {} workers with {} scheduling", workers, tenantExecutor.isVirtual() ? "virtual" : "platform", policy);
+    }
+
+    // Creates the scheduler on startup, so that a bad configuration stops the operator instead of failing every reconcile
+    void onStart(@Observes StartupEvent event) {
+        if (sdkConfiguration != null && sdkConfiguration.isResolvable()) {
+            checkSdkThreads(sdkConfiguration.get().concurrentReconciliationThreads(), workers);
+        }
+    }
+
+    /**
+     * Queues the reconcile behind the customer's earlier ones of the same priority and waits for a worker to run it.
+     * Exceptions thrown by the reconcile are rethrown so the operator SDK retries as usual. Runs inline when no workers
+     * are configured.
+     */
+    public <T> T execute(String customer, Priority priority, Supplier<T> reconcile) {
+        if (workers <= 0) {
+            return reconcile.get();
+        }
+        Task<T> task = new Task<>(customer == null ? UNKNOWN_CUSTOMER : customer, reconcile);
+        lock.lock();
+        try {
+            if (stopped) {
+                throw new CancellationException("The reconcile scheduler is stopped");
+            }
+            classes.get(priority).add(task.customer, task);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the reconcile to run");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * With no more SDK threads than workers, every reconcile the SDK hands over runs right away and the SDK decides the
+     * order instead of the fair queues.
+     */
+    static void checkSdkThreads(int sdkThreads, int workers) {
+        if (workers > 0 && sdkThreads <= workers) {
+            throw new IllegalStateException("The operator SDK runs " + sdkThreads + " concurrent reconciles, more than the " + workers
+                    + " baaas.reconcile.workers are needed for fair scheduling, set quarkus.operator-sdk.concurrent-reconciliation-threads");
+        }
+        LOGGER.debug("The fair queues choose from up to {} reconciles waiting on {} workers", Math.max(0, sdkThreads - workers), workers);
+    }
+
+    public static String getCustomer(HasMetadata resource) {
+        Map<String, String> labels = resource.getMetadata().getLabels();
+        return labels == null ? null : labels.get(CUSTOMER_LABEL);
+    }
+
+    /**
+     * @return the reconciles waiting for a worker, per customer and across priorities. Customers without pending
+     *         reconciles are omitted.
+     */
+    public Map<String, Integer> getQueueDepths() {
+        lock.lock();
+        try {
+            Map<String, Integer> depths = new LinkedHashMap<>();
+            classes.values().forEach(c -> c.queues.forEach((customer, queue) -> depths.merge(customer, queue.size(), Integer::sum)));
+            return depths;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Integer> getQueueDepths(Priority priority) {
+        lock.lock();
+        try {
+            Map<String, Integer> depths = new LinkedHashMap<>();
+            classes.get(priority).queues.forEach((customer, queue) -> depths.put(customer, queue.size()));
+            return depths;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Task<?> task;
+            try {
+                task = next();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == null) {
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                finished(task.customer);
+            }
+        }
+    }
+
+    private Task<?> next() throws InterruptedException {
+        lock.lock();
+        try {
+            FairQueue selected = select();
+            while (!stopped && selected == null) {
+                changed.await();
+                selected = select();
+            }
+            if (stopped) {
+                return null;
+            }
+            Task<?> task = selected.poll();
+            running.merge(task.customer, 1, Integer::sum);
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Lets the customer's waiting reconciles be picked again
+    private void finished(String customer) {
+        lock.lock();
+        try {
+            running.computeIfPresent(customer, (k, count) -> count > 1 ? count - 1 : null);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isCapped(String customer) {
+        return maxPerCustomer > 0 && running.getOrDefault(customer, 0) >= maxPerCustomer;
+    }
+
+    // The class with the best priority once aged; on a tie the higher class wins
+    private FairQueue select() {
+        long now = System.nanoTime();
+        FairQueue selected = null;
+        long best = Long.MAX_VALUE;
+        for (Priority priority : Priority.values()) {
+            FairQueue queue = classes.get(priority);
+            if (!queue.hasRunnable()) {
+                continue;
+            }
+            long rank = priority.ordinal();
+            if (agingMs > 0) {
+                rank -= (now - queue.oldest()) / 1_000_000 / agingMs;
+            }
+            if (rank < best) {
+                best = rank;
+                selected = queue;
+            }
+        }
+        return selected;
+    }
+
+    @PreDestroy
+    void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            classes.values().forEach(FairQueue::cancel);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        threads.forEach(Thread::interrupt);
+    }
+
+    private static class Task<T> extends FutureTask<T> {
+
+        private final String customer;
+
+        private final long enqueuedAt = System.nanoTime();
+
+        private Task(String customer, Supplier<T> reconcile) {
+            super(reconcile::get);
+            this.customer = customer;
+        }
+    }
+
+    // Per customer FIFO queues served in turns. Only accessed while holding the scheduler's lock.
+    private class FairQueue {
+
+        private final Map<String, Deque<Task<?>>> queues = new HashMap<>();
+
+        // Customers with pending reconciles, in the order they get their turn
+        private final Deque<String> turns = new ArrayDeque<>();
+
+        private String current;
+
+        private int credit;
+
+        void add(String customer, Task<?> task) {
+            Deque<Task<?>> queue = queues.computeIfAbsent(customer, k -> new ArrayDeque<>());
+            if (queue.isEmpty() && !customer.equals(current)) {
+                turns.addLast(customer);
+            }
+            queue.addLast(task);
+        }
+
+        // Pending reconciles of a customer below its cap
+        boolean hasRunnable() {
+            return queues.keySet().stream().anyMatch(customer -> !isCapped(customer));
+        }
+
+        // Heads are the oldest reconcile of each customer that can run
+        long oldest() {
+            return queues.entrySet().stream()
+                    .filter(e -> !isCapped(e.getKey()))
+                    .mapToLong(e -> e.getValue().peekFirst().enqueuedAt)
+                    .min()
+                    .orElse(System.nanoTime());
+        }
+
+        // Only called when hasRunnable
+        Task<?> poll() {
+            if (current != null && (credit <= 0 || isCapped(current))) {
+                turns.addLast(current);
+                current = null;
+            }
+            if (current == null) {
+                // Capped customers keep their place in turn
+                for (Iterator<String> it = turns.iterator(); it.hasNext();) {
+                    String customer = it.next();
+                    if (!isCapped(customer)) {
+                        it.remove();
+                        current = customer;
+                        break;
+                    }
+                }
+                credit = customerWeights.getOrDefault(current, 1);
+            }
+            Deque<Task<?>> queue = queues.get(current);
+            Task<?> task = queue.pollFirst();
+            credit--;
+            if (queue.isEmpty()) {
+                queues.remove(current);
+                current = null;
+            }
+            return task;
+        }
+
+        void cancel() {
+            queues.values().forEach(q -> q.forEach(t -> t.cancel(false)));
+            queues.clear();
+            turns.clear();
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The stages one reconcile runs concurrently. Closing it cancels the stages that have not started and waits for the
+ * running ones, so that no stage is left writing once the reconcile failed or returned and released its decision lock.
+ * It waits on a {@link ReentrantLock} rather than a monitor, so that a virtual thread waiting does not pin its carrier.
+ */
+class ReconcileStages implements AutoCloseable {
+
+    private final Executor executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Signalled when the last running stage returns
+    private final Condition idle = lock.newCondition();
+
+    private final List<CompletableFuture<?>> started = new ArrayList<>();
+
+    private int running;
+
+    private boolean closed;
+
+    ReconcileStages(Executor executor) {
+        this.executor = executor;
+    }
+
+    <T> CompletableFuture<T> supplyAsync(Supplier<T> stage) {
+        return track(CompletableFuture.supplyAsync(() -> run(stage), executor));
+    }
+
+    <T> CompletableFuture<Void> thenAcceptAsync(CompletableFuture<T> previous, Consumer<T> stage) {
+        return track(previous.thenAcceptAsync(value -> run(() -> {
+            stage.accept(value);
+            return null;
+        }), executor));
+    }
+
+    int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        List<CompletableFuture<?>> stages;
+        lock.lock();
+        try {
+            closed = true;
+            stages = new ArrayList<>(started);
+        } finally {
+            lock.unlock();
+        }
+        stages.forEach(stage -> stage.cancel(false));
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            while (running > 0) {
+                try {
+                    idle.await();
+                } catch (InterruptedException e) {
+                    // A running stage cannot be stopped, it still has to be waited for
+                    interrupted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> T run(Supplier<T> stage) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new CancellationException("The reconcile is over");
+            }
+            running++;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            return stage.get();
+        } finally {
+            lock.lock();
+            try {
+                if (--running == 0) {
+                    idle.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private <F extends CompletableFuture<?>> F track(F stage) {
+        lock.lock();
+        try {
+            started.add(stage);
+            return stage;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
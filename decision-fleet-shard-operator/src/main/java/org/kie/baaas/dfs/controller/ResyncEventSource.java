@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.kie.baaas.dfs.model.ResyncEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.javaoperatorsdk.operator.processing.event.AbstractEventSource;
+
+/**
+ * Triggers the resources of one type once per interval. Each resource gets a slot within the interval from the hash of
+ * its uid, so the resyncs are spread evenly instead of all firing at once. A resource reconciled within the last half
+ * interval, on an event of its own, is skipped.
+ */
+public class ResyncEventSource extends AbstractEventSource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResyncEventSource.class);
+
+    private final long intervalMs;
+    private final long tickMs;
+    private final Set<String>[] slots;
+    private final Map<String, Long> reconciled = new ConcurrentHashMap<>();
+    private final LongAdder triggered = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private long lastTick = -1;
+
+    @SuppressWarnings("unchecked")
+    ResyncEventSource(long intervalMs, long tickMs) {
+        this.intervalMs = intervalMs;
+        this.tickMs = tickMs;
+        this.slots = new Set[(int) Math.max(1, intervalMs / tickMs)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = ConcurrentHashMap.newKeySet();
+        }
+    }
+
+    void reconciled(String uid, long now) {
+        if (uid != null && reconciled.put(uid, now) == null) {
+            slots[getSlot(uid)].add(uid);
+        }
+    }
+
+    void forget(String uid) {
+        if (uid != null && reconciled.remove(uid) != null) {
+            slots[getSlot(uid)].remove(uid);
+        }
+    }
+
+    /**
+     * Triggers the slots due since the previous tick, at most one interval's worth.
+     */
+    synchronized void tick(long now) {
+        long tick = now / tickMs;
+        long from = lastTick < 0 ? tick : Math.max(lastTick + 1, tick - slots.length + 1);
+        lastTick = tick;
+        for (long t = from; t <= tick; t++) {
+            for (String uid : slots[(int) Math.floorMod(t, (long) slots.length)]) {
+                Long last = reconciled.get(uid);
+                if (last != null && now - last < intervalMs / 2) {
+                    skipped.increment();
+                    continue;
+                }
+                triggered.increment();
+                trigger(uid);
+            }
+        }
+    }
+
+    long getTriggered() {
+        return triggered.sum();
+    }
+
+    long getSkipped() {
+        return skipped.sum();
+    }
+
+    int getTracked() {
+        return reconciled.size();
+    }
+
+    int getSlot(String uid) {
+        int hash = uid.hashCode();
+        // Spreads the high bits as HashMap does
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, slots.length);
+    }
+
+    private void trigger(String uid) {
+        if (eventHandler == null) {
+            LOGGER.warn("Ignoring resync of resource {}. EventHandler has not yet been initialized.", uid);
+            return;
+        }
+        eventHandler.handleEvent(new ResyncEvent(uid, this));
+    }
+}
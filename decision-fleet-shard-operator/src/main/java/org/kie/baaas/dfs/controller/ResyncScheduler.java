@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.model.ResyncEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.client.CustomResource;
+import io.javaoperatorsdk.operator.api.Context;
+import io.javaoperatorsdk.operator.api.UpdateControl;
+
+/**
+ * Reconciles every Decision and DecisionVersion again once per {@code baaas.resync.decision-interval-s} and
+ * {@code baaas.resync.decision-version-interval-s}, to correct drift in the resources they own. Resources are tracked
+ * from their first successful reconcile and resynced by the {@link ResyncEventSource} registered with their controller,
+ * spread over the interval. The controllers run resyncs at {@link ReconcileScheduler.Priority#LOW}. An interval of 0,
+ * the default, disables the resync of that type.
+ */
+@ApplicationScoped
+public class ResyncScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResyncScheduler.class);
+
+    @ConfigProperty(name = "baaas.resync.decision-interval-s", defaultValue = "0")
+    long decisionIntervalSeconds;
+
+    @ConfigProperty(name = "baaas.resync.decision-version-interval-s", defaultValue = "0")
+    long versionIntervalSeconds;
+
+    @ConfigProperty(name = "baaas.resync.tick-ms", defaultValue = "1000")
+    long tickMs;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final Map<Class<?>, ResyncEventSource> eventSources = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        register(Decision.class, decisionIntervalSeconds);
+        register(DecisionVersion.class, versionIntervalSeconds);
+        if (eventSources.isEmpty()) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "resync-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the event source to register with the controller of the given type, a source that never fires when the
+     *         type is not resynced
+     */
+    public ResyncEventSource eventSource(Class<? extends CustomResource<?, ?>> type) {
+        ResyncEventSource eventSource = eventSources.get(type);
+        return eventSource != null ? eventSource : new ResyncEventSource(Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Tracks the resource once it has been reconciled.
+     *
+     * @return the given update control
+     */
+    public <R extends CustomResource<?, ?>> UpdateControl<R> reconciled(R resource, UpdateControl<R> control) {
+        ResyncEventSource eventSource = eventSources.get(resource.getClass());
+        if (eventSource != null) {
+            eventSource.reconciled(resource.getMetadata().getUid(), clock.getAsLong());
+        }
+        return control;
+    }
+
+    public void forget(CustomResource<?, ?> resource) {
+        ResyncEventSource eventSource = eventSources.get(resource.getClass());
+        if (eventSource != null) {
+            eventSource.forget(resource.getMetadata().getUid());
+        }
+    }
+
+    /**
+     * @return per resource type, the resources tracked and the resyncs triggered and skipped
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new TreeMap<>();
+        eventSources.forEach((type, source) -> stats.put(type.getSimpleName(),
+                Map.of("tracked", (long) source.getTracked(), "triggered", source.getTriggered(), "skipped", source.getSkipped())));
+        return stats;
+    }
+
+    /**
+     * @return whether the reconcile was only triggered by the resync
+     */
+    public static boolean isResync(Context<?> context) {
+        return context != null && context.getEvents() != null && !context.getEvents().getList().isEmpty()
+                && context.getEvents().getList().stream().allMatch(ResyncEvent.class::isInstance);
+    }
+
+    void tick() {
+        long now = clock.getAsLong();
+        eventSources.values().forEach(source -> {
+            try {
+                source.tick(now);
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to trigger resyncs", e);
+            }
+        });
+    }
+
+    private void register(Class<? extends CustomResource<?, ?>> type, long intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        LOGGER.info("Resyncing every {} over {}s", type.getSimpleName(), intervalSeconds);
+        eventSources.put(type, new ResyncEventSource(TimeUnit.SECONDS.toMillis(intervalSeconds), tickMs));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.kie.baaas.dfs.model.ShardEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.client.CustomResource;
+import io.javaoperatorsdk.operator.processing.event.AbstractEventSource;
+
+/**
+ * Remembers the resources of one type dropped because another replica owns them, and hands them back to the controller
+ * it is registered with once this replica takes them over.
+ */
+public class ShardEventSource extends AbstractEventSource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardEventSource.class);
+
+    private final Class<? extends CustomResource<?, ?>> type;
+
+    // Shard key per uid
+    private final Map<String, String> parked = new ConcurrentHashMap<>();
+
+    ShardEventSource(Class<? extends CustomResource<?, ?>> type) {
+        this.type = type;
+    }
+
+    void park(String uid, String key) {
+        if (uid != null) {
+            parked.put(uid, key);
+        }
+    }
+
+    void release(String uid) {
+        if (uid != null) {
+            parked.remove(uid);
+        }
+    }
+
+    int getParked() {
+        return parked.size();
+    }
+
+    void triggerOwned(Predicate<String> owned) {
+        parked.forEach((uid, key) -> {
+            if (owned.test(key) && parked.remove(uid, key)) {
+                trigger(uid);
+            }
+        });
+    }
+
+    private void trigger(String uid) {
+        if (eventHandler == null) {
+            LOGGER.warn("Ignoring shard change of {} {}. EventHandler has not yet been initialized.", type.getSimpleName(), uid);
+            return;
+        }
+        eventHandler.handleEvent(new ShardEvent(uid, this));
+    }
+}
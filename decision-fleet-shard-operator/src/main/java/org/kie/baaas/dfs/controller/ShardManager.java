@@ -0,0 +1,324 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.kie.baaas.dfs.api.DecisionRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.client.CustomResource;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.javaoperatorsdk.operator.api.UpdateControl;
+
+import static org.kie.baaas.dfs.controller.DecisionLabels.BAAAS_RESOURCE_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.BAAAS_RESOURCE_SHARD;
+import static org.kie.baaas.dfs.controller.DecisionLabels.MANAGED_BY_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.OPERATOR_NAME;
+
+/**
+ * Splits customers between operator replicas when {@code baaas.shards.enabled} is set. Every replica renews a Lease
+ * named after its identity in the operator namespace every {@code baaas.shards.renew-ms}; the replicas whose Lease was
+ * seen renewed within {@code baaas.shards.lease-duration-s}, see {@link LeaseObserver}, form a consistent hash ring with
+ * {@code baaas.shards.virtual-nodes} points each. A customer is reconciled by the replica that owns its point on the
+ * ring, so replicas joining or leaving only move the customers next to their points.
+ * <p>
+ * The controllers still watch all namespaces and drop the events of customers they do not own, as well as every event
+ * while {@link LeaderElection} keeps this replica on standby. The resources dropped are remembered by the
+ * {@link ShardEventSource} registered with each controller, which triggers them once this replica owns them, when the
+ * members change or on failover. While replicas see different members, for at most a renew period, a customer may be
+ * reconciled by two replicas; the reconciles are idempotent.
+ */
+@ApplicationScoped
+public class ShardManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardManager.class);
+
+    static final String LEASE_PREFIX = "baaas-dfs-shard-";
+    static final String RENEWED_ANNOTATION = "org.kie.baaas/renewed";
+    private static final String NAMESPACE_PREFIX = "baaas-";
+
+    @Inject
+    KubernetesClient client;
+
+    @Inject
+    LeaderElection leader;
+
+    @ConfigProperty(name = "baaas.shards.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "baaas.shards.identity")
+    Optional<String> identity;
+
+    @ConfigProperty(name = "baaas.shards.lease-duration-s", defaultValue = "15")
+    int leaseDurationSeconds;
+
+    @ConfigProperty(name = "baaas.shards.renew-ms", defaultValue = "5000")
+    long renewMs;
+
+    @ConfigProperty(name = "baaas.shards.virtual-nodes", defaultValue = "64")
+    int virtualNodes;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final Map<Class<?>, ShardEventSource> eventSources = new ConcurrentHashMap<>();
+
+    private final LeaseObserver observer = new LeaseObserver();
+
+    private String self;
+
+    private volatile Ring ring;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        self = LeaderElection.resolveIdentity(identity);
+        ring = new Ring(Set.of(self), virtualNodes);
+        leader.addListener(this::triggerOwned);
+        if (!enabled) {
+            return;
+        }
+        // Known members before the first reconcile, then kept up to date in the background
+        renew();
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "shard-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::renew, renewMs, renewMs, TimeUnit.MILLISECONDS);
+        LOGGER.info("Sharding customers as {} between {}", self, ring.members);
+    }
+
+    @PreDestroy
+    void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            // Lets the other replicas take over without waiting for the Lease to expire
+            client.leases().inNamespace(client.getNamespace()).withName(getLeaseName()).delete();
+        } catch (KubernetesClientException e) {
+            LOGGER.warn("Unable to release shard Lease {}", getLeaseName(), e);
+        }
+    }
+
+    /**
+     * @return the event source to register with the controller of the given type
+     */
+    public ShardEventSource eventSource(Class<? extends CustomResource<?, ?>> type) {
+        return eventSources.computeIfAbsent(type, ShardEventSource::new);
+    }
+
+    /**
+     * @return whether this replica reconciles the given resource, always true without sharding and leader election
+     */
+    public boolean isOwned(HasMetadata resource) {
+        return isOwned(getShardKey(resource));
+    }
+
+    /**
+     * To be called before reconciling. A resource this replica does not own is remembered, to be triggered when it
+     * takes the resource over.
+     *
+     * @return whether the resource is to be reconciled
+     */
+    public boolean accept(CustomResource<?, ?> resource) {
+        String key = getShardKey(resource);
+        ShardEventSource eventSource = eventSources.get(resource.getClass());
+        if (isOwned(key)) {
+            if (eventSource != null) {
+                eventSource.release(resource.getMetadata().getUid());
+            }
+            return true;
+        }
+        if (eventSource != null) {
+            eventSource.park(resource.getMetadata().getUid(), key);
+        }
+        return false;
+    }
+
+    /**
+     * To be called once the reconcile got a worker. Runs it unless this replica lost the resource while it was waiting,
+     * e.g. on a demoted leader, remembering it as {@link #accept(CustomResource)} does.
+     *
+     * @return the result of the reconcile, no update when it was dropped
+     */
+    public <R extends CustomResource<?, ?>> UpdateControl<R> runIfAccepted(R resource, Supplier<UpdateControl<R>> reconcile) {
+        if (!accept(resource)) {
+            LOGGER.debug("{} {} was taken over by another replica while waiting to be reconciled", resource.getKind(), resource.getMetadata().getName());
+            return UpdateControl.noUpdate();
+        }
+        return reconcile.get();
+    }
+
+    /**
+     * Forgets a deleted resource.
+     */
+    public void release(CustomResource<?, ?> resource) {
+        ShardEventSource eventSource = eventSources.get(resource.getClass());
+        if (eventSource != null) {
+            eventSource.release(resource.getMetadata().getUid());
+        }
+    }
+
+    public String getIdentity() {
+        return self;
+    }
+
+    public Set<String> getMembers() {
+        return ring.members;
+    }
+
+    /**
+     * @return the customer the resource belongs to, as labelled or as in the DecisionRequest, otherwise taken from the
+     *         {@code baaas-<customerId>} namespace
+     */
+    static String getShardKey(HasMetadata resource) {
+        if (resource instanceof DecisionRequest && ((DecisionRequest) resource).getSpec() != null
+                && ((DecisionRequest) resource).getSpec().getCustomerId() != null) {
+            return ((DecisionRequest) resource).getSpec().getCustomerId();
+        }
+        String customer = ReconcileScheduler.getCustomer(resource);
+        if (customer != null) {
+            return customer;
+        }
+        String namespace = String.valueOf(resource.getMetadata().getNamespace());
+        return namespace.startsWith(NAMESPACE_PREFIX) ? namespace.substring(NAMESPACE_PREFIX.length()) : namespace;
+    }
+
+    void renew() {
+        try {
+            String namespace = client.getNamespace();
+            long now = clock.getAsLong();
+            client.leases().inNamespace(namespace).createOrReplace(new LeaseBuilder()
+                    .withNewMetadata()
+                    .withName(getLeaseName())
+                    .withNamespace(namespace)
+                    .addToLabels(MANAGED_BY_LABEL, OPERATOR_NAME)
+                    .addToLabels(BAAAS_RESOURCE_LABEL, BAAAS_RESOURCE_SHARD)
+                    .addToAnnotations(RENEWED_ANNOTATION, String.valueOf(now))
+                    .endMetadata()
+                    .withNewSpec()
+                    .withHolderIdentity(self)
+                    .withLeaseDurationSeconds(leaseDurationSeconds)
+                    .endSpec()
+                    .build());
+            Set<String> members = new TreeSet<>();
+            members.add(self);
+            List<Lease> leases = client.leases().inNamespace(namespace)
+                    .withLabel(MANAGED_BY_LABEL, OPERATOR_NAME)
+                    .withLabel(BAAAS_RESOURCE_LABEL, BAAAS_RESOURCE_SHARD)
+                    .list().getItems();
+            leases.stream()
+                    .filter(lease -> observer.isLive(lease, now, leaseDurationSeconds))
+                    .forEach(lease -> members.add(lease.getSpec().getHolderIdentity()));
+            observer.retain(leases.stream().map(lease -> lease.getMetadata().getName()).collect(Collectors.toList()));
+            updateMembers(members);
+        } catch (RuntimeException e) {
+            // Keeps the last known members, the Lease expires for the others if this goes on
+            LOGGER.warn("Unable to renew shard Lease {}", getLeaseName(), e);
+        }
+    }
+
+    /**
+     * @return whether the members changed
+     */
+    boolean updateMembers(Collection<String> members) {
+        Ring previous = ring;
+        if (previous.members.equals(new TreeSet<>(members))) {
+            return false;
+        }
+        ring = new Ring(members, virtualNodes);
+        LOGGER.info("Shard members changed from {} to {}, rebalancing customers", previous.members, ring.members);
+        triggerOwned();
+        return true;
+    }
+
+    private void triggerOwned() {
+        eventSources.values().forEach(source -> source.triggerOwned(this::isOwned));
+    }
+
+    private boolean isOwned(String key) {
+        return leader.isLeading() && (!enabled || self.equals(ring.getOwner(key)));
+    }
+
+    private String getLeaseName() {
+        return LEASE_PREFIX + self;
+    }
+
+    static class Ring {
+
+        private final Set<String> members;
+        private final NavigableMap<Integer, String> points = new TreeMap<>();
+
+        Ring(Collection<String> members, int virtualNodes) {
+            this.members = Collections.unmodifiableSet(new TreeSet<>(members));
+            for (String member : this.members) {
+                for (int i = 0; i < Math.max(1, virtualNodes); i++) {
+                    points.put(hash(member + "#" + i), member);
+                }
+            }
+        }
+
+        String getOwner(String key) {
+            Map.Entry<Integer, String> point = points.ceilingEntry(hash(key));
+            return point == null ? points.firstEntry().getValue() : point.getValue();
+        }
+
+        // FNV-1a, spread with the murmur3 finalizer so that close keys land far apart
+        static int hash(String key) {
+            int hash = 0x811c9dc5;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x01000193;
+            }
+            hash ^= hash >>> 16;
+            hash *= 0x85ebca6b;
+            hash ^= hash >>> 13;
+            hash *= 0xc2b2ae35;
+            hash ^= hash >>> 16;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the operator's blocking background work: reconcile workers, the concurrent stages of a reconcile and webhook
+ * deliveries. By default these keep their platform threads. With {@code baaas.threads.virtual=true} on JDK 21 or later
+ * they run on virtual threads instead, so webhook calls waiting on slow endpoints do not exhaust platform threads, and a
+ * customer never has more than {@code baaas.threads.max-per-customer} stages running at once, nor more deliveries. Stages
+ * and deliveries have separate permits, so that a customer's webhook backlog does not hold up its reconciles. Without virtual threads, asynchronous work such as webhook deliveries runs on its own pool of
+ * {@code baaas.threads.async-threads} threads, 0 for one per core, rather than on the common pool shared with the
+ * rest of the JVM. Reconcile workers are capped per customer by the {@link ReconcileScheduler}.
+ * <p>
+ * The operator is built for Java 11, so virtual threads are looked up reflectively. The mode falls back to platform
+ * threads with a warning when the JDK does not provide them.
+ */
+@ApplicationScoped
+public class TenantExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantExecutor.class);
+
+    @ConfigProperty(name = "baaas.threads.virtual", defaultValue = "false")
+    boolean virtual;
+
+    @ConfigProperty(name = "baaas.threads.max-per-customer", defaultValue = "64")
+    int maxPerCustomer;
+
+    @ConfigProperty(name = "baaas.threads.async-threads", defaultValue = "10")
+    int asyncThreads;
+
+    private final Map<String, Semaphore> stagePermits = new ConcurrentHashMap<>();
+
+    private final Map<String, Semaphore> asyncPermits = new ConcurrentHashMap<>();
+
+    private ThreadFactory virtualThreads;
+
+    private ExecutorService executor;
+
+    private ExecutorService platformExecutor;
+
+    @PostConstruct
+    void init() {
+        if (!virtual) {
+            return;
+        }
+        virtualThreads = newVirtualThreadFactory();
+        if (virtualThreads == null) {
+            LOGGER.warn("Virtual threads are not available on Java {}, keeping platform threads", System.getProperty("java.version"));
+            return;
+        }
+        executor = newThreadPerTaskExecutor(virtualThreads);
+        LOGGER.info("Running reconciles and webhooks on virtual threads, at most {} at once per customer", maxPerCustomer);
+    }
+
+    public boolean isVirtual() {
+        return executor != null;
+    }
+
+    /**
+     * @return a daemon thread running the task, virtual when enabled
+     */
+    public Thread newThread(Runnable task, String name) {
+        Thread thread = isVirtual() ? virtualThreads.newThread(task) : new Thread(task);
+        thread.setName(name);
+        if (!thread.isDaemon()) {
+            thread.setDaemon(true);
+        }
+        return thread;
+    }
+
+    /**
+     * @return an executor for the customer's work, the given fallback unless virtual threads are enabled
+     */
+    public Executor forCustomer(String customer, Executor fallback) {
+        if (!isVirtual()) {
+            return fallback;
+        }
+        return task -> executor.execute(() -> runWithPermit(stagePermits, customer, task));
+    }
+
+    /**
+     * Runs the task asynchronously for the customer, on the bounded platform pool unless virtual threads are enabled.
+     */
+    public CompletableFuture<Void> runAsync(String customer, Runnable task) {
+        if (!isVirtual()) {
+            return CompletableFuture.runAsync(task, getPlatformExecutor());
+        }
+        return CompletableFuture.runAsync(() -> runWithPermit(asyncPermits, customer, task), executor);
+    }
+
+    private synchronized ExecutorService getPlatformExecutor() {
+        if (platformExecutor == null) {
+            AtomicInteger count = new AtomicInteger();
+            int threads = asyncThreads > 0 ? asyncThreads : Runtime.getRuntime().availableProcessors();
+            platformExecutor = Executors.newFixedThreadPool(threads, r -> newThread(r, "baaas-async-" + count.getAndIncrement()));
+        }
+        return platformExecutor;
+    }
+
+    private void runWithPermit(Map<String, Semaphore> permits, String customer, Runnable task) {
+        Semaphore semaphore = permits.computeIfAbsent(customer == null ? ReconcileScheduler.UNKNOWN_CUSTOMER : customer,
+                k -> new Semaphore(maxPerCustomer, true));
+        // Skipping the task would leave its future incomplete, so shutting down does not abort the wait
+        semaphore.acquireUninterruptibly();
+        try {
+            task.run();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    // Thread.ofVirtual().name("baaas-virtual-", 0).factory()
+    private static ThreadFactory newVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "baaas-virtual-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newThreadPerTaskExecutor(ThreadFactory threadFactory) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create a virtual thread executor", e);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (isVirtual()) {
+            executor.shutdownNow();
+        }
+        synchronized (this) {
+            if (platformExecutor != null) {
+                platformExecutor.shutdownNow();
+            }
+        }
+    }
+}
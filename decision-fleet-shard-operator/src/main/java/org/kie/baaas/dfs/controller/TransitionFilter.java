@@ -0,0 +1,69 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.Watcher;
+
+/**
+ * Lets an event source declare the fields of the watched resources its controller reacts to, and drop the watch
+ * events that change none of them before they reach the reconcile queue. The declared fields are kept per resource
+ * from the last event; additions and deletions always go through, so do the events of resources not seen yet.
+ */
+public class TransitionFilter<T extends HasMetadata> {
+
+    private final List<Function<T, ?>> fields;
+
+    private final Map<String, List<Object>> observed = new ConcurrentHashMap<>();
+
+    private TransitionFilter(List<Function<T, ?>> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @param fields the fields to compare, a condition transitions when the field holding its status changes
+     */
+    @SafeVarargs
+    public static <T extends HasMetadata> TransitionFilter<T> onChangeOf(Function<T, ?>... fields) {
+        return new TransitionFilter<>(Arrays.asList(fields));
+    }
+
+    /**
+     * @return whether the event changes one of the fields, or adds or deletes the resource
+     */
+    public boolean accept(Watcher.Action action, T resource) {
+        String uid = resource.getMetadata().getUid();
+        if (uid == null) {
+            return true;
+        }
+        if (action == Watcher.Action.DELETED) {
+            observed.remove(uid);
+            return true;
+        }
+        List<Object> values = new ArrayList<>(fields.size());
+        for (Function<T, ?> field : fields) {
+            values.add(field.apply(resource));
+        }
+        List<Object> previous = observed.put(uid, values);
+        return action == Watcher.Action.ADDED || !values.equals(previous);
+    }
+}
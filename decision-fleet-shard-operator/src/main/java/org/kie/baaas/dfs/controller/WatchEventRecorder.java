@@ -0,0 +1,163 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.json.Json;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.utils.Serialization;
+
+/**
+ * Appends every watch event received by the operator's event sources to a trace file, one JSON object per line:
+ * {@code {"ts":<epoch millis>,"kind":"pipelineruns","action":"MODIFIED","object":{...}}}. A header line with the
+ * operator namespace is written each time the file is opened. Files ending in {@code .gz} are compressed.
+ * <p>
+ * Disabled unless {@code baaas.trace.file} is set. Events are written from a background thread and dropped when
+ * more than {@code baaas.trace.queue-size} are pending, so the watch threads are never blocked.
+ */
+@ApplicationScoped
+public class WatchEventRecorder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WatchEventRecorder.class);
+
+    @ConfigProperty(name = "baaas.trace.file")
+    Optional<String> traceFile;
+
+    @ConfigProperty(name = "baaas.trace.queue-size", defaultValue = "10000")
+    int queueSize;
+
+    @Inject
+    KubernetesClient client;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private ThreadPoolExecutor executor;
+
+    private Writer writer;
+
+    @PostConstruct
+    void init() {
+        if (traceFile == null || traceFile.isEmpty()) {
+            return;
+        }
+        Path path = Paths.get(traceFile.get());
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            OutputStream os = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (path.getFileName().toString().endsWith(".gz")) {
+                os = new GZIPOutputStream(os);
+            }
+            writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+            writer.write(Json.createObjectBuilder()
+                    .add("ts", System.currentTimeMillis())
+                    .add("kind", "trace")
+                    .add("namespace", client.getNamespace() == null ? "" : client.getNamespace())
+                    .build()
+                    .toString());
+            writer.write('\n');
+        } catch (IOException e) {
+            LOGGER.error("Unable to open watch event trace {}. Tracing is disabled.", path, e);
+            writer = null;
+            return;
+        }
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread thread = new Thread(r, "watch-event-recorder");
+            thread.setDaemon(true);
+            return thread;
+        }, (r, e) -> dropped.increment());
+        LOGGER.info("Recording watch events to {}", path);
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * @param kind the plural of the watched resource, e.g. {@code pipelineruns}
+     * @param resource the received object, either a model instance or its JSON
+     */
+    public void record(String kind, Watcher.Action action, Object resource) {
+        if (!isEnabled()) {
+            return;
+        }
+        long ts = System.currentTimeMillis();
+        executor.execute(() -> write(ts, kind, action, resource));
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private void write(long ts, String kind, Watcher.Action action, Object resource) {
+        String object = resource instanceof String ? (String) resource : Serialization.asJson(resource);
+        try {
+            writer.write("{\"ts\":" + ts + ",\"kind\":\"" + kind + "\",\"action\":\"" + action.name() + "\",\"object\":" + object + "}\n");
+            if (executor.getQueue().isEmpty()) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to record {} event for {}", action, kind, e);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (!isEnabled()) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.warn("Watch event trace did not drain in time");
+            }
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close watch event trace", e);
+        }
+        if (getDropped() > 0) {
+            LOGGER.warn("{} watch events were dropped from the trace. Increase baaas.trace.queue-size", getDropped());
+        }
+    }
+}
@@ -16,6 +16,8 @@ package org.kie.baaas.dfs.controller.k8s;
 
 import java.util.List;
 
+import org.kie.baaas.dfs.controller.TransitionFilter;
+import org.kie.baaas.dfs.controller.WatchEventRecorder;
 import org.kie.baaas.dfs.model.NetworkResourceEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,14 +38,22 @@ public class IngressResourceEventSource extends AbstractEventSource implements W
 
     private final KubernetesClient client;
 
-    public static IngressResourceEventSource createAndRegisterWatch(KubernetesClient client) {
-        IngressResourceEventSource eventSource = new IngressResourceEventSource(client);
+    private final WatchEventRecorder recorder;
+
+    // The current endpoint is read from the load balancer address and the path and service in the spec
+    private final TransitionFilter<Ingress> transitions = TransitionFilter.onChangeOf(
+            ingress -> ingress.getMetadata().getGeneration(),
+            ingress -> ingress.getStatus() == null ? null : ingress.getStatus().getLoadBalancer());
+
+    public static IngressResourceEventSource createAndRegisterWatch(KubernetesClient client, WatchEventRecorder recorder) {
+        IngressResourceEventSource eventSource = new IngressResourceEventSource(client, recorder);
         eventSource.registerWatch();
         return eventSource;
     }
 
-    private IngressResourceEventSource(KubernetesClient client) {
+    IngressResourceEventSource(KubernetesClient client, WatchEventRecorder recorder) {
         this.client = client;
+        this.recorder = recorder;
     }
 
     private void registerWatch() {
@@ -52,6 +62,7 @@ public class IngressResourceEventSource extends AbstractEventSource implements W
 
     @Override
     public void eventReceived(Action action, Ingress ingress) {
+        recorder.record("ingresses", action, ingress);
         if (eventHandler == null) {
             LOGGER.warn("Ignoring action {} for resource ingress. EventHandler has not yet been initialized.", action);
             return;
@@ -73,6 +84,11 @@ public class IngressResourceEventSource extends AbstractEventSource implements W
             return;
         }
 
+        if (!transitions.accept(action, ingress)) {
+            LOGGER.debug("Dropping {} event for Ingress {}, no relevant change", action, ingress.getMetadata().getName());
+            return;
+        }
+
         List<OwnerReference> ownerReferences = ingress.getMetadata().getOwnerReferences();
         if (!ownerReferences.isEmpty()) {
             String ownerUid = ownerReferences.get(0).getUid();
@@ -16,6 +16,8 @@ package org.kie.baaas.dfs.controller.openshift;
 
 import java.util.List;
 
+import org.kie.baaas.dfs.controller.TransitionFilter;
+import org.kie.baaas.dfs.controller.WatchEventRecorder;
 import org.kie.baaas.dfs.model.NetworkResourceEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,14 +38,22 @@ public class OpenshiftResourceEventSource extends AbstractEventSource implements
 
     private final OpenShiftClient client;
 
-    public static OpenshiftResourceEventSource createAndRegisterWatch(OpenShiftClient client) {
-        OpenshiftResourceEventSource eventSource = new OpenshiftResourceEventSource(client);
+    private final WatchEventRecorder recorder;
+
+    // The current endpoint is read from the spec once the Route is admitted
+    private final TransitionFilter<Route> transitions = TransitionFilter.onChangeOf(
+            route -> route.getMetadata().getGeneration(),
+            route -> route.getStatus() == null ? null : route.getStatus().getIngress());
+
+    public static OpenshiftResourceEventSource createAndRegisterWatch(OpenShiftClient client, WatchEventRecorder recorder) {
+        OpenshiftResourceEventSource eventSource = new OpenshiftResourceEventSource(client, recorder);
         eventSource.registerWatch();
         return eventSource;
     }
 
-    private OpenshiftResourceEventSource(OpenShiftClient client) {
+    private OpenshiftResourceEventSource(OpenShiftClient client, WatchEventRecorder recorder) {
         this.client = client;
+        this.recorder = recorder;
     }
 
     private void registerWatch() {
@@ -52,6 +62,7 @@ public class OpenshiftResourceEventSource extends AbstractEventSource implements
 
     @Override
     public void eventReceived(Action action, Route route) {
+        recorder.record("routes", action, route);
         if (eventHandler == null) {
             LOGGER.warn("Ignoring action {} for resource ingress. EventHandler has not yet been initialized.", action);
             return;
@@ -73,6 +84,11 @@ public class OpenshiftResourceEventSource extends AbstractEventSource implements
             return;
         }
 
+        if (!transitions.accept(action, route)) {
+            LOGGER.debug("Dropping {} event for Route {}, no relevant change", action, route.getMetadata().getName());
+            return;
+        }
+
         List<OwnerReference> ownerReferences = route.getMetadata().getOwnerReferences();
         if (!ownerReferences.isEmpty()) {
             String ownerUid = ownerReferences.get(0).getUid();
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.service;
+
+import java.net.HttpURLConnection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.client.CustomResource;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.javaoperatorsdk.operator.api.Context;
+import io.javaoperatorsdk.operator.api.UpdateControl;
+
+/**
+ * Retries writes that fail on a conflicting resourceVersion without repeating the whole reconcile.
+ * <p>
+ * Status updates are applied by the operator SDK from the returned {@link UpdateControl}, and a conflict there fails
+ * the reconcile. The intended status is remembered per resource so that the retried reconcile, which the SDK starts
+ * with the latest resource from its cache, only reapplies that status on top of it instead of looking everything up
+ * again. The status is only reapplied when the resource changed since, that is when the update conflicted: its
+ * resourceVersion differs from both the one submitted and the one reconciled, since the SDK cache may still hold the
+ * latter after a failure that was not a conflict. Direct writes
+ * are retried in place after a jittered delay growing by {@code baaas.conflicts.retry-delay-ms} per attempt. Both are
+ * bounded by {@code baaas.conflicts.max-retries}.
+ */
+@ApplicationScoped
+public class ConflictAwareWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConflictAwareWriter.class);
+
+    static final String CONFLICTS = "conflicts";
+    static final String EXHAUSTED = "exhausted";
+
+    @ConfigProperty(name = "baaas.conflicts.max-retries", defaultValue = "3")
+    int maxRetries;
+
+    @ConfigProperty(name = "baaas.conflicts.retry-delay-ms", defaultValue = "50")
+    long retryDelayMs;
+
+    private final Map<String, Intent> intents = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, LongAdder>> stats = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    public interface Write<T, E extends Exception> {
+        T apply() throws E;
+    }
+
+    /**
+     * @return the status update for the operator SDK to apply
+     */
+    public <R extends CustomResource<?, ?>> UpdateControl<R> updateStatus(R resource) {
+        return updateStatus(resource, resource);
+    }
+
+    /**
+     * @param resource the resource to submit, read again from the API server
+     * @param reconciled the resource the reconcile started from
+     * @return the status update for the operator SDK to apply
+     */
+    public <R extends CustomResource<?, ?>> UpdateControl<R> updateStatus(R resource, CustomResource<?, ?> reconciled) {
+        if (resource.getMetadata().getUid() != null) {
+            intents.put(resource.getMetadata().getUid(), new Intent(resource.getStatus(), resource.getMetadata().getResourceVersion(),
+                    reconciled.getMetadata().getResourceVersion(), 0));
+        }
+        return UpdateControl.updateStatusSubResource(resource);
+    }
+
+    /**
+     * To be called before reconciling. When the SDK retries a reconcile whose status update failed, reapplies that
+     * status to the given resource.
+     *
+     * @return the status update to retry, empty when the reconcile has to run
+     */
+    @SuppressWarnings("unchecked")
+    public <R extends CustomResource<?, S>, S> Optional<UpdateControl<R>> retryStatus(R resource, Context<R> context) {
+        if (resource.getMetadata().getUid() == null) {
+            return Optional.empty();
+        }
+        Intent intent = intents.remove(resource.getMetadata().getUid());
+        if (intent == null || context == null || context.getRetryInfo().isEmpty()) {
+            return Optional.empty();
+        }
+        String kind = resource.getClass().getSimpleName();
+        String resourceVersion = resource.getMetadata().getResourceVersion();
+        if (Objects.equals(intent.submittedVersion, resourceVersion) || Objects.equals(intent.reconciledVersion, resourceVersion)) {
+            LOGGER.debug("The status update of {} {} failed without a conflict, reconciling it again", kind, resource.getMetadata().getName());
+            return Optional.empty();
+        }
+        if (intent.attempts >= maxRetries) {
+            LOGGER.debug("Giving up reapplying the status of {} {} after {} attempts", kind, resource.getMetadata().getName(), intent.attempts);
+            count(kind, EXHAUSTED);
+            return Optional.empty();
+        }
+        LOGGER.debug("Reapplying the status of {} {} after a failed update", kind, resource.getMetadata().getName());
+        count(kind, CONFLICTS);
+        resource.setStatus((S) intent.status);
+        intents.put(resource.getMetadata().getUid(), new Intent(intent.status, resourceVersion, resourceVersion, intent.attempts + 1));
+        return Optional.of(UpdateControl.updateStatusSubResource(resource));
+    }
+
+    /**
+     * Runs the write again when it fails with a conflict. The write has to read the current resourceVersion itself, as
+     * createOrReplace does.
+     */
+    public <T, E extends Exception> T write(String kind, Write<T, E> write) throws E {
+        for (int attempt = 0;; attempt++) {
+            try {
+                return write.apply();
+            } catch (KubernetesClientException e) {
+                if (e.getCode() != HttpURLConnection.HTTP_CONFLICT) {
+                    throw e;
+                }
+                count(kind, CONFLICTS);
+                if (attempt >= maxRetries) {
+                    count(kind, EXHAUSTED);
+                    throw e;
+                }
+                LOGGER.debug("Conflict writing {}, retrying", kind, e);
+                try {
+                    Thread.sleep(getDelay(attempt));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the status kept for the resource, to be called once it is deleted.
+     */
+    public void forget(CustomResource<?, ?> resource) {
+        if (resource.getMetadata().getUid() != null) {
+            intents.remove(resource.getMetadata().getUid());
+        }
+    }
+
+    // Spreads the writers that conflicted on the same resource
+    private long getDelay(int attempt) {
+        if (retryDelayMs <= 0) {
+            return 0;
+        }
+        long delay = retryDelayMs * (attempt + 1);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * @return per resource kind, the conflicts retried and the ones that ran out of retries
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        stats.forEach((kind, counters) -> {
+            Map<String, Long> values = new TreeMap<>();
+            counters.forEach((name, counter) -> values.put(name, counter.sum()));
+            result.put(kind, values);
+        });
+        return result;
+    }
+
+    private void count(String kind, String counter) {
+        stats.computeIfAbsent(kind, k -> new ConcurrentHashMap<>()).computeIfAbsent(counter, k -> new LongAdder()).increment();
+    }
+
+    private static class Intent {
+
+        private final Object status;
+        private final String submittedVersion;
+        private final String reconciledVersion;
+        private final int attempts;
+
+        private Intent(Object status, String submittedVersion, String reconciledVersion, int attempts) {
+            this.status = status;
+            this.submittedVersion = submittedVersion;
+            this.reconciledVersion = reconciledVersion;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -16,6 +16,7 @@ package org.kie.baaas.dfs.service;
 
 import java.util.Date;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -52,6 +53,9 @@ public class DecisionVersionService {
     @Inject
     KubernetesClient client;
 
+    @Inject
+    ConflictAwareWriter writer;
+
     public void setBuildCompleted(DecisionVersion version, String imageRef) {
         setBuildStatus(version, Boolean.TRUE, REASON_SUCCESS, "");
         if (!Objects.equals(version.getStatus().getImageRef(), imageRef)) {
@@ -101,30 +105,43 @@ public class DecisionVersionService {
     }
 
     public UpdateControl<DecisionVersion> updateStatus(DecisionVersion version) {
+        return updateStatus(version, () -> getCurrent(version), () -> client.customResources(Decision.class)
+                .inNamespace(version.getMetadata().getNamespace())
+                .withName(version.getMetadata().getLabels().get(DECISION_LABEL))
+                .get());
+    }
+
+    /**
+     * @param current supplies the version as stored in the cluster
+     * @param decision supplies the version's Decision, only called when the status changed
+     */
+    public UpdateControl<DecisionVersion> updateStatus(DecisionVersion version, Supplier<DecisionVersion> current, Supplier<Decision> decision) {
         if (version.getStatus().getCondition(CONDITION_READY) == null) {
             version.getStatus().setReady(Boolean.FALSE);
         }
-        DecisionVersion current = client.customResources(DecisionVersion.class)
-                .inNamespace(version.getMetadata().getNamespace())
-                .withName(version.getMetadata().getName())
-                .get();
-        if (current == null) {
+        version.getStatus().setObservedGeneration(version.getMetadata().getGeneration());
+        DecisionVersion stored = current.get();
+        if (stored == null) {
             return UpdateControl.noUpdate();
         }
-        DecisionVersionStatus currentStatus = current.getStatus();
+        DecisionVersionStatus currentStatus = stored.getStatus();
         if (Objects.equals(currentStatus, version.getStatus())) {
             return UpdateControl.noUpdate();
         }
-        Decision decision = client.customResources(Decision.class)
-                .inNamespace(version.getMetadata().getNamespace())
-                .withName(version.getMetadata().getLabels().get(DECISION_LABEL))
-                .get();
+        Decision owner = decision.get();
         version.getStatus().getConditionValues()
                 .stream()
                 .filter(c -> currentStatus == null || !Objects.equals(c, currentStatus.getCondition(c.getType())))
                 .filter(c -> REASON_FAILED.equals(c.getReason()))
-                .forEach(c -> resourceClient.notify(version, decision.getSpec().getWebhooks(), c.getMessage(), Phase.FAILED));
-        current.setStatus(version.getStatus());
-        return UpdateControl.updateStatusSubResource(current);
+                .forEach(c -> resourceClient.notify(version, owner.getSpec().getWebhooks(), c.getMessage(), Phase.FAILED));
+        stored.setStatus(version.getStatus());
+        return writer.updateStatus(stored, version);
+    }
+
+    public DecisionVersion getCurrent(DecisionVersion version) {
+        return client.customResources(DecisionVersion.class)
+                .inNamespace(version.getMetadata().getNamespace())
+                .withName(version.getMetadata().getName())
+                .get();
     }
 }
@@ -17,6 +17,7 @@ package org.kie.baaas.dfs.service;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -97,6 +98,9 @@ public class KogitoService {
     @Inject
     KubernetesClient client;
 
+    @Inject
+    ConflictAwareWriter writer;
+
     public static String getServiceName(DecisionVersion version) {
         return version.getMetadata().getName();
     }
@@ -165,12 +169,21 @@ public class KogitoService {
     }
 
     public void createOrUpdate(DecisionVersion version) {
-        if (!isBuilt(version) || !isCurrent(version)) {
+        createOrUpdate(version, () -> getDecision(version), () -> createOrUpdateDashboardAuthSecret(version.getMetadata().getNamespace()));
+    }
+
+    /**
+     * @param decision supplies the version's Decision, only called once the version is built
+     * @param dashboardAuthSecret syncs the dashboard credentials into the version's namespace before the KogitoRuntime
+     *        is created or updated
+     */
+    public void createOrUpdate(DecisionVersion version, Supplier<Decision> decision, Runnable dashboardAuthSecret) {
+        if (!isBuilt(version) || !isCurrent(version, decision.get())) {
             return;
         }
         LOGGER.info("Creating or Updating Kogito Runtime for DecisionVersion {}", version.getMetadata().getName());
         JsonObject expected = build(version);
-        createOrUpdateDashboardAuthSecret(version.getMetadata().getNamespace());
+        dashboardAuthSecret.run();
         String name = getName(expected);
         JsonObject current = null;
         try {
@@ -183,8 +196,8 @@ public class KogitoService {
         //TODO KOGITO-4536 - Only createOrReplace when needsUpdate
         if (current == null) {
             try {
-                current = Json.createObjectBuilder(client.customResource(KOGITO_RUNTIME_CONTEXT)
-                        .createOrReplace(version.getMetadata().getNamespace(), expected.toString()))
+                current = Json.createObjectBuilder(writer.write(KOGITO_RUNTIME_CONTEXT.getKind(), () -> client.customResource(KOGITO_RUNTIME_CONTEXT)
+                        .createOrReplace(version.getMetadata().getNamespace(), expected.toString())))
                         .build();
             } catch (IOException e) {
                 LOGGER.warn("Unable to process KogitoService for DecisionVersion {}", version.getMetadata().getName(), e);
@@ -192,7 +205,7 @@ public class KogitoService {
             }
         } else if (needsUpdate(expected, current)) {
             try {
-                client.customResource(KOGITO_RUNTIME_CONTEXT).createOrReplace(version.getMetadata().getNamespace(), expected.toString());
+                writer.write(KOGITO_RUNTIME_CONTEXT.getKind(), () -> client.customResource(KOGITO_RUNTIME_CONTEXT).createOrReplace(version.getMetadata().getNamespace(), expected.toString()));
                 LOGGER.info("Deleting KogitoRuntime {}. See KOGITO-4536", getName(expected));
                 client.customResource(KOGITO_RUNTIME_CONTEXT).delete(version.getMetadata().getNamespace(), getName(expected));
                 version.getStatus().setKogitoServiceRef(null);
@@ -236,7 +249,7 @@ public class KogitoService {
         versionService.setServiceStatus(version, status, reason, message);
     }
 
-    private boolean needsUpdate(JsonObject expected, JsonObject current) {
+    static boolean needsUpdate(JsonObject expected, JsonObject current) {
         JsonObject expectedSpec = getSpec(expected);
         JsonObject currentSpec = getSpec(current);
         if (!Objects.equals(expectedSpec.getString("image"), currentSpec.getString("image"))
@@ -257,22 +270,25 @@ public class KogitoService {
         return false;
     }
 
-    private boolean isBuilt(DecisionVersion version) {
+    public static boolean isBuilt(DecisionVersion version) {
         return version.getStatus() != null
                 && version.getStatus().getCondition(CONDITION_BUILD) != null
                 && Boolean.parseBoolean(version.getStatus().getCondition(CONDITION_BUILD).getStatus());
     }
 
-    private boolean isCurrent(DecisionVersion version) {
-        Decision decision = client.customResources(Decision.class)
+    public static boolean isCurrent(DecisionVersion version, Decision decision) {
+        return decision != null
+                && Objects.equals(decision.getSpec().getDefinition().getVersion(), version.getSpec().getVersion());
+    }
+
+    public Decision getDecision(DecisionVersion version) {
+        return client.customResources(Decision.class)
                 .inNamespace(version.getMetadata().getNamespace())
                 .withName(version.getMetadata().getLabels().get(DECISION_LABEL))
                 .get();
-        return decision != null
-                && Objects.equals(decision.getSpec().getDefinition().getVersion(), version.getSpec().getVersion());
     }
 
-    private void createOrUpdateDashboardAuthSecret(String namespace) {
+    public void createOrUpdateDashboardAuthSecret(String namespace) {
         Secret current = client.secrets()
                 .inNamespace(namespace)
                 .withName(BAAAS_DASHBOARD_AUTH_SECRET)
@@ -296,7 +312,7 @@ public class KogitoService {
                     .withData(vault.getData())
                     .build();
             LOGGER.debug("Create or replace kafka-auth secret {} in {}", expected.getMetadata().getName(), expected.getMetadata().getNamespace());
-            client.secrets().inNamespace(namespace).createOrReplace(expected);
+            writer.write(expected.getKind(), () -> client.secrets().inNamespace(namespace).createOrReplace(expected));
         }
     }
 
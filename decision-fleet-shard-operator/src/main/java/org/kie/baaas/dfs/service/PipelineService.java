@@ -18,6 +18,7 @@ import java.io.IOException;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -90,23 +91,19 @@ public class PipelineService {
     KubernetesClient client;
 
     public void createOrUpdate(DecisionVersion version) {
+        createOrUpdate(version, () -> getLatestRun(version));
+    }
+
+    /**
+     * @param latestRun supplies the version's most recent PipelineRun, or null when none was started yet
+     */
+    public void createOrUpdate(DecisionVersion version, Supplier<JsonObject> latestRun) {
         try {
             JsonObject expected = build(client.getNamespace(), version);
-            JsonObject pipelineRuns = Json.createObjectBuilder(client.customResource(PIPELINE_RUN_CONTEXT)
-                    .list(client.getNamespace(), Map.of(
-                            DECISION_VERSION_LABEL, version.getMetadata().getName(),
-                            DECISION_NAMESPACE_LABEL, version.getMetadata().getNamespace())))
-                    .build();
-            JsonArray items = pipelineRuns.getJsonArray("items");
-            JsonObject run = null;
-            if (!items.isEmpty()) {
+            JsonObject run = latestRun.get();
+            if (run != null) {
                 LOGGER.debug("PipelineRun exists for this decisionVersion {}. Skipping...", version.getMetadata().getName());
-                Optional<JsonValue> recentBuild = items.stream().max(Comparator.comparing(v -> ResourceUtils.fromInstant(v.asJsonObject().getJsonObject("status").getString("startTime"))));
-                if (recentBuild.isPresent()) {
-                    run = recentBuild.get().asJsonObject();
-                }
-            }
-            if (run == null) {
+            } else {
                 LOGGER.debug("PipelineRun doesn't exist for this decisionVersion {}. Create it.", version.getMetadata().getName());
                 run = Json.createObjectBuilder(client
                         .customResource(PIPELINE_RUN_CONTEXT)
@@ -120,6 +117,17 @@ public class PipelineService {
         }
     }
 
+    public JsonObject getLatestRun(DecisionVersion version) {
+        JsonObject pipelineRuns = Json.createObjectBuilder(client.customResource(PIPELINE_RUN_CONTEXT)
+                .list(client.getNamespace(), Map.of(
+                        DECISION_VERSION_LABEL, version.getMetadata().getName(),
+                        DECISION_NAMESPACE_LABEL, version.getMetadata().getNamespace())))
+                .build();
+        JsonArray items = pipelineRuns.getJsonArray("items");
+        Optional<JsonValue> recentBuild = items.stream().max(Comparator.comparing(v -> ResourceUtils.fromInstant(v.asJsonObject().getJsonObject("status").getString("startTime"))));
+        return recentBuild.map(JsonValue::asJsonObject).orElse(null);
+    }
+
     public void delete(DecisionVersion version) {
         try {
             if (!client.customResource(PIPELINE_RUN_CONTEXT).list(client.getNamespace(), Map.of(OWNER_UID_LABEL, version.getMetadata().getUid())).isEmpty()) {
@@ -151,7 +159,7 @@ public class PipelineService {
         }
     }
 
-    private JsonObject build(String namespace, DecisionVersion version) {
+    JsonObject build(String namespace, DecisionVersion version) {
         return Json.createObjectBuilder()
                 .add("apiVersion", PIPELINE_RUN_CONTEXT.getGroup() + "/" + PIPELINE_RUN_CONTEXT.getVersion())
                 .add("kind", PIPELINE_RUN_CONTEXT.getKind())
@@ -15,8 +15,10 @@
 package org.kie.baaas.dfs.service.networking.k8s;
 
 import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.controller.WatchEventRecorder;
 import org.kie.baaas.dfs.controller.k8s.IngressResourceEventSource;
 import org.kie.baaas.dfs.model.NetworkResource;
+import org.kie.baaas.dfs.service.ConflictAwareWriter;
 import org.kie.baaas.dfs.service.networking.NetworkingConstants;
 import org.kie.baaas.dfs.service.networking.NetworkingService;
 import org.slf4j.Logger;
@@ -57,9 +59,15 @@ public class KubernetesNetworkingService implements NetworkingService {
 
     private final KubernetesClient client;
 
-    public KubernetesNetworkingService(KubernetesClient client, String kubernetesInternalRegistry) {
+    private final WatchEventRecorder recorder;
+
+    private final ConflictAwareWriter writer;
+
+    public KubernetesNetworkingService(KubernetesClient client, String kubernetesInternalRegistry, WatchEventRecorder recorder, ConflictAwareWriter writer) {
         this.client = client;
         this.kubernetesInternalRegistry = kubernetesInternalRegistry;
+        this.recorder = recorder;
+        this.writer = writer;
     }
 
     @Override
@@ -69,7 +77,7 @@ public class KubernetesNetworkingService implements NetworkingService {
 
     @Override
     public AbstractEventSource createAndRegisterWatchNetworkingResource() {
-        return IngressResourceEventSource.createAndRegisterWatch(client);
+        return IngressResourceEventSource.createAndRegisterWatch(client, recorder);
     }
 
     @Override
@@ -98,7 +106,7 @@ public class KubernetesNetworkingService implements NetworkingService {
     @Override
     public void createOrUpdate(String endpointName, DecisionVersion decisionVersion, OwnerReference ownerReference) {
         Ingress ingress = buildIngress(endpointName, decisionVersion, ownerReference);
-        client.network().v1().ingresses().inNamespace(decisionVersion.getMetadata().getNamespace()).createOrReplace(ingress);
+        writer.write(ingress.getKind(), () -> client.network().v1().ingresses().inNamespace(decisionVersion.getMetadata().getNamespace()).createOrReplace(ingress));
     }
 
     private Ingress buildIngress(String endpointName, DecisionVersion decisionVersion, OwnerReference ownerReference) {
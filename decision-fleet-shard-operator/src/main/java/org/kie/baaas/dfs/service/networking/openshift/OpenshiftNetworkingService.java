@@ -15,8 +15,10 @@
 package org.kie.baaas.dfs.service.networking.openshift;
 
 import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.controller.WatchEventRecorder;
 import org.kie.baaas.dfs.controller.openshift.OpenshiftResourceEventSource;
 import org.kie.baaas.dfs.model.NetworkResource;
+import org.kie.baaas.dfs.service.ConflictAwareWriter;
 import org.kie.baaas.dfs.service.networking.NetworkingConstants;
 import org.kie.baaas.dfs.service.networking.NetworkingService;
 import org.slf4j.Logger;
@@ -46,9 +48,15 @@ public class OpenshiftNetworkingService implements NetworkingService {
 
     private final OpenShiftClient client;
 
-    public OpenshiftNetworkingService(OpenShiftClient client, String openshiftInternalRegistry) {
+    private final WatchEventRecorder recorder;
+
+    private final ConflictAwareWriter writer;
+
+    public OpenshiftNetworkingService(OpenShiftClient client, String openshiftInternalRegistry, WatchEventRecorder recorder, ConflictAwareWriter writer) {
         this.client = client;
         this.openshiftInternalRegistry = openshiftInternalRegistry;
+        this.recorder = recorder;
+        this.writer = writer;
     }
 
     @Override
@@ -58,7 +66,7 @@ public class OpenshiftNetworkingService implements NetworkingService {
 
     @Override
     public AbstractEventSource createAndRegisterWatchNetworkingResource() {
-        return OpenshiftResourceEventSource.createAndRegisterWatch(client);
+        return OpenshiftResourceEventSource.createAndRegisterWatch(client, recorder);
     }
 
     @Override
@@ -86,7 +94,7 @@ public class OpenshiftNetworkingService implements NetworkingService {
     @Override
     public void createOrUpdate(String endpointName, DecisionVersion decisionVersion, OwnerReference ownerReference) {
         Route route = buildRoute(endpointName, decisionVersion, ownerReference);
-        client.routes().inNamespace(decisionVersion.getMetadata().getNamespace()).createOrReplace(route);
+        writer.write(route.getKind(), () -> client.routes().inNamespace(decisionVersion.getMetadata().getNamespace()).createOrReplace(route));
     }
 
     private Route buildRoute(String endpointName, DecisionVersion decisionVersion, OwnerReference ownerReference) {
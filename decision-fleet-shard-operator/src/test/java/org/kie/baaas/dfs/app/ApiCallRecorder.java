@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.app;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Records the requests the mock server receives while an action runs, by verb and resource.
+ */
+public class ApiCallRecorder {
+
+    private volatile Queue<ApiCalls.ApiCall> recording;
+
+    public synchronized ApiCalls record(Runnable action) {
+        Queue<ApiCalls.ApiCall> calls = new ConcurrentLinkedQueue<>();
+        recording = calls;
+        try {
+            action.run();
+        } finally {
+            recording = null;
+        }
+        return new ApiCalls(List.copyOf(calls));
+    }
+
+    void onRequest(RecordedRequest request) {
+        Queue<ApiCalls.ApiCall> calls = recording;
+        if (calls != null) {
+            calls.add(toApiCall(request));
+        }
+    }
+
+    static ApiCalls.ApiCall toApiCall(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        List<String> segments = url.pathSegments();
+        // /api/{version}/... or /apis/{group}/{version}/...
+        int start = "apis".equals(segments.get(0)) ? 3 : 2;
+        List<String> path = segments.subList(Math.min(start, segments.size()), segments.size());
+        if (path.size() > 2 && "namespaces".equals(path.get(0))) {
+            path = path.subList(2, path.size());
+        }
+        String resource = path.isEmpty() ? url.encodedPath() : path.get(0);
+        if (path.size() > 2) {
+            resource += "/" + path.get(2);
+        }
+        boolean named = path.size() > 1;
+        return new ApiCalls.ApiCall(getVerb(request.getMethod(), named, "true".equals(url.queryParameter("watch"))), resource);
+    }
+
+    private static ApiCalls.Verb getVerb(String method, boolean named, boolean watch) {
+        switch (method) {
+            case "POST":
+                return ApiCalls.Verb.CREATE;
+            case "PUT":
+                return ApiCalls.Verb.UPDATE;
+            case "PATCH":
+                return ApiCalls.Verb.PATCH;
+            case "DELETE":
+                return ApiCalls.Verb.DELETE;
+            default:
+                if (watch) {
+                    return ApiCalls.Verb.WATCH;
+                }
+                return named ? ApiCalls.Verb.GET : ApiCalls.Verb.LIST;
+        }
+    }
+}
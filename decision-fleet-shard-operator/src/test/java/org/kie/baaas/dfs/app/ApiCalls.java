@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.app;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Kubernetes API calls made during a recorded action, see {@link ApiCallRecorder}.
+ */
+public class ApiCalls {
+
+    public enum Verb {
+        GET(false),
+        LIST(false),
+        WATCH(false),
+        CREATE(true),
+        UPDATE(true),
+        PATCH(true),
+        DELETE(true);
+
+        private final boolean write;
+
+        Verb(boolean write) {
+            this.write = write;
+        }
+
+        public boolean isWrite() {
+            return write;
+        }
+    }
+
+    private final List<ApiCall> calls;
+
+    ApiCalls(List<ApiCall> calls) {
+        this.calls = calls;
+    }
+
+    public long count(Verb verb) {
+        return calls.stream().filter(c -> c.verb == verb).count();
+    }
+
+    public long count(Verb verb, String resource) {
+        return calls.stream().filter(c -> c.verb == verb && Objects.equals(c.resource, resource)).count();
+    }
+
+    /**
+     * GETs and LISTs. Watches are long-lived and counted separately.
+     */
+    public long getReads() {
+        return count(Verb.GET) + count(Verb.LIST);
+    }
+
+    public long getWrites() {
+        return calls.stream().filter(c -> c.verb.isWrite()).count();
+    }
+
+    public long getTotal() {
+        return calls.size();
+    }
+
+    @Override
+    public String toString() {
+        Map<String, Long> byCall = calls.stream().collect(Collectors.groupingBy(ApiCall::toString, TreeMap::new, Collectors.counting()));
+        return calls.size() + " calls " + byCall;
+    }
+
+    public static class ApiCall {
+
+        private final Verb verb;
+        private final String resource;
+
+        ApiCall(Verb verb, String resource) {
+            this.verb = verb;
+            this.resource = resource;
+        }
+
+        public Verb getVerb() {
+            return verb;
+        }
+
+        public String getResource() {
+            return resource;
+        }
+
+        @Override
+        public String toString() {
+            return verb + " " + resource;
+        }
+    }
+}
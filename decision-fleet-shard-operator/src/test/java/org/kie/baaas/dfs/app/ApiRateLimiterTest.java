@@ -0,0 +1,143 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.app;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import okhttp3.HttpUrl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.kie.baaas.dfs.controller.AbstractControllerTest.CUSTOMER;
+import static org.kie.baaas.dfs.controller.AbstractControllerTest.CUSTOMER_NS;
+
+class ApiRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testBurstThenRate() {
+        //Given
+        ApiRateLimiter.TokenBucket bucket = new ApiRateLimiter.TokenBucket(10, 2, 0);
+
+        //When
+        long first = bucket.reserve(0);
+        long second = bucket.reserve(0);
+        long third = bucket.reserve(0);
+        long fourth = bucket.reserve(0);
+
+        //Then
+        assertThat(first, is(0L));
+        assertThat(second, is(0L));
+        // Queued behind each other, one token every 100ms
+        assertThat(third, is(SECOND / 10));
+        assertThat(fourth, is(2 * SECOND / 10));
+    }
+
+    @Test
+    void testRefillIsCapped() {
+        //Given
+        ApiRateLimiter.TokenBucket bucket = new ApiRateLimiter.TokenBucket(10, 2, 0);
+        bucket.reserve(0);
+        bucket.reserve(0);
+
+        //When
+        long later = 60 * SECOND;
+
+        //Then
+        assertThat(bucket.reserve(later), is(0L));
+        assertThat(bucket.reserve(later), is(0L));
+        assertThat(bucket.reserve(later), is(SECOND / 10));
+    }
+
+    @Test
+    void testWaitIsBounded() {
+        //Given
+        ApiRateLimiter.TokenBucket bucket = new ApiRateLimiter.TokenBucket(10, 1, 0);
+        bucket.reserve(0);
+
+        //When
+        long rejected = bucket.reserve(0, SECOND / 20);
+        long queued = bucket.reserve(0, SECOND / 10);
+
+        //Then
+        assertThat(rejected, is(-1L));
+        // The rejected request did not take a token
+        assertThat(queued, is(SECOND / 10));
+    }
+
+    @Test
+    void testRejectedWhenWaitingTooLong() throws Exception {
+        //Given
+        ApiRateLimiter limiter = new ApiRateLimiter();
+        limiter.clock = () -> 0;
+        limiter.maxWaitMs = 100;
+        limiter.acquire(CUSTOMER, 1, 1);
+
+        //When
+        assertThrows(IOException.class, () -> limiter.acquire(CUSTOMER, 1, 1));
+
+        //Then
+        assertThat(limiter.getStats().get(CUSTOMER).get("requests"), is(1L));
+        assertThat(limiter.getStats().get(CUSTOMER).get("rejected"), is(1L));
+    }
+
+    @Test
+    void testLeasesNotThrottled() {
+        assertThat(ApiRateLimiter.isLease(url("/apis/coordination.k8s.io/v1/namespaces/baaas-dfs/leases/baaas-dfs-leader")), is(true));
+        assertThat(ApiRateLimiter.isLease(url("/apis/operator.baaas/v1alpha1/namespaces/" + CUSTOMER_NS + "/decisions")), is(false));
+    }
+
+    @Test
+    void testCustomerFromNamespace() {
+        //Given
+        ApiRateLimiter limiter = new ApiRateLimiter();
+        limiter.setOperatorNamespace("baaas-dfs");
+
+        //Then
+        assertThat(limiter.getCustomer(url("/apis/operator.baaas/v1alpha1/namespaces/" + CUSTOMER_NS + "/decisionversions/some-decision-1")), is(CUSTOMER));
+        assertThat(limiter.getCustomer(url("/apis/operator.baaas/v1alpha1/namespaces/baaas-dfs/decisionrequests")), nullValue());
+        assertThat(limiter.getCustomer(url("/apis/operator.baaas/v1alpha1/decisions")), nullValue());
+        assertThat(limiter.getCustomer(url("/api/v1/namespaces/default/secrets")), nullValue());
+    }
+
+    @Test
+    void testStats() throws Exception {
+        //Given
+        ApiRateLimiter limiter = new ApiRateLimiter();
+        limiter.clock = () -> 0;
+
+        //When
+        limiter.acquire(CUSTOMER, 1000, 1);
+        limiter.acquire(CUSTOMER, 1000, 1);
+        limiter.acquire(ApiRateLimiter.GLOBAL, 0, 1);
+
+        //Then
+        assertThat(limiter.getStats().get(CUSTOMER).get("requests"), is(2L));
+        assertThat(limiter.getStats().get(CUSTOMER).get("throttled"), is(1L));
+        assertThat(limiter.getStats().get(CUSTOMER).get("maxWaitMs"), is(1L));
+        // Disabled
+        assertThat(limiter.getStats().containsKey(ApiRateLimiter.GLOBAL), is(false));
+    }
+
+    private static HttpUrl url(String path) {
+        return HttpUrl.get("https://kubernetes.default.svc" + path);
+    }
+}
@@ -26,7 +26,7 @@ import io.quarkus.test.Mock;
 @Singleton
 public class ClientProducerMock implements ClientProducer {
 
-    private OpenShiftServer mockOpenshiftServer;
+    private OpenShiftServerPatch mockOpenshiftServer;
 
     private OpenShiftClient client;
 
@@ -42,6 +42,16 @@ public class ClientProducerMock implements ClientProducer {
         return mockOpenshiftServer;
     }
 
+    @Produces
+    ApiCallRecorder getApiCallRecorder() {
+        return mockOpenshiftServer.getApiCallRecorder();
+    }
+
+    @Produces
+    FaultInjector getFaultInjector() {
+        return mockOpenshiftServer.getFaultInjector();
+    }
+
     @Override
     @Produces
     public OpenShiftClient produceClient() {
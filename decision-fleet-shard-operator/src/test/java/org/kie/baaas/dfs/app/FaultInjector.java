@@ -0,0 +1,193 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.app;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.kie.baaas.dfs.simulation.LatencyDistribution;
+
+import io.fabric8.kubernetes.api.model.Status;
+import io.fabric8.kubernetes.api.model.StatusBuilder;
+import io.fabric8.kubernetes.client.utils.Serialization;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Makes the mock server behave like a loaded API server: adds latency per verb and fails a share of the requests with
+ * 409 Conflict on updates, 410 Gone on watches and 429 Too Many Requests on everything else.
+ * <p>
+ * Nothing is injected by default. Every setting can be given as a system property, e.g.
+ * {@code -Dbaaas.faults.latency.list=lognormal:40ms,0.5 -Dbaaas.faults.conflict-rate=0.05}, or changed at runtime on
+ * the instance produced by {@link ClientProducerMock}.
+ */
+public class FaultInjector {
+
+    public enum Fault {
+        CONFLICT(409, "Conflict"),
+        GONE(410, "Expired"),
+        THROTTLED(429, "TooManyRequests");
+
+        private final int code;
+        private final String reason;
+
+        Fault(int code, String reason) {
+            this.code = code;
+            this.reason = reason;
+        }
+
+        public int getCode() {
+            return code;
+        }
+    }
+
+    private static final String PREFIX = "baaas.faults.";
+
+    private final Map<ApiCalls.Verb, LatencyDistribution> latencies = new EnumMap<>(ApiCalls.Verb.class);
+    private final Map<Fault, AtomicLong> injected = new EnumMap<>(Fault.class);
+    private volatile double conflictRate;
+    private volatile double goneRate;
+    private volatile double throttleRate;
+    private volatile Duration retryAfter = Duration.ofSeconds(1);
+    private Random random;
+
+    public FaultInjector() {
+        for (Fault fault : Fault.values()) {
+            injected.put(fault, new AtomicLong());
+        }
+        reset();
+    }
+
+    public static FaultInjector fromSystemProperties() {
+        FaultInjector injector = new FaultInjector();
+        for (ApiCalls.Verb verb : ApiCalls.Verb.values()) {
+            String latency = System.getProperty(PREFIX + "latency." + verb.name().toLowerCase(Locale.ROOT));
+            if (latency != null) {
+                injector.setLatency(verb, LatencyDistribution.parse(latency));
+            }
+        }
+        injector.conflictRate = Double.parseDouble(System.getProperty(PREFIX + "conflict-rate", "0"));
+        injector.goneRate = Double.parseDouble(System.getProperty(PREFIX + "gone-rate", "0"));
+        injector.throttleRate = Double.parseDouble(System.getProperty(PREFIX + "throttle-rate", "0"));
+        injector.random = new Random(Long.getLong(PREFIX + "seed", 42));
+        return injector;
+    }
+
+    /**
+     * Removes every latency and fault, e.g. after a test that enabled some.
+     */
+    public synchronized FaultInjector reset() {
+        for (ApiCalls.Verb verb : ApiCalls.Verb.values()) {
+            latencies.put(verb, LatencyDistribution.NONE);
+        }
+        conflictRate = 0;
+        goneRate = 0;
+        throttleRate = 0;
+        random = new Random(42);
+        injected.values().forEach(count -> count.set(0));
+        return this;
+    }
+
+    public synchronized FaultInjector setLatency(ApiCalls.Verb verb, LatencyDistribution latency) {
+        latencies.put(verb, latency);
+        return this;
+    }
+
+    /**
+     * Share of updates and patches answered with 409 Conflict, as if another writer had changed the resource.
+     */
+    public FaultInjector setConflictRate(double conflictRate) {
+        this.conflictRate = conflictRate;
+        return this;
+    }
+
+    /**
+     * Share of watches answered with 410 Gone, as if their resourceVersion had been compacted.
+     */
+    public FaultInjector setGoneRate(double goneRate) {
+        this.goneRate = goneRate;
+        return this;
+    }
+
+    /**
+     * Share of the remaining requests answered with 429 Too Many Requests.
+     */
+    public FaultInjector setThrottleRate(double throttleRate) {
+        this.throttleRate = throttleRate;
+        return this;
+    }
+
+    public FaultInjector setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+        return this;
+    }
+
+    public long getInjected(Fault fault) {
+        return injected.get(fault).get();
+    }
+
+    /**
+     * Delays the request by its verb's latency and returns the fault to answer it with, if any.
+     *
+     * @return the response to send instead of the mock server's, or null to let the request through
+     */
+    MockResponse intercept(RecordedRequest request) {
+        ApiCalls.Verb verb = ApiCallRecorder.toApiCall(request).getVerb();
+        Duration latency;
+        double sample;
+        synchronized (this) {
+            latency = latencies.get(verb).sample(random);
+            sample = random.nextDouble();
+        }
+        sleep(latency);
+        if (verb == ApiCalls.Verb.WATCH) {
+            return sample < goneRate ? fail(Fault.GONE) : null;
+        }
+        if ((verb == ApiCalls.Verb.UPDATE || verb == ApiCalls.Verb.PATCH) && sample < conflictRate) {
+            return fail(Fault.CONFLICT);
+        }
+        if (sample < throttleRate) {
+            return fail(Fault.THROTTLED).setHeader("Retry-After", Math.max(1, retryAfter.getSeconds()));
+        }
+        return null;
+    }
+
+    private MockResponse fail(Fault fault) {
+        injected.get(fault).incrementAndGet();
+        Status status = new StatusBuilder()
+                .withStatus("Failure")
+                .withCode(fault.code)
+                .withReason(fault.reason)
+                .withMessage("Injected by the test harness")
+                .build();
+        return new MockResponse().setResponseCode(fault.code).setBody(Serialization.asJson(status));
+    }
+
+    private static void sleep(Duration latency) {
+        if (latency.isZero() || latency.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
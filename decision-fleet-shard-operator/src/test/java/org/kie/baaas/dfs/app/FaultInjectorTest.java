@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.app;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.simulation.LatencyDistribution;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.quarkus.test.junit.QuarkusTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@QuarkusTest
+class FaultInjectorTest {
+
+    private static final String NAMESPACE = "faults";
+    private static final String NAME = "some-config";
+
+    @Inject
+    KubernetesClient client;
+
+    @Inject
+    FaultInjector faultInjector;
+
+    @BeforeEach
+    void createConfigMap() {
+        client.configMaps().inNamespace(NAMESPACE).createOrReplace(new ConfigMapBuilder()
+                .withMetadata(new ObjectMetaBuilder().withName(NAME).withNamespace(NAMESPACE).build())
+                .build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        faultInjector.reset();
+        client.configMaps().inNamespace(NAMESPACE).delete();
+    }
+
+    @Test
+    void testLatency() {
+        //Given
+        faultInjector.setLatency(ApiCalls.Verb.GET, LatencyDistribution.fixed(Duration.ofMillis(200)));
+
+        //When
+        Instant start = Instant.now();
+        client.configMaps().inNamespace(NAMESPACE).withName(NAME).get();
+
+        //Then
+        assertThat(Duration.between(start, Instant.now()).toMillis(), greaterThanOrEqualTo(200L));
+    }
+
+    @Test
+    void testConflict() {
+        //Given
+        faultInjector.setConflictRate(1);
+        ConfigMap configMap = client.configMaps().inNamespace(NAMESPACE).withName(NAME).get();
+
+        //When
+        KubernetesClientException e = assertThrows(KubernetesClientException.class,
+                () -> client.configMaps().inNamespace(NAMESPACE).withName(NAME).replace(configMap));
+
+        //Then
+        assertThat(e.getCode(), is(409));
+        assertThat(faultInjector.getInjected(FaultInjector.Fault.CONFLICT), is(1L));
+    }
+
+    @Test
+    void testThrottled() {
+        //Given
+        faultInjector.setThrottleRate(1);
+
+        //When
+        KubernetesClientException e = assertThrows(KubernetesClientException.class,
+                () -> client.configMaps().inNamespace(NAMESPACE).withName(NAME).get());
+
+        //Then
+        assertThat(e.getCode(), is(429));
+        assertThat(faultInjector.getInjected(FaultInjector.Fault.THROTTLED), is(1L));
+    }
+}
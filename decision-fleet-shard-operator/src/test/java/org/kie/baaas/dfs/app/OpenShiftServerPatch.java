@@ -16,6 +16,7 @@ package org.kie.baaas.dfs.app;
 
 import java.util.HashMap;
 import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.server.mock.KubernetesCrudDispatcher;
@@ -26,7 +27,9 @@ import io.fabric8.openshift.client.NamespacedOpenShiftClient;
 import io.fabric8.openshift.client.server.mock.OpenShiftMockServer;
 import io.fabric8.openshift.client.server.mock.OpenShiftServer;
 
+import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 
 // See https://issues.redhat.com/browse/BAAAS-250
 public class OpenShiftServerPatch extends OpenShiftServer {
@@ -38,6 +41,12 @@ public class OpenShiftServerPatch extends OpenShiftServer {
     // server.
     private boolean crudMode;
 
+    private final AtomicInteger watchRequests = new AtomicInteger();
+
+    private final ApiCallRecorder apiCallRecorder = new ApiCallRecorder();
+
+    private final FaultInjector faultInjector = FaultInjector.fromSystemProperties();
+
     public OpenShiftServerPatch(boolean https, boolean crudMode) {
         super(https, crudMode);
         this.https = https;
@@ -47,7 +56,7 @@ public class OpenShiftServerPatch extends OpenShiftServer {
     @Override
     public void before() {
         mock = crudMode
-                ? new OpenShiftMockServer(new Context(), new MockWebServer(), new HashMap<ServerRequest, Queue<ServerResponse>>(), new KubernetesCrudDispatcher(), this.https)
+                ? new OpenShiftMockServer(new Context(), new MockWebServer(), new HashMap<ServerRequest, Queue<ServerResponse>>(), new WatchCountingDispatcher(), this.https)
                 : new OpenShiftMockServer(https);
         mock.init();
         this.client = mock.createOpenShiftClient();
@@ -59,6 +68,22 @@ public class OpenShiftServerPatch extends OpenShiftServer {
         client.close();
     }
 
+    /**
+     * Number of watches opened against the server since it started. The operator does not close its watches, so it
+     * is also the number of open ones.
+     */
+    public int getWatchRequestCount() {
+        return watchRequests.get();
+    }
+
+    public ApiCallRecorder getApiCallRecorder() {
+        return apiCallRecorder;
+    }
+
+    public FaultInjector getFaultInjector() {
+        return faultInjector;
+    }
+
     @Override
     public KubernetesClient getKubernetesClient() {
         return client;
@@ -68,4 +93,17 @@ public class OpenShiftServerPatch extends OpenShiftServer {
     public NamespacedOpenShiftClient getOpenshiftClient() {
         return client;
     }
+
+    private class WatchCountingDispatcher extends KubernetesCrudDispatcher {
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            if ("true".equals(request.getRequestUrl().queryParameter("watch"))) {
+                watchRequests.incrementAndGet();
+            }
+            apiCallRecorder.onRequest(request);
+            MockResponse fault = faultInjector.intercept(request);
+            return fault != null ? fault : super.dispatch(request);
+        }
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.DecisionVersionBuilder;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.javaoperatorsdk.operator.processing.event.EventSource;
+import io.javaoperatorsdk.operator.processing.event.EventSourceManager;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.kie.baaas.dfs.controller.AbstractControllerTest.CUSTOMER;
+import static org.kie.baaas.dfs.controller.AbstractControllerTest.CUSTOMER_NS;
+import static org.kie.baaas.dfs.controller.DecisionLabels.CUSTOMER_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.DECISION_LABEL;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class DecisionEventSourceRegistryTest {
+
+    private final KubernetesClient client = mock(KubernetesClient.class, RETURNS_DEEP_STUBS);
+
+    private final EventSourceManager eventSourceManager = mock(EventSourceManager.class);
+
+    private final List<DecisionEventSource> watches = new CopyOnWriteArrayList<>();
+
+    private final DecisionEventSourceRegistry registry = new DecisionEventSourceRegistry(eventSourceManager, version -> {
+        DecisionEventSource eventSource = DecisionEventSource.create(client, version, new WatchEventRecorder());
+        watches.add(eventSource);
+        return eventSource;
+    });
+
+    @Test
+    void testSharedPerDecision() {
+        //Given
+        DecisionVersion first = version("some-decision", "1");
+        DecisionVersion second = version("some-decision", "2");
+        DecisionVersion other = version("other-decision", "1");
+
+        //When
+        registry.register(first);
+        registry.register(second);
+        registry.register(first);
+        registry.register(other);
+
+        //Then
+        assertThat(watches.size(), is(2));
+        assertThat(registry.size(), is(2));
+        verify(eventSourceManager, times(1)).registerEventSource(eq("decision-event-source-customer1/some-decision"), any(EventSource.class));
+    }
+
+    @Test
+    void testClosedWithLastVersion() {
+        //Given
+        DecisionVersion first = version("some-decision", "1");
+        DecisionVersion second = version("some-decision", "2");
+        registry.register(first);
+        registry.register(second);
+
+        //When
+        registry.deregister(first);
+
+        //Then
+        verify(eventSourceManager, never()).deRegisterEventSource(anyString());
+        registry.deregister(second);
+        verify(eventSourceManager, times(1)).deRegisterEventSource("decision-event-source-customer1/some-decision");
+        assertThat(registry.size(), is(0));
+        assertThat(watches.get(0).isClosed(), is(true));
+    }
+
+    @Test
+    void testKeyedByCustomerAndDecision() {
+        //Given
+        DecisionVersion first = version("a-b", "c", "1");
+        DecisionVersion second = version("a", "b-c", "1");
+
+        //When
+        registry.register(first);
+        registry.register(second);
+
+        //Then
+        assertThat(watches.size(), is(2));
+        assertThat(registry.size(), is(2));
+        verify(eventSourceManager, times(1)).registerEventSource(eq("decision-event-source-a-b/c"), any(EventSource.class));
+        verify(eventSourceManager, times(1)).registerEventSource(eq("decision-event-source-a/b-c"), any(EventSource.class));
+    }
+
+    @Test
+    void testClosedWhenSdkRemovesLastVersion() {
+        //Given
+        DecisionVersion first = version("some-decision", "1");
+        registry.register(first);
+        DecisionEventSource eventSource = watches.get(0);
+
+        //When
+        eventSource.eventSourceDeRegisteredForResource(first.getMetadata().getUid());
+
+        //Then
+        assertThat(eventSource.isClosed(), is(true));
+        assertThat(registry.size(), is(0));
+
+        //When
+        DecisionVersion second = version("some-decision", "2");
+        registry.register(second);
+
+        //Then
+        verify(eventSourceManager, times(1)).deRegisterEventSource("decision-event-source-customer1/some-decision");
+        verify(eventSourceManager, times(2)).registerEventSource(eq("decision-event-source-customer1/some-decision"), any(EventSource.class));
+        assertThat(watches.size(), is(2));
+        assertThat(watches.get(1).hasVersion(second.getMetadata().getUid()), is(true));
+    }
+
+    @Test
+    void testVersionTrackedBeforeRegisteredWithSdk() {
+        //Given
+        DecisionVersion version = version("some-decision", "1");
+        List<Boolean> tracked = new ArrayList<>();
+        doAnswer(invocation -> tracked.add(((DecisionEventSource) invocation.getArgument(1)).hasVersion(version.getMetadata().getUid())))
+                .when(eventSourceManager).registerEventSource(anyString(), any(EventSource.class));
+
+        //When
+        registry.register(version);
+
+        //Then
+        assertThat(tracked, contains(true));
+    }
+
+    @Test
+    void testSdkClosingDuringDeregistration() {
+        //Given
+        DecisionVersion version = version("some-decision", "1");
+        registry.register(version);
+        DecisionEventSource eventSource = watches.get(0);
+        // As the SDK does, the source is called back while the SDK holds its lock
+        doAnswer(invocation -> {
+            eventSource.eventSourceDeRegisteredForResource(invocation.getArgument(1));
+            return null;
+        }).when(eventSourceManager).deRegisterCustomResourceFromEventSource(anyString(), anyString());
+
+        //When
+        registry.deregister(version);
+
+        //Then
+        assertThat(eventSource.isClosed(), is(true));
+        assertThat(registry.size(), is(0));
+        verify(eventSourceManager, times(1)).deRegisterEventSource("decision-event-source-customer1/some-decision");
+    }
+
+    @Test
+    void testConcurrentRegistration() throws Exception {
+        //Given
+        DecisionVersion version = version("some-decision", "1");
+        ExecutorService reconciles = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+
+        //When
+        try {
+            for (int i = 0; i < 8; i++) {
+                calls.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    registry.register(version);
+                }, reconciles));
+            }
+            start.countDown();
+            CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        } finally {
+            reconciles.shutdownNow();
+        }
+
+        //Then
+        assertThat(watches.size(), is(1));
+    }
+
+    private static DecisionVersion version(String decision, String version) {
+        return version(CUSTOMER, decision, version);
+    }
+
+    private static DecisionVersion version(String customer, String decision, String version) {
+        return new DecisionVersionBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName(decision + "-" + version)
+                        .withNamespace(CUSTOMER_NS)
+                        .withUid(UUID.randomUUID().toString())
+                        .addToLabels(CUSTOMER_LABEL, customer)
+                        .addToLabels(DECISION_LABEL, decision)
+                        .build())
+                .build();
+    }
+}
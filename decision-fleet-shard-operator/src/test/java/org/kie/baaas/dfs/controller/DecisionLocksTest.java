@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.kie.baaas.dfs.controller.AbstractControllerTest.CUSTOMER_NS;
+
+class DecisionLocksTest {
+
+    @Test
+    void testSameDecisionIsSerialized() throws Exception {
+        //Given
+        DecisionLocks locks = newLocks(16);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> locks.withLock(CUSTOMER_NS, "some-decision", () -> {
+            holding.countDown();
+            return await(release);
+        }));
+        holding.await(5, TimeUnit.SECONDS);
+
+        //When
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> locks.withLock(CUSTOMER_NS, "some-decision", () -> true));
+        Thread.sleep(100);
+
+        //Then
+        assertThat(second.isDone(), is(false));
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS), is(true));
+        assertThat(second.get(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    void testStripes() {
+        //Given
+        DecisionLocks locks = newLocks(16);
+
+        //Then
+        assertThat(locks.getLock(CUSTOMER_NS, "some-decision"), sameInstance(locks.getLock(CUSTOMER_NS, "some-decision")));
+        assertThat(locks.getLock(CUSTOMER_NS, "some-decision"), not(sameInstance(locks.getLock("baaas-customer2", "some-decision"))));
+    }
+
+    private static DecisionLocks newLocks(int stripes) {
+        DecisionLocks locks = new DecisionLocks();
+        locks.stripes = stripes;
+        locks.init();
+        return locks;
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
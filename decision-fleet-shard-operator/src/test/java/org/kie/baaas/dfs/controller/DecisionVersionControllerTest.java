@@ -1,31 +1,46 @@
 package org.kie.baaas.dfs.controller;
 
+import java.net.URI;
+import java.util.List;
 import java.util.UUID;
 
 import javax.inject.Inject;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionBuilder;
+import org.kie.baaas.dfs.api.DecisionSpec;
 import org.kie.baaas.dfs.api.DecisionVersion;
 import org.kie.baaas.dfs.api.DecisionVersionBuilder;
+import org.kie.baaas.dfs.api.DecisionVersionSpec;
 import org.kie.baaas.dfs.api.DecisionVersionStatus;
+import org.kie.baaas.dfs.model.NetworkResourceEvent;
 import org.kie.baaas.dfs.model.PipelineRun;
+import org.mockito.ArgumentCaptor;
 
 import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.client.Watcher;
+import io.javaoperatorsdk.operator.api.Context;
 import io.javaoperatorsdk.operator.api.DeleteControl;
+import io.javaoperatorsdk.operator.processing.event.EventList;
+import io.javaoperatorsdk.operator.processing.event.EventSource;
 import io.javaoperatorsdk.operator.processing.event.EventSourceManager;
 import io.quarkus.test.junit.QuarkusTest;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
 import static org.kie.baaas.dfs.controller.DecisionLabels.CUSTOMER_LABEL;
 import static org.kie.baaas.dfs.controller.DecisionLabels.DECISION_LABEL;
 import static org.kie.baaas.dfs.controller.DecisionLabels.MANAGED_BY_LABEL;
 import static org.kie.baaas.dfs.controller.DecisionLabels.OPERATOR_NAME;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @QuarkusTest
 class DecisionVersionControllerTest extends AbstractControllerTest {
@@ -33,6 +48,9 @@ class DecisionVersionControllerTest extends AbstractControllerTest {
     @Inject
     DecisionVersionController versionController;
 
+    @Inject
+    DecisionController decisionController;
+
     EventSourceManager eventSourceManager = mock(EventSourceManager.class);
 
     @BeforeEach
@@ -65,6 +83,75 @@ class DecisionVersionControllerTest extends AbstractControllerTest {
 
         //Then
         assertThat(client.customResources(PipelineRun.class).inNamespace(CONTROLLER_NS).list().getItems(), empty());
-        verify(eventSourceManager, times(1)).deRegisterCustomResourceFromEventSource("decision-event-source-" + versionName, version.getMetadata().getUid());
+        verify(eventSourceManager, times(1)).deRegisterCustomResourceFromEventSource("decision-event-source-" + CUSTOMER + "/some-decision", version.getMetadata().getUid());
+    }
+
+    @Test
+    void testDeleteReconciledVersion() {
+        //Given
+        Decision decision = new DecisionBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName("some-decision")
+                        .withNamespace(CUSTOMER_NS)
+                        .addToLabels(CUSTOMER_LABEL, CUSTOMER)
+                        .build())
+                .withSpec(new DecisionSpec()
+                        .setDefinition(new DecisionVersionSpec()
+                                .setSource(URI.create("somesource"))
+                                .setVersion("1")))
+                .build();
+        decisionController.createOrUpdateResource(decision, null);
+        DecisionVersion version = client.customResources(DecisionVersion.class).inNamespace(CUSTOMER_NS).withName("some-decision-1").get();
+        version.getMetadata().setUid(UUID.randomUUID().toString());
+        versionController.createOrUpdateResource(version, null);
+        ArgumentCaptor<EventSource> registered = ArgumentCaptor.forClass(EventSource.class);
+        verify(eventSourceManager).registerEventSource(eq("decision-event-source-" + CUSTOMER + "/some-decision"), registered.capture());
+        DecisionEventSource eventSource = (DecisionEventSource) registered.getValue();
+        assertThat(eventSource.hasVersion(version.getMetadata().getUid()), is(true));
+
+        //When
+        versionController.deleteResource(version, null);
+
+        //Then
+        assertThat(eventSource.hasVersion(version.getMetadata().getUid()), is(false));
+        assertThat(eventSource.isClosed(), is(true));
+        verify(eventSourceManager, times(1)).deRegisterEventSource("decision-event-source-" + CUSTOMER + "/some-decision");
+    }
+
+    @Test
+    void testPriorityOfVersionWithoutStatus() {
+        //Given
+        DecisionVersion version = new DecisionVersionBuilder()
+                .withMetadata(new ObjectMetaBuilder().withName("some-decision-1").withNamespace(CUSTOMER_NS).build())
+                .build();
+        version.setStatus(null);
+
+        //When
+        ReconcileScheduler.Priority priority = DecisionVersionController.getPriority(version, null);
+
+        //Then
+        assertThat(priority, equalTo(ReconcileScheduler.Priority.NORMAL));
+        version.setStatus(new DecisionVersionStatus().setReady(Boolean.TRUE));
+        assertThat(DecisionVersionController.getPriority(version, null), equalTo(ReconcileScheduler.Priority.LOW));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPriorityOfDriftOnReadyVersion() {
+        //Given
+        DecisionVersion version = new DecisionVersionBuilder()
+                .withMetadata(new ObjectMetaBuilder().withName("some-decision-1").withNamespace(CUSTOMER_NS).withUid(UUID.randomUUID().toString()).build())
+                .build();
+        version.setStatus(new DecisionVersionStatus().setReady(Boolean.TRUE));
+        Context<DecisionVersion> context = mock(Context.class);
+        EventList events = mock(EventList.class);
+        when(context.getEvents()).thenReturn(events);
+        when(events.getList()).thenReturn(List.of(new NetworkResourceEvent(Watcher.Action.DELETED, version.getMetadata().getUid(), mock(EventSource.class))));
+
+        //When
+        ReconcileScheduler.Priority priority = DecisionVersionController.getPriority(version, context);
+
+        //Then
+        assertThat(priority, equalTo(ReconcileScheduler.Priority.NORMAL));
     }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.net.URI;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.DecisionVersionBuilder;
+import org.kie.baaas.dfs.api.DecisionVersionSpec;
+import org.kie.baaas.dfs.api.DecisionVersionStatus;
+import org.kie.baaas.dfs.model.DecisionVersionEvent;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watcher.Action;
+import io.javaoperatorsdk.operator.processing.event.EventHandler;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class DecisionVersionEventSourceTest {
+
+    private final EventHandler handler = mock(EventHandler.class);
+
+    private final DecisionVersionEventSource eventSource = new DecisionVersionEventSource(mock(KubernetesClient.class), new WatchEventRecorder());
+
+    private final String decisionUid = UUID.randomUUID().toString();
+
+    private final String uid = UUID.randomUUID().toString();
+
+    @BeforeEach
+    void init() {
+        eventSource.setEventHandler(handler);
+    }
+
+    @Test
+    void testSpecEditReconcilesDecision() {
+        //Given
+        eventSource.eventReceived(Action.ADDED, version(1L, "1"));
+
+        //When
+        eventSource.eventReceived(Action.MODIFIED, version(2L, "2"));
+
+        //Then
+        // The Decision reverts the edit to its own definition
+        verify(handler, times(2)).handleEvent(argThat(e -> e instanceof DecisionVersionEvent && e.getRelatedCustomResourceUid().equals(decisionUid)));
+    }
+
+    @Test
+    void testUnchangedGenerationDropped() {
+        //Given
+        eventSource.eventReceived(Action.ADDED, version(1L, "1"));
+
+        //When
+        eventSource.eventReceived(Action.MODIFIED, version(1L, "1"));
+
+        //Then
+        verify(handler, times(1)).handleEvent(any());
+    }
+
+    private DecisionVersion version(Long generation, String definition) {
+        return new DecisionVersionBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName("some-decision-1")
+                        .withUid(uid)
+                        .withGeneration(generation)
+                        .addToOwnerReferences(new OwnerReferenceBuilder().withUid(decisionUid).build())
+                        .build())
+                .withSpec(new DecisionVersionSpec()
+                        .setSource(URI.create("some-source-" + definition))
+                        .setVersion("1"))
+                .withStatus(new DecisionVersionStatus().setReady(Boolean.FALSE))
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.javaoperatorsdk.operator.processing.event.Event;
+import io.javaoperatorsdk.operator.processing.event.EventHandler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventCoalescerTest {
+
+    private final List<Event> handled = new CopyOnWriteArrayList<>();
+
+    private final EventHandler handler = mock(EventHandler.class);
+
+    private EventCoalescer coalescer;
+
+    @BeforeEach
+    void recordHandledEvents() {
+        doAnswer(invocation -> handled.add(invocation.getArgument(0))).when(handler).handleEvent(any());
+    }
+
+    @AfterEach
+    void close() {
+        coalescer.close();
+    }
+
+    @Test
+    void testDisabled() {
+        //Given
+        coalescer = newCoalescer(0, 10);
+        Event first = event("uid-1");
+        Event second = event("uid-1");
+
+        //When
+        coalescer.handleEvent(first, handler);
+        coalescer.handleEvent(second, handler);
+
+        //Then
+        assertThat(coalescer.isEnabled(), is(false));
+        assertThat(handled, contains(first, second));
+    }
+
+    @Test
+    void testKeepLatestPerOwner() throws InterruptedException {
+        //Given
+        coalescer = newCoalescer(200, 10);
+        Event other = event("uid-2");
+        Event latest = event("uid-1");
+
+        //When
+        for (int i = 0; i < 10; i++) {
+            coalescer.handleEvent(event("uid-1"), handler);
+        }
+        coalescer.handleEvent(other, handler);
+        coalescer.handleEvent(latest, handler);
+        assertThat(handled.isEmpty(), is(true));
+        waitForHandled(2);
+
+        //Then
+        assertThat(handled, containsInAnyOrder(latest, other));
+        assertThat(coalescer.getCoalesced(), is(10L));
+        assertThat(coalescer.getPending(), is(0));
+    }
+
+    @Test
+    void testBoundedMailbox() throws InterruptedException {
+        //Given
+        coalescer = newCoalescer(200, 1);
+        Event pending = event("uid-1");
+        Event overflow = event("uid-2");
+
+        //When
+        coalescer.handleEvent(pending, handler);
+        coalescer.handleEvent(overflow, handler);
+
+        //Then
+        assertThat(handled, contains(overflow));
+        waitForHandled(2);
+        assertThat(handled, contains(overflow, pending));
+    }
+
+    private static EventCoalescer newCoalescer(long windowMs, int maxPending) {
+        EventCoalescer coalescer = new EventCoalescer();
+        coalescer.windowMs = windowMs;
+        coalescer.maxPending = maxPending;
+        coalescer.init();
+        return coalescer;
+    }
+
+    private static Event event(String uid) {
+        Event event = mock(Event.class);
+        when(event.getRelatedCustomResourceUid()).thenReturn(uid);
+        return event;
+    }
+
+    private void waitForHandled(int expected) throws InterruptedException {
+        for (int i = 0; i < 200 && handled.size() < expected; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
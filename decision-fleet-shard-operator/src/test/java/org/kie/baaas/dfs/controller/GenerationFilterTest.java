@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.DecisionVersionBuilder;
+import org.kie.baaas.dfs.model.ResyncEvent;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.javaoperatorsdk.operator.api.Context;
+import io.javaoperatorsdk.operator.api.RetryInfo;
+import io.javaoperatorsdk.operator.api.UpdateControl;
+import io.javaoperatorsdk.operator.processing.event.Event;
+import io.javaoperatorsdk.operator.processing.event.EventList;
+import io.javaoperatorsdk.operator.processing.event.internal.CustomResourceEvent;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GenerationFilterTest {
+
+    private final GenerationFilter generations = new GenerationFilter();
+
+    private DecisionVersion version;
+
+    @BeforeEach
+    void init() {
+        version = new DecisionVersionBuilder()
+                .withMetadata(new ObjectMetaBuilder().withName("some-version").withUid(UUID.randomUUID().toString()).withGeneration(2L).build())
+                .build();
+    }
+
+    @Test
+    void testSkipsOwnEventsOfObservedGeneration() {
+        //Given
+        generations.reconciled(version, UpdateControl.noUpdate());
+
+        //When
+        boolean unchanged = generations.isUnchanged(version, 2L, context(mock(CustomResourceEvent.class)));
+
+        //Then
+        assertThat(unchanged, is(true));
+        assertThat(generations.getStats(), equalTo(Map.of("DecisionVersion", 1L)));
+    }
+
+    @Test
+    void testReconcilesNewGeneration() {
+        generations.reconciled(version, UpdateControl.noUpdate());
+
+        assertThat(generations.isUnchanged(version, 1L, context(mock(CustomResourceEvent.class))), is(false));
+        assertThat(generations.isUnchanged(version, null, context(mock(CustomResourceEvent.class))), is(false));
+    }
+
+    @Test
+    void testReconcilesFirstEventAfterStart() {
+        // Observed by another replica, or before a restart
+        assertThat(generations.isUnchanged(version, 2L, context(mock(CustomResourceEvent.class))), is(false));
+
+        generations.reconciled(version, UpdateControl.noUpdate());
+        generations.forget(version);
+
+        assertThat(generations.isUnchanged(version, 2L, context(mock(CustomResourceEvent.class))), is(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReconcilesOtherEvents() {
+        //Given
+        generations.reconciled(version, UpdateControl.noUpdate());
+        Context<DecisionVersion> retrying = context(mock(CustomResourceEvent.class));
+        when(retrying.getRetryInfo()).thenReturn(Optional.of(mock(RetryInfo.class)));
+
+        //Then
+        assertThat(generations.isUnchanged(version, 2L, context(mock(CustomResourceEvent.class), mock(Event.class))), is(false));
+        assertThat(generations.isUnchanged(version, 2L, context(new ResyncEvent("uid", null))), is(false));
+        assertThat(generations.isUnchanged(version, 2L, retrying), is(false));
+        assertThat(generations.isUnchanged(version, 2L, null), is(false));
+        assertThat(generations.getStats(), is(anEmptyMap()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Context<DecisionVersion> context(Event... events) {
+        Context<DecisionVersion> context = mock(Context.class);
+        EventList eventList = mock(EventList.class);
+        when(context.getEvents()).thenReturn(eventList);
+        when(context.getRetryInfo()).thenReturn(Optional.empty());
+        when(eventList.getList()).thenReturn(List.of(events));
+        return context;
+    }
+}
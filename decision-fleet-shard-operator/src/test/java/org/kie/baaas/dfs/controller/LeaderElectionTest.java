@@ -0,0 +1,196 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.openshift.client.server.mock.OpenShiftServer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LeaderElectionTest {
+
+    private final OpenShiftServer server = new OpenShiftServer(false, true);
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private final List<LeaderElection> started = new ArrayList<>();
+
+    @BeforeEach
+    void startServer() {
+        server.before();
+    }
+
+    @AfterEach
+    void stopServer() {
+        started.forEach(LeaderElection::close);
+        server.after();
+    }
+
+    @Test
+    void testOneLeader() {
+        //Given
+        LeaderElection first = newLeaderElection("dfs-0");
+        LeaderElection second = newLeaderElection("dfs-1");
+
+        //When
+        first.tryAcquireOrRenew();
+        second.tryAcquireOrRenew();
+
+        //Then
+        assertThat(first.isLeading(), is(true));
+        assertThat(second.isLeading(), is(false));
+    }
+
+    @Test
+    void testStandbyTakesOverExpiredLease() {
+        //Given
+        LeaderElection first = newLeaderElection("dfs-0");
+        LeaderElection second = newLeaderElection("dfs-1");
+        AtomicInteger changes = new AtomicInteger();
+        second.addListener(changes::incrementAndGet);
+        first.tryAcquireOrRenew();
+        second.tryAcquireOrRenew();
+
+        //When
+        now.addAndGet(15_000);
+        second.tryAcquireOrRenew();
+
+        //Then
+        assertThat(second.isLeading(), is(true));
+        assertThat(changes.get(), is(1));
+        Lease lease = server.getOpenshiftClient().leases().inNamespace(server.getOpenshiftClient().getNamespace()).withName(LeaderElection.LEASE_NAME).get();
+        assertThat(lease.getSpec().getHolderIdentity(), is("dfs-1"));
+        assertThat(lease.getSpec().getLeaseTransitions(), is(1));
+        first.tryAcquireOrRenew();
+        assertThat(first.isLeading(), is(false));
+    }
+
+    @Test
+    void testLeaderStepsDownAfterRenewDeadline() {
+        //Given
+        LeaderElection first = newLeaderElection("dfs-0");
+        AtomicInteger changes = new AtomicInteger();
+        first.addListener(changes::incrementAndGet);
+        first.tryAcquireOrRenew();
+
+        //When
+        now.addAndGet(10_000);
+
+        //Then
+        assertThat(first.isLeading(), is(false));
+        first.tryAcquireOrRenew();
+        assertThat(first.isLeading(), is(true));
+        // Stepped down, then leading again
+        assertThat(changes.get(), is(3));
+    }
+
+    @Test
+    void testExpiryMeasuredWithLocalClock() {
+        //Given
+        OpenShiftClient client = server.getOpenshiftClient();
+        client.leases().inNamespace(client.getNamespace()).create(new LeaseBuilder()
+                .withNewMetadata()
+                .withName(LeaderElection.LEASE_NAME)
+                .addToAnnotations(ShardManager.RENEWED_ANNOTATION, String.valueOf(now.get() + 3_600_000))
+                .endMetadata()
+                .withNewSpec()
+                .withHolderIdentity("dfs-9")
+                .withLeaseDurationSeconds(15)
+                .endSpec()
+                .build());
+        LeaderElection standby = newLeaderElection("dfs-1");
+        standby.tryAcquireOrRenew();
+        assertThat(standby.isLeading(), is(false));
+
+        //When
+        // The holder's clock is an hour ahead, but the Lease did not change
+        now.addAndGet(15_000);
+        standby.tryAcquireOrRenew();
+
+        //Then
+        assertThat(standby.isLeading(), is(true));
+    }
+
+    @Test
+    void testRenewDeadlineShorterThanLease() {
+        assertThrows(IllegalStateException.class, () -> LeaderElection.checkRenewDeadline(15, 15));
+        LeaderElection.checkRenewDeadline(10, 15);
+    }
+
+    @Test
+    void testReleasedOnClose() {
+        //Given
+        LeaderElection first = newLeaderElection("dfs-0");
+        LeaderElection second = newLeaderElection("dfs-1");
+        first.tryAcquireOrRenew();
+
+        //When
+        first.close();
+        second.tryAcquireOrRenew();
+
+        //Then
+        assertThat(second.isLeading(), is(true));
+    }
+
+    @Test
+    void testDemotedLeaderKeepsLeaseOnClose() {
+        //Given
+        LeaderElection first = newLeaderElection("dfs-0");
+        LeaderElection second = newLeaderElection("dfs-1");
+        first.tryAcquireOrRenew();
+        second.tryAcquireOrRenew();
+        now.addAndGet(15_000);
+        second.tryAcquireOrRenew();
+
+        //When
+        first.close();
+
+        //Then
+        Lease lease = server.getOpenshiftClient().leases().inNamespace(server.getOpenshiftClient().getNamespace()).withName(LeaderElection.LEASE_NAME).get();
+        assertThat(lease.getSpec().getHolderIdentity(), is("dfs-1"));
+        assertThat(second.isLeading(), is(true));
+    }
+
+    @Test
+    void testDisabledAlwaysLeads() {
+        assertThat(new LeaderElection().isLeading(), is(true));
+    }
+
+    private LeaderElection newLeaderElection(String identity) {
+        LeaderElection election = new LeaderElection();
+        election.client = server.getOpenshiftClient();
+        election.enabled = true;
+        // Not started, the tests renew the Lease themselves
+        election.self = identity;
+        election.leaseDurationSeconds = 15;
+        election.renewDeadlineSeconds = 10;
+        election.clock = now::get;
+        started.add(election);
+        return election;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionRequest;
+import org.kie.baaas.dfs.api.DecisionRequestBuilder;
+import org.kie.baaas.dfs.api.DecisionRequestSpec;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.KafkaCredential;
+import org.kie.baaas.dfs.api.KafkaRequest;
+import org.kie.baaas.dfs.app.ApiCallRecorder;
+import org.kie.baaas.dfs.app.ApiCalls;
+import org.kie.baaas.dfs.app.PlatformConfigProvider;
+import org.kie.baaas.dfs.load.ReconcileDriver;
+import org.kie.baaas.dfs.simulation.SimulatedCluster;
+import org.kie.baaas.dfs.simulation.SimulatorSettings;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.quarkus.test.junit.QuarkusTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.kie.baaas.dfs.api.DecisionConstants.CLIENTID_KEY;
+import static org.kie.baaas.dfs.api.DecisionConstants.CLIENTSECRET_KEY;
+
+/**
+ * Kubernetes API calls allowed per reconcile, including the status write the operator applies from the returned
+ * UpdateControl. Lower a budget when a change saves calls so that it cannot creep back up.
+ */
+@QuarkusTest
+class ReconcileApiBudgetTest extends AbstractControllerTest {
+
+    private static final String DASHBOARD_AUTH_SECRET = "baaas-dfs-kafka-credentials";
+    private static final String DECISION = "some-decision";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Inject
+    DecisionRequestController requestController;
+
+    @Inject
+    DecisionController decisionController;
+
+    @Inject
+    DecisionVersionController versionController;
+
+    @Inject
+    ApiCallRecorder recorder;
+
+    @Inject
+    OpenShiftClient openShiftClient;
+
+    @Inject
+    PlatformConfigProvider platformConfigProvider;
+
+    private ReconcileDriver driver;
+
+    @BeforeEach
+    void createRequest() {
+        client.secrets().inNamespace(CONTROLLER_NS).createOrReplace(new SecretBuilder()
+                .withMetadata(new ObjectMetaBuilder().withName(DASHBOARD_AUTH_SECRET).withNamespace(CONTROLLER_NS).build())
+                .withData(Map.of(
+                        "bootstrapservers", encode("dashboard-kafka-bootstrap:9093"),
+                        CLIENTID_KEY, encode("dashboard"),
+                        CLIENTSECRET_KEY, encode("dashboard-secret")))
+                .build());
+        client.customResources(DecisionRequest.class).inNamespace(CONTROLLER_NS).create(new DecisionRequestBuilder()
+                .withMetadata(new ObjectMetaBuilder().withName(CUSTOMER + "-" + DECISION).withNamespace(CONTROLLER_NS).build())
+                .withSpec(new DecisionRequestSpec()
+                        .setCustomerId(CUSTOMER)
+                        .setName(DECISION)
+                        .setVersion("1")
+                        .setSource(URI.create("https://baaas.s3.amazonaws.com/" + CUSTOMER + "/" + DECISION + ".dmn"))
+                        .setKafka(new KafkaRequest()
+                                .setBootstrapServers("kafka-bootstrap:9093")
+                                .setInputTopic("requests")
+                                .setOutputTopic("responses")
+                                .setCredential(new KafkaCredential().setClientId("client").setClientSecret("secret"))))
+                .build());
+        driver = new ReconcileDriver(client, server, requestController, decisionController, versionController);
+    }
+
+    @AfterEach
+    void deleteVaultSecret() {
+        client.secrets().inNamespace(CONTROLLER_NS).withName(DASHBOARD_AUTH_SECRET).delete();
+    }
+
+    @Test
+    void testFirstCreation() {
+        //When
+        ApiCalls request = recorder.record(() -> driver.reconcileRequest(getRequest()));
+        Decision decision = driver.ensureUid(Decision.class, getDecision());
+        ApiCalls decisionCalls = recorder.record(() -> driver.reconcileDecision(decision));
+        DecisionVersion version = driver.ensureUid(DecisionVersion.class, getVersion());
+        ApiCalls versionCalls = recorder.record(() -> driver.reconcileVersion(version));
+
+        //Then
+        assertThat(driver.getFailures(), is(anEmptyMap()));
+        // Namespace, kafka secret, Decision and request status
+        assertThat(request.toString(), request.getReads(), lessThanOrEqualTo(4L));
+        assertThat(request.toString(), request.getWrites(), lessThanOrEqualTo(4L));
+        // DecisionVersion
+        assertThat(decisionCalls.toString(), decisionCalls.getReads(), lessThanOrEqualTo(1L));
+        assertThat(decisionCalls.toString(), decisionCalls.getWrites(), lessThanOrEqualTo(1L));
+        // PipelineRun and version status, plus the Decision watch
+        assertThat(versionCalls.toString(), versionCalls.getReads(), lessThanOrEqualTo(3L));
+        assertThat(versionCalls.toString(), versionCalls.getWrites(), lessThanOrEqualTo(2L));
+        assertThat(versionCalls.toString(), versionCalls.count(ApiCalls.Verb.WATCH), lessThanOrEqualTo(1L));
+    }
+
+    @Test
+    void testSteadyState() throws InterruptedException {
+        //Given
+        reachCurrent();
+
+        //When
+        ApiCalls request = recorder.record(() -> driver.reconcileRequest(getRequest()));
+        ApiCalls decisionCalls = recorder.record(() -> driver.reconcileDecision(getDecision()));
+        ApiCalls versionCalls = recorder.record(() -> driver.reconcileVersion(getVersion()));
+
+        //Then
+        assertThat(driver.getFailures(), is(anEmptyMap()));
+        assertThat(request.toString(), request.getReads(), lessThanOrEqualTo(4L));
+        assertThat(request.toString(), request.getWrites(), is(0L));
+        // The Decision status is written on every reconcile
+        assertThat(decisionCalls.toString(), decisionCalls.getReads(), lessThanOrEqualTo(2L));
+        assertThat(decisionCalls.toString(), decisionCalls.getWrites(), lessThanOrEqualTo(1L));
+        assertThat(versionCalls.toString(), versionCalls.getReads(), lessThanOrEqualTo(8L));
+        assertThat(versionCalls.toString(), versionCalls.getWrites(), is(0L));
+        assertThat(versionCalls.toString(), versionCalls.count(ApiCalls.Verb.WATCH), is(0L));
+    }
+
+    private void reachCurrent() throws InterruptedException {
+        try (SimulatedCluster cluster = SimulatedCluster.start(openShiftClient, platformConfigProvider.getPlatform(), CONTROLLER_NS, new SimulatorSettings())) {
+            Instant deadline = Instant.now().plus(TIMEOUT);
+            while (!isCurrent() && Instant.now().isBefore(deadline)) {
+                driver.reconcileRequests(CONTROLLER_NS);
+                driver.reconcileDecisions();
+                driver.reconcileVersions();
+                Thread.sleep(50);
+            }
+        }
+        assertThat(getDecision().getStatus().getEndpoint(), is(notNullValue()));
+        // Settles the version status after the last simulated change
+        driver.reconcileVersions();
+    }
+
+    private boolean isCurrent() {
+        Decision decision = getDecision();
+        return decision != null && decision.getStatus() != null && decision.getStatus().getEndpoint() != null;
+    }
+
+    private DecisionRequest getRequest() {
+        return client.customResources(DecisionRequest.class).inNamespace(CONTROLLER_NS).withName(CUSTOMER + "-" + DECISION).get();
+    }
+
+    private Decision getDecision() {
+        return client.customResources(Decision.class).inNamespace(CUSTOMER_NS).withName(DECISION).get();
+    }
+
+    private DecisionVersion getVersion() {
+        return client.customResources(DecisionVersion.class).inNamespace(CUSTOMER_NS).withName(DECISION + "-1").get();
+    }
+
+    private static String encode(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.DecisionVersionBuilder;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.javaoperatorsdk.operator.api.UpdateControl;
+import io.javaoperatorsdk.operator.processing.event.Event;
+import io.javaoperatorsdk.operator.processing.event.EventHandler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class ReconcileBackoffTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    private final ReconcileBackoff backoff = newBackoff(100, 1000);
+
+    @AfterEach
+    void close() {
+        backoff.close();
+    }
+
+    @Test
+    void testFailingResourceIsSkipped() {
+        //Given
+        DecisionVersion version = version(1L);
+        AtomicInteger reconciles = new AtomicInteger();
+        fail(version, reconciles);
+
+        //When
+        UpdateControl<DecisionVersion> skipped = backoff.run(version, () -> succeed(version, reconciles));
+        now.addAndGet(100);
+        UpdateControl<DecisionVersion> retried = backoff.run(version, () -> succeed(version, reconciles));
+
+        //Then
+        assertThat(skipped.isUpdateStatusSubResource(), is(false));
+        assertThat(retried.isUpdateStatusSubResource(), is(true));
+        assertThat(reconciles.get(), is(2));
+        assertThat(backoff.getSkipped(), is(1L));
+        assertThat(backoff.getBackingOff(), is(0));
+    }
+
+    @Test
+    void testBackingOffBeforeScheduling() {
+        //Given
+        DecisionVersion version = version(1L);
+        fail(version, new AtomicInteger());
+
+        //When
+        boolean backingOff = backoff.isBackingOff(version);
+        now.addAndGet(100);
+
+        //Then
+        assertThat(backingOff, is(true));
+        assertThat(backoff.isBackingOff(version), is(false));
+        assertThat(backoff.getSkipped(), is(1L));
+    }
+
+    @Test
+    void testNewGenerationIsNotSkipped() {
+        //Given
+        AtomicInteger reconciles = new AtomicInteger();
+        DecisionVersion version = version(1L);
+        fail(version, reconciles);
+
+        //When
+        version.getMetadata().setGeneration(2L);
+        backoff.run(version, () -> succeed(version, reconciles));
+
+        //Then
+        assertThat(reconciles.get(), is(2));
+        assertThat(backoff.getSkipped(), is(0L));
+    }
+
+    @Test
+    void testDelay() {
+        assertThat(backoff.getDelay(1), allOf(greaterThanOrEqualTo(50L), lessThanOrEqualTo(100L)));
+        assertThat(backoff.getDelay(3), allOf(greaterThanOrEqualTo(200L), lessThanOrEqualTo(400L)));
+        // Capped
+        assertThat(backoff.getDelay(10), allOf(greaterThanOrEqualTo(500L), lessThanOrEqualTo(1000L)));
+        assertThat(backoff.getDelay(100), allOf(greaterThanOrEqualTo(500L), lessThanOrEqualTo(1000L)));
+    }
+
+    @Test
+    void testTriggeredWhenBackoffElapses() {
+        //Given
+        EventHandler handler = mock(EventHandler.class);
+        backoff.eventSource(DecisionVersion.class).setEventHandler(handler);
+
+        //When
+        fail(version(1L), new AtomicInteger());
+
+        //Then
+        verify(handler, timeout(5000)).handleEvent(any(Event.class));
+    }
+
+    private void fail(DecisionVersion version, AtomicInteger reconciles) {
+        assertThrows(IllegalStateException.class, () -> backoff.run(version, () -> {
+            reconciles.incrementAndGet();
+            throw new IllegalStateException("Missing pipeline");
+        }));
+    }
+
+    private static UpdateControl<DecisionVersion> succeed(DecisionVersion version, AtomicInteger reconciles) {
+        reconciles.incrementAndGet();
+        return UpdateControl.updateStatusSubResource(version);
+    }
+
+    private ReconcileBackoff newBackoff(long initialMs, long maxMs) {
+        ReconcileBackoff backoff = new ReconcileBackoff();
+        backoff.initialMs = initialMs;
+        backoff.maxMs = maxMs;
+        backoff.clock = now::get;
+        backoff.init();
+        return backoff;
+    }
+
+    private static DecisionVersion version(Long generation) {
+        return new DecisionVersionBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName("some-decision-1")
+                        .withUid(UUID.randomUUID().toString())
+                        .withGeneration(generation)
+                        .build())
+                .build();
+    }
+}
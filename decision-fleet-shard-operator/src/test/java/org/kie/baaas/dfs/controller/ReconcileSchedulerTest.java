@@ -0,0 +1,242 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReconcileSchedulerTest {
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private ReconcileScheduler scheduler;
+
+    @AfterEach
+    void stop() {
+        scheduler.stop();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testRoundRobin() throws Exception {
+        //Given
+        scheduler = newScheduler(ReconcileScheduler.ROUND_ROBIN, null);
+        CountDownLatch blocked = block();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            calls.add(submit("bulk", order));
+        }
+        calls.add(submit("other", order));
+        waitForQueued(4);
+
+        //When
+        assertThat(scheduler.getQueueDepths(), equalTo(Map.of("bulk", 3, "other", 1)));
+        blocked.countDown();
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        //Then
+        assertThat(order, contains("bulk", "other", "bulk", "bulk"));
+        assertThat(scheduler.getQueueDepths(), is(anEmptyMap()));
+    }
+
+    @Test
+    void testWeighted() throws Exception {
+        //Given
+        scheduler = newScheduler(ReconcileScheduler.WEIGHTED, "bulk=2");
+        CountDownLatch blocked = block();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            calls.add(submit("bulk", order));
+        }
+        calls.add(submit("other", order));
+        calls.add(submit("other", order));
+        waitForQueued(5);
+
+        //When
+        blocked.countDown();
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        //Then
+        assertThat(order, contains("bulk", "bulk", "other", "bulk", "other"));
+    }
+
+    @Test
+    void testPriorities() throws Exception {
+        //Given
+        scheduler = newScheduler(ReconcileScheduler.ROUND_ROBIN, null);
+        CountDownLatch blocked = block();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<?>> calls = new ArrayList<>();
+        calls.add(submit("resync", ReconcileScheduler.Priority.LOW, order));
+        calls.add(submit("build", ReconcileScheduler.Priority.NORMAL, order));
+        calls.add(submit("admission", ReconcileScheduler.Priority.HIGH, order));
+        waitForQueued(3);
+
+        //When
+        assertThat(scheduler.getQueueDepths(ReconcileScheduler.Priority.HIGH), equalTo(Map.of("admission", 1)));
+        blocked.countDown();
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        //Then
+        assertThat(order, contains("admission", "build", "resync"));
+    }
+
+    @Test
+    void testAging() throws Exception {
+        //Given
+        scheduler = newScheduler(ReconcileScheduler.ROUND_ROBIN, null, 100);
+        CountDownLatch blocked = block();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<?>> calls = new ArrayList<>();
+        calls.add(submit("resync", ReconcileScheduler.Priority.LOW, order));
+        // Three aging periods lift the resync above the high class
+        Thread.sleep(350);
+        calls.add(submit("admission", ReconcileScheduler.Priority.HIGH, order));
+        waitForQueued(2);
+
+        //When
+        blocked.countDown();
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        //Then
+        assertThat(order, contains("resync", "admission"));
+    }
+
+    @Test
+    void testExceptionIsRethrown() {
+        scheduler = newScheduler(ReconcileScheduler.ROUND_ROBIN, null);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> scheduler.execute("customer1", ReconcileScheduler.Priority.NORMAL, () -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        assertThat(e.getMessage(), equalTo("failed"));
+    }
+
+    @Test
+    void testCustomerCap() throws Exception {
+        //Given
+        scheduler = newScheduler(ReconcileScheduler.ROUND_ROBIN, null, 0, 2, 1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?> slow = CompletableFuture.runAsync(() -> scheduler.execute("bulk", ReconcileScheduler.Priority.NORMAL, () -> {
+            running.countDown();
+            try {
+                return blocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }), callers);
+        running.await(5, TimeUnit.SECONDS);
+        CompletableFuture<?> bulk = submit("bulk", order);
+
+        //When
+        CompletableFuture<?> other = CompletableFuture.runAsync(() -> scheduler.execute("other", ReconcileScheduler.Priority.NORMAL, () -> order.add("other")), callers);
+
+        //Then
+        // The second worker is free, but bulk already holds its share
+        other.get(5, TimeUnit.SECONDS);
+        assertThat(scheduler.getQueueDepths(), equalTo(Map.of("bulk", 1)));
+        blocked.countDown();
+        CompletableFuture.allOf(slow, bulk).get(5, TimeUnit.SECONDS);
+        assertThat(order, contains("other", "bulk"));
+    }
+
+    @Test
+    void testSdkThreadsMustExceedWorkers() {
+        assertThrows(IllegalStateException.class, () -> ReconcileScheduler.checkSdkThreads(5, 5));
+
+        ReconcileScheduler.checkSdkThreads(50, 5);
+        // Reconciles run inline on the SDK threads
+        ReconcileScheduler.checkSdkThreads(5, 0);
+    }
+
+    private static ReconcileScheduler newScheduler(String policy, String weights) {
+        return newScheduler(policy, weights, 0);
+    }
+
+    private static ReconcileScheduler newScheduler(String policy, String weights, long agingMs) {
+        return newScheduler(policy, weights, agingMs, 1, 0);
+    }
+
+    private static ReconcileScheduler newScheduler(String policy, String weights, long agingMs, int workers, int maxPerCustomer) {
+        ReconcileScheduler scheduler = new ReconcileScheduler();
+        scheduler.workers = workers;
+        scheduler.maxPerCustomer = maxPerCustomer;
+        scheduler.agingMs = agingMs;
+        scheduler.tenantExecutor = new TenantExecutor();
+        scheduler.policy = policy;
+        scheduler.weights = Optional.ofNullable(weights).map(List::of);
+        scheduler.init();
+        return scheduler;
+    }
+
+    // Keeps the only worker busy until the returned latch is released
+    private CountDownLatch block() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        callers.submit(() -> scheduler.execute("blocker", ReconcileScheduler.Priority.NORMAL, () -> {
+            running.countDown();
+            try {
+                return blocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        running.await(5, TimeUnit.SECONDS);
+        return blocked;
+    }
+
+    private CompletableFuture<?> submit(String customer, List<String> order) throws InterruptedException {
+        return submit(customer, ReconcileScheduler.Priority.NORMAL, order);
+    }
+
+    private CompletableFuture<?> submit(String customer, ReconcileScheduler.Priority priority, List<String> order) throws InterruptedException {
+        int queued = scheduler.getQueueDepths().values().stream().mapToInt(Integer::intValue).sum();
+        CompletableFuture<?> call = CompletableFuture.runAsync(() -> scheduler.execute(customer, priority, () -> order.add(customer)), callers);
+        // Keeps the submission order deterministic
+        waitForQueued(queued + 1);
+        return call;
+    }
+
+    private void waitForQueued(int expected) throws InterruptedException {
+        for (int i = 0; i < 500 && scheduler.getQueueDepths().values().stream().mapToInt(Integer::intValue).sum() < expected; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
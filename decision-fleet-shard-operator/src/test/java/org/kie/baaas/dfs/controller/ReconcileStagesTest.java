@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReconcileStagesTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testStagesOverlap() throws Exception {
+        //Given
+        CountDownLatch bothRunning = new CountDownLatch(2);
+
+        //When
+        try (ReconcileStages stages = new ReconcileStages(executor)) {
+            CompletableFuture<Boolean> first = stages.supplyAsync(() -> meet(bothRunning));
+            CompletableFuture<Boolean> second = stages.supplyAsync(() -> meet(bothRunning));
+
+            //Then
+            assertThat(first.get(5, TimeUnit.SECONDS), is(true));
+            assertThat(second.get(5, TimeUnit.SECONDS), is(true));
+        }
+    }
+
+    @Test
+    void testFailedReconcileWaitsForRunningStages() throws Exception {
+        //Given
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch lookupReleased = new CountDownLatch(1);
+        AtomicBoolean lookupDone = new AtomicBoolean();
+        AtomicBoolean secretWritten = new AtomicBoolean();
+        ReconcileStages stages = new ReconcileStages(executor);
+        CompletableFuture<String> lookup = stages.supplyAsync(() -> {
+            lookupStarted.countDown();
+            await(lookupReleased);
+            lookupDone.set(true);
+            return "some-decision";
+        });
+        stages.thenAcceptAsync(lookup, d -> secretWritten.set(true));
+        CompletableFuture<Object> failing = stages.supplyAsync(() -> {
+            throw new IllegalStateException("failed");
+        });
+        assertThrows(Exception.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertThat(lookupStarted.await(5, TimeUnit.SECONDS), is(true));
+
+        //When
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(stages::close);
+
+        //Then
+        Thread.sleep(100);
+        assertThat(closed.isDone(), is(false));
+        lookupReleased.countDown();
+        closed.get(5, TimeUnit.SECONDS);
+        assertThat(lookupDone.get(), is(true));
+        assertThat(stages.getRunning(), is(0));
+        // The dependent stage did not start before the reconcile was over, it never does
+        Thread.sleep(100);
+        assertThat(secretWritten.get(), is(false));
+    }
+
+    @Test
+    void testStagesDoNotStartAfterClose() {
+        ExecutorService paused = Executors.newSingleThreadExecutor();
+        CountDownLatch blocked = new CountDownLatch(1);
+        paused.execute(() -> await(blocked));
+        AtomicBoolean ran = new AtomicBoolean();
+        try {
+            ReconcileStages stages = new ReconcileStages(paused);
+            CompletableFuture<Boolean> stage = stages.supplyAsync(() -> {
+                ran.set(true);
+                return true;
+            });
+
+            stages.close();
+            blocked.countDown();
+
+            assertThat(stage.isCancelled(), is(true));
+            assertThat(ran.get(), is(false));
+        } finally {
+            paused.shutdownNow();
+        }
+    }
+
+    // Returns once every party counted down
+    private static boolean meet(CountDownLatch latch) {
+        latch.countDown();
+        return await(latch);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.DecisionVersionBuilder;
+import org.kie.baaas.dfs.model.ResyncEvent;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.javaoperatorsdk.operator.api.Context;
+import io.javaoperatorsdk.operator.api.UpdateControl;
+import io.javaoperatorsdk.operator.processing.event.Event;
+import io.javaoperatorsdk.operator.processing.event.EventHandler;
+import io.javaoperatorsdk.operator.processing.event.EventList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResyncSchedulerTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    private final List<String> triggered = new ArrayList<>();
+
+    private final ResyncScheduler resync = newResync(60, 1000);
+
+    @AfterEach
+    void close() {
+        resync.close();
+    }
+
+    @Test
+    void testSpreadOverInterval() {
+        //Given
+        List<DecisionVersion> versions = IntStream.range(0, 600).mapToObj(i -> version()).collect(Collectors.toList());
+        versions.forEach(v -> resync.reconciled(v, UpdateControl.noUpdate()));
+        int[] perTick = new int[60];
+        for (int tick = 0; tick < 60; tick++) {
+            now.set(tick * 1000L);
+            resync.tick();
+        }
+        triggered.clear();
+
+        //When
+        for (int tick = 60; tick < 120; tick++) {
+            now.set(tick * 1000L);
+            int before = triggered.size();
+            resync.tick();
+            perTick[tick - 60] = triggered.size() - before;
+        }
+
+        //Then
+        // Every version once per interval, about 10 per tick
+        assertThat(triggered.size(), is(600));
+        assertThat(triggered.stream().distinct().count(), is(600L));
+        assertThat(IntStream.of(perTick).max().getAsInt(), lessThanOrEqualTo(30));
+    }
+
+    @Test
+    void testRecentlyReconciledSkipped() {
+        //Given
+        DecisionVersion version = version();
+        resync.reconciled(version, UpdateControl.noUpdate());
+        ResyncEventSource source = resync.eventSource(DecisionVersion.class);
+        long slot = source.getSlot(version.getMetadata().getUid()) * 1000L;
+
+        //When
+        now.set(60_000 + slot);
+        resync.reconciled(version, UpdateControl.noUpdate());
+        resync.tick();
+
+        //Then
+        assertThat(triggered, empty());
+        assertThat(resync.getStats().get("DecisionVersion").get("skipped"), is(1L));
+    }
+
+    @Test
+    void testForgotten() {
+        //Given
+        DecisionVersion version = version();
+        resync.reconciled(version, UpdateControl.noUpdate());
+
+        //When
+        resync.forget(version);
+        for (int tick = 0; tick < 120; tick++) {
+            now.set(tick * 1000L);
+            resync.tick();
+        }
+
+        //Then
+        assertThat(triggered, empty());
+    }
+
+    @Test
+    void testDisabledType() {
+        resync.reconciled(new Decision(), UpdateControl.noUpdate());
+
+        assertThat(resync.getStats().keySet(), containsInAnyOrder("DecisionVersion"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIsResync() {
+        Context<DecisionVersion> context = mock(Context.class);
+        EventList events = mock(EventList.class);
+        when(context.getEvents()).thenReturn(events);
+        when(events.getList()).thenReturn(List.of(new ResyncEvent("uid", null)));
+        assertThat(ResyncScheduler.isResync(context), is(true));
+
+        when(events.getList()).thenReturn(List.of(new ResyncEvent("uid", null), mock(Event.class)));
+        assertThat(ResyncScheduler.isResync(context), is(false));
+        assertThat(ResyncScheduler.isResync(null), is(false));
+    }
+
+    private ResyncScheduler newResync(long versionIntervalSeconds, long tickMs) {
+        ResyncScheduler resync = new ResyncScheduler();
+        resync.versionIntervalSeconds = versionIntervalSeconds;
+        resync.tickMs = tickMs;
+        resync.clock = now::get;
+        resync.init();
+        // Ticked by the tests
+        resync.close();
+        ResyncEventSource source = resync.eventSource(DecisionVersion.class);
+        EventHandler handler = mock(EventHandler.class);
+        doAnswer(i -> {
+            // Reconciled straight away
+            Event event = i.getArgument(0);
+            triggered.add(event.getRelatedCustomResourceUid());
+            source.reconciled(event.getRelatedCustomResourceUid(), now.get());
+            return null;
+        }).when(handler).handleEvent(any(Event.class));
+        source.setEventHandler(handler);
+        return resync;
+    }
+
+    private static DecisionVersion version() {
+        return new DecisionVersionBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName("some-decision-1")
+                        .withUid(UUID.randomUUID().toString())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+
+import io.javaoperatorsdk.operator.api.config.ConfigurationService;
+import io.quarkus.test.junit.QuarkusTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+@QuarkusTest
+class SdkConfigurationTest {
+
+    @Inject
+    ConfigurationService configurationService;
+
+    @ConfigProperty(name = "quarkus.operator-sdk.concurrent-reconciliation-threads")
+    int sdkThreads;
+
+    @ConfigProperty(name = "baaas.reconcile.workers")
+    int workers;
+
+    @Test
+    void testConcurrentReconciliationThreadsHonored() {
+        // The SDK falls back to its own default when the property is not picked up
+        assertThat(configurationService.concurrentReconciliationThreads(), is(sdkThreads));
+        assertThat(configurationService.concurrentReconciliationThreads(), greaterThan(workers));
+    }
+}
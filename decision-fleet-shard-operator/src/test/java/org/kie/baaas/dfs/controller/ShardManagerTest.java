@@ -0,0 +1,226 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionBuilder;
+import org.mockito.ArgumentCaptor;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.openshift.client.server.mock.OpenShiftServer;
+import io.javaoperatorsdk.operator.api.UpdateControl;
+import io.javaoperatorsdk.operator.processing.event.EventHandler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.kie.baaas.dfs.controller.DecisionLabels.CUSTOMER_LABEL;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShardManagerTest {
+
+    private final OpenShiftServer server = new OpenShiftServer(false, true);
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private final List<ShardManager> started = new ArrayList<>();
+
+    @BeforeEach
+    void startServer() {
+        server.before();
+    }
+
+    @AfterEach
+    void stopServer() {
+        started.forEach(ShardManager::close);
+        server.after();
+    }
+
+    @Test
+    void testRingOnlyMovesCustomersToNewMember() {
+        //Given
+        ShardManager.Ring before = new ShardManager.Ring(Set.of("dfs-0", "dfs-1", "dfs-2"), 64);
+
+        //When
+        ShardManager.Ring after = new ShardManager.Ring(Set.of("dfs-0", "dfs-1", "dfs-2", "dfs-3"), 64);
+
+        //Then
+        long moved = IntStream.range(0, 1000).mapToObj(i -> "customer" + i)
+                .filter(c -> !before.getOwner(c).equals(after.getOwner(c)))
+                .peek(c -> assertThat(after.getOwner(c), is("dfs-3")))
+                .count();
+        assertThat(moved > 150 && moved < 350, is(true));
+    }
+
+    @Test
+    void testMembersFromLeases() {
+        //Given
+        ShardManager first = newShardManager("dfs-0");
+        ShardManager second = newShardManager("dfs-1");
+
+        //When
+        first.renew();
+
+        //Then
+        assertThat(first.getMembers(), equalTo(Set.of("dfs-0", "dfs-1")));
+        assertThat(second.getMembers(), equalTo(Set.of("dfs-0", "dfs-1")));
+        IntStream.range(0, 100).mapToObj(i -> decision("customer" + i))
+                .forEach(d -> assertThat(first.isOwned(d), not(second.isOwned(d))));
+    }
+
+    @Test
+    void testExpiredLeaseLeaves() {
+        //Given
+        ShardManager first = newShardManager("dfs-0");
+        newShardManager("dfs-1");
+        first.renew();
+
+        //When
+        now.addAndGet(15_000);
+        first.renew();
+
+        //Then
+        assertThat(first.getMembers(), equalTo(Set.of("dfs-0")));
+        assertThat(first.isOwned(decision("customer1")), is(true));
+    }
+
+    @Test
+    void testTakenOverResourcesTriggered() {
+        //Given
+        ShardManager first = newShardManager("dfs-0");
+        newShardManager("dfs-1");
+        first.renew();
+        EventHandler handler = mock(EventHandler.class);
+        first.eventSource(Decision.class).setEventHandler(handler);
+        Decision owned = IntStream.range(0, 100).mapToObj(i -> decision("customer" + i)).filter(first::isOwned).findFirst().orElseThrow();
+        Decision other = IntStream.range(0, 100).mapToObj(i -> decision("customer" + i)).filter(d -> !first.isOwned(d)).findFirst().orElseThrow();
+        assertThat(first.accept(owned), is(true));
+        assertThat(first.accept(other), is(false));
+
+        //When
+        first.updateMembers(Set.of("dfs-0"));
+
+        //Then
+        verify(handler, times(1)).handleEvent(argThat(e -> e.getRelatedCustomResourceUid().equals(other.getMetadata().getUid())));
+        verify(handler, never()).handleEvent(argThat(e -> e.getRelatedCustomResourceUid().equals(owned.getMetadata().getUid())));
+    }
+
+    @Test
+    void testStandbyResourcesTriggeredOnFailover() {
+        //Given
+        ShardManager shards = new ShardManager();
+        shards.leader = mock(LeaderElection.class);
+        shards.identity = Optional.of("dfs-0");
+        shards.init();
+        EventHandler handler = mock(EventHandler.class);
+        shards.eventSource(Decision.class).setEventHandler(handler);
+        Decision decision = decision("customer1");
+        assertThat(shards.accept(decision), is(false));
+        ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+        verify(shards.leader).addListener(listener.capture());
+
+        //When
+        when(shards.leader.isLeading()).thenReturn(true);
+        listener.getValue().run();
+
+        //Then
+        verify(handler, times(1)).handleEvent(argThat(e -> e.getRelatedCustomResourceUid().equals(decision.getMetadata().getUid())));
+        assertThat(shards.accept(decision), is(true));
+    }
+
+    @Test
+    void testQueuedReconcileDroppedOnceDemoted() {
+        //Given
+        ShardManager shards = new ShardManager();
+        shards.leader = mock(LeaderElection.class);
+        shards.identity = Optional.of("dfs-0");
+        shards.init();
+        Decision decision = decision("customer1");
+        when(shards.leader.isLeading()).thenReturn(true);
+        assertThat(shards.accept(decision), is(true));
+
+        //When
+        when(shards.leader.isLeading()).thenReturn(false);
+        UpdateControl<Decision> control = shards.runIfAccepted(decision, () -> {
+            throw new AssertionError("Reconciled on a demoted leader");
+        });
+
+        //Then
+        assertThat(control.isUpdateStatusSubResource(), is(false));
+        assertThat(control.isUpdateCustomResource(), is(false));
+    }
+
+    @Test
+    void testDisabledOwnsEverything() {
+        ShardManager shards = new ShardManager();
+        shards.leader = new LeaderElection();
+        shards.identity = Optional.of("dfs-0");
+        shards.init();
+
+        assertThat(shards.isOwned(decision("customer1")), is(true));
+    }
+
+    @Test
+    void testShardKey() {
+        Decision decision = decision("customer1");
+        assertThat(ShardManager.getShardKey(decision), is("customer1"));
+
+        decision.getMetadata().setLabels(null);
+        assertThat(ShardManager.getShardKey(decision), is("customer1"));
+    }
+
+    private ShardManager newShardManager(String identity) {
+        ShardManager shards = new ShardManager();
+        shards.client = server.getOpenshiftClient();
+        shards.leader = new LeaderElection();
+        shards.enabled = true;
+        shards.identity = Optional.of(identity);
+        shards.leaseDurationSeconds = 15;
+        shards.renewMs = 60_000;
+        shards.virtualNodes = 64;
+        shards.clock = now::get;
+        shards.init();
+        started.add(shards);
+        return shards;
+    }
+
+    private static Decision decision(String customer) {
+        return new DecisionBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName("some-decision")
+                        .withNamespace("baaas-" + customer)
+                        .withUid(UUID.randomUUID().toString())
+                        .addToLabels(CUSTOMER_LABEL, customer)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TenantExecutorTest {
+
+    private TenantExecutor executor;
+
+    @AfterEach
+    void close() {
+        executor.close();
+    }
+
+    @Test
+    void testPlatformThreadsByDefault() {
+        //Given
+        executor = newExecutor(false, 1);
+        Executor fallback = Runnable::run;
+
+        //When
+        Thread thread = executor.newThread(() -> {
+        }, "worker");
+
+        //Then
+        assertThat(executor.isVirtual(), is(false));
+        assertThat(executor.forCustomer("customer1", fallback), sameInstance(fallback));
+        assertThat(thread.isDaemon(), is(true));
+        assertThat(thread.getName(), is("worker"));
+    }
+
+    @Test
+    void testAsyncWorkOnDedicatedPool() throws Exception {
+        //Given
+        executor = newExecutor(false, 1);
+
+        //When
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        executor.runAsync("customer1", () -> thread.complete(Thread.currentThread().getName())).get(5, TimeUnit.SECONDS);
+
+        //Then
+        assertThat(thread.get(), startsWith("baaas-async-"));
+    }
+
+    @Test
+    void testConcurrencyPerCustomer() throws Exception {
+        //Given
+        executor = newExecutor(true, 1);
+        assumeTrue(executor.isVirtual(), "Virtual threads require Java 21");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+
+        //When
+        CompletableFuture<Void> first = executor.runAsync("customer1", () -> {
+            running.countDown();
+            await(release);
+        });
+        running.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> second = executor.runAsync("customer1", () -> {
+        });
+        CompletableFuture<Void> other = executor.runAsync("customer2", () -> {
+        });
+
+        //Then
+        other.get(5, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        assertThat(second.isDone(), is(false));
+        release.countDown();
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testStagesAndWebhooksHaveSeparatePermits() throws Exception {
+        //Given
+        executor = newExecutor(true, 1);
+        assumeTrue(executor.isVirtual(), "Virtual threads require Java 21");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<Void> webhook = executor.runAsync("customer1", () -> {
+            running.countDown();
+            await(release);
+        });
+        running.await(5, TimeUnit.SECONDS);
+
+        //When
+        CompletableFuture<Void> stage = CompletableFuture.runAsync(() -> {
+        }, executor.forCustomer("customer1", Runnable::run));
+
+        //Then
+        stage.get(5, TimeUnit.SECONDS);
+        release.countDown();
+        webhook.get(5, TimeUnit.SECONDS);
+    }
+
+    private static TenantExecutor newExecutor(boolean virtual, int maxPerCustomer) {
+        TenantExecutor executor = new TenantExecutor();
+        executor.virtual = virtual;
+        executor.maxPerCustomer = maxPerCustomer;
+        executor.init();
+        return executor;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.net.URI;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.DecisionVersionBuilder;
+import org.kie.baaas.dfs.api.DecisionVersionStatus;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.client.Watcher.Action;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class TransitionFilterTest {
+
+    private final TransitionFilter<DecisionVersion> transitions = TransitionFilter.onChangeOf(
+            version -> version.getStatus().isReady(),
+            version -> version.getStatus().getEndpoint());
+
+    private final String uid = UUID.randomUUID().toString();
+
+    @Test
+    void testDropsIrrelevantChanges() {
+        //Given
+        DecisionVersion version = version(Boolean.FALSE, null);
+        assertThat(transitions.accept(Action.ADDED, version), is(true));
+
+        //When
+        version.getStatus().setImageRef("quay.io/some-image");
+        boolean accepted = transitions.accept(Action.MODIFIED, version);
+
+        //Then
+        assertThat(accepted, is(false));
+    }
+
+    @Test
+    void testAcceptsTransitions() {
+        transitions.accept(Action.ADDED, version(Boolean.FALSE, null));
+
+        assertThat(transitions.accept(Action.MODIFIED, version(Boolean.TRUE, null)), is(true));
+        assertThat(transitions.accept(Action.MODIFIED, version(Boolean.TRUE, null)), is(false));
+        assertThat(transitions.accept(Action.MODIFIED, version(Boolean.TRUE, URI.create("http://some-version"))), is(true));
+    }
+
+    @Test
+    void testAcceptsAdditionsAndDeletions() {
+        DecisionVersion version = version(Boolean.TRUE, null);
+
+        // Not seen yet, for example after a restart
+        assertThat(transitions.accept(Action.MODIFIED, version), is(true));
+        assertThat(transitions.accept(Action.ADDED, version), is(true));
+        assertThat(transitions.accept(Action.DELETED, version), is(true));
+        assertThat(transitions.accept(Action.MODIFIED, version), is(true));
+    }
+
+    private DecisionVersion version(Boolean ready, URI endpoint) {
+        DecisionVersionStatus status = new DecisionVersionStatus();
+        status.setReady(ready);
+        status.setEndpoint(endpoint);
+        DecisionVersion version = new DecisionVersionBuilder()
+                .withMetadata(new ObjectMetaBuilder().withName("some-version").withUid(uid).build())
+                .build();
+        version.setStatus(status);
+        return version;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.controller;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.DecisionVersionBuilder;
+import org.mockito.Mockito;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watcher;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+class WatchEventRecorderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testDisabledByDefault() {
+        WatchEventRecorder recorder = new WatchEventRecorder();
+
+        recorder.record("pipelineruns", Watcher.Action.ADDED, "{}");
+
+        assertThat(recorder.isEnabled(), is(false));
+    }
+
+    @Test
+    void testRecord() throws IOException {
+        //Given
+        Path trace = dir.resolve("trace.jsonl");
+        WatchEventRecorder recorder = new WatchEventRecorder();
+        recorder.traceFile = Optional.of(trace.toString());
+        recorder.queueSize = 10;
+        recorder.client = Mockito.mock(KubernetesClient.class);
+        when(recorder.client.getNamespace()).thenReturn("baaas-dfs");
+        recorder.init();
+
+        //When
+        recorder.record("pipelineruns", Watcher.Action.MODIFIED, "{\"metadata\":{\"name\":\"customer1-some-decision-1\"}}");
+        recorder.record("decisionversions", Watcher.Action.DELETED, new DecisionVersionBuilder()
+                .withMetadata(new ObjectMetaBuilder().withName("some-decision-1").withNamespace("baaas-customer1").build())
+                .build());
+        recorder.close();
+
+        //Then
+        List<JsonObject> lines = Files.readAllLines(trace).stream().map(WatchEventRecorderTest::parse).collect(Collectors.toList());
+        assertThat(lines, hasSize(3));
+        assertThat(lines.get(0).getString("kind"), equalTo("trace"));
+        assertThat(lines.get(0).getString("namespace"), equalTo("baaas-dfs"));
+        assertThat(lines.get(1).getString("kind"), equalTo("pipelineruns"));
+        assertThat(lines.get(1).getString("action"), equalTo("MODIFIED"));
+        assertThat(lines.get(1).getJsonObject("object").getJsonObject("metadata").getString("name"), equalTo("customer1-some-decision-1"));
+        assertThat(lines.get(2).getString("kind"), equalTo("decisionversions"));
+        assertThat(lines.get(2).getString("action"), equalTo("DELETED"));
+        assertThat(lines.get(2).getJsonObject("object").getString("kind"), equalTo(new DecisionVersion().getKind()));
+        assertThat(recorder.getDropped(), is(0L));
+    }
+
+    private static JsonObject parse(String line) {
+        try (JsonReader reader = Json.createReader(new StringReader(line))) {
+            return reader.readObject();
+        }
+    }
+}
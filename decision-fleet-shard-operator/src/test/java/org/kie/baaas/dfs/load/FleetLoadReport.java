@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.load;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+public class FleetLoadReport {
+
+    private static final double MB = 1024 * 1024;
+
+    private final int customers;
+    private final int decisions;
+    private final int passes;
+    private final Duration elapsed;
+    private final int admitted;
+    private final Duration admissionTime;
+    private final List<Duration> timesToCurrent;
+    private final Map<String, Long> apiCalls;
+    private final Map<String, Long> failures;
+    private final long peakHeapUsed;
+    private final long heapUsedAfterGc;
+
+    public FleetLoadReport(int customers, int decisions, int passes, Duration elapsed, int admitted, Duration admissionTime,
+            List<Duration> timesToCurrent, Map<String, Long> apiCalls, Map<String, Long> failures, long peakHeapUsed, long heapUsedAfterGc) {
+        this.customers = customers;
+        this.decisions = decisions;
+        this.passes = passes;
+        this.elapsed = elapsed;
+        this.admitted = admitted;
+        this.admissionTime = admissionTime;
+        this.timesToCurrent = new ArrayList<>(timesToCurrent);
+        Collections.sort(this.timesToCurrent);
+        this.apiCalls = apiCalls;
+        this.failures = failures;
+        this.peakHeapUsed = peakHeapUsed;
+        this.heapUsedAfterGc = heapUsedAfterGc;
+    }
+
+    public int getCurrent() {
+        return timesToCurrent.size();
+    }
+
+    public double getAdmissionsPerSecond() {
+        if (admissionTime.isZero()) {
+            return admitted;
+        }
+        return admitted * 1000d / admissionTime.toMillis();
+    }
+
+    public double getApiCallsPerDecision() {
+        return (double) apiCalls.values().stream().mapToLong(Long::longValue).sum() / decisions;
+    }
+
+    /**
+     * Nearest-rank percentile of the time from DecisionRequest creation to the Decision reporting the CURRENT endpoint.
+     */
+    public Duration getTimeToCurrent(double percentile) {
+        if (timesToCurrent.isEmpty()) {
+            return Duration.ZERO;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * timesToCurrent.size());
+        return timesToCurrent.get(Math.max(0, rank - 1));
+    }
+
+    public JsonObject toJson() {
+        JsonObjectBuilder calls = Json.createObjectBuilder();
+        apiCalls.forEach((kind, count) -> calls.add(kind, count.longValue()));
+        JsonObjectBuilder errors = Json.createObjectBuilder();
+        failures.forEach((kind, count) -> errors.add(kind, count.longValue()));
+        return Json.createObjectBuilder()
+                .add("customers", customers)
+                .add("decisions", decisions)
+                .add("passes", passes)
+                .add("elapsedMs", elapsed.toMillis())
+                .add("admitted", admitted)
+                .add("admissionsPerSecond", getAdmissionsPerSecond())
+                .add("current", getCurrent())
+                .add("timeToCurrentMs", Json.createObjectBuilder()
+                        .add("p50", getTimeToCurrent(50).toMillis())
+                        .add("p90", getTimeToCurrent(90).toMillis())
+                        .add("p99", getTimeToCurrent(99).toMillis())
+                        .add("max", getTimeToCurrent(100).toMillis()))
+                .add("apiCallsPerDecision", getApiCallsPerDecision())
+                .add("apiCalls", calls)
+                .add("failedReconciles", errors)
+                .add("peakHeapUsedMb", peakHeapUsed / MB)
+                .add("heapUsedAfterGcMb", heapUsedAfterGc / MB)
+                .build();
+    }
+
+    public void write(Path file) {
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, toJson().toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d decisions / %d customers: %d admitted (%.1f admissions/s), %d CURRENT after %d passes in %ds. "
+                + "Time to CURRENT p50=%dms p90=%dms p99=%dms. API calls per decision: %.1f %s. Failed reconciles: %s. "
+                + "Heap: peak %.0fMB, %.0fMB after GC",
+                decisions, customers, admitted, getAdmissionsPerSecond(), getCurrent(), passes, elapsed.toSeconds(),
+                getTimeToCurrent(50).toMillis(), getTimeToCurrent(90).toMillis(), getTimeToCurrent(99).toMillis(),
+                getApiCallsPerDecision(), apiCalls, failures, peakHeapUsed / MB, heapUsedAfterGc / MB);
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.load;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.AdmissionStatus;
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionRequest;
+import org.kie.baaas.dfs.api.DecisionRequestBuilder;
+import org.kie.baaas.dfs.api.DecisionRequestSpec;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.KafkaCredential;
+import org.kie.baaas.dfs.api.KafkaRequest;
+import org.kie.baaas.dfs.app.PlatformConfigProvider;
+import org.kie.baaas.dfs.controller.AbstractControllerTest;
+import org.kie.baaas.dfs.controller.DecisionController;
+import org.kie.baaas.dfs.controller.DecisionRequestController;
+import org.kie.baaas.dfs.controller.DecisionVersionController;
+import org.kie.baaas.dfs.model.KogitoRuntime;
+import org.kie.baaas.dfs.model.PipelineRun;
+import org.kie.baaas.dfs.simulation.LatencyDistribution;
+import org.kie.baaas.dfs.simulation.SimulatedCluster;
+import org.kie.baaas.dfs.simulation.SimulatorSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.quarkus.test.junit.QuarkusTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.kie.baaas.dfs.api.DecisionConstants.CLIENTID_KEY;
+import static org.kie.baaas.dfs.api.DecisionConstants.CLIENTSECRET_KEY;
+
+/**
+ * Admits thousands of DecisionRequests across hundreds of customers against the mock server and drives them to CURRENT.
+ * Tekton, the Kogito operator and the router are simulated, see {@link SimulatedCluster} for their latencies.
+ * Run with {@code mvn test -Pload-tests}. Sizes are set with {@code -Dbaaas.load.customers}, {@code -Dbaaas.load.decisions}
+ * and {@code -Dbaaas.load.timeout}. The report is logged and written to {@code target/fleet-load-report.json}.
+ */
+@QuarkusTest
+@Tag("load")
+class FleetLoadTest extends AbstractControllerTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FleetLoadTest.class);
+
+    private static final int CUSTOMERS = Integer.getInteger("baaas.load.customers", 200);
+    private static final int DECISIONS = Integer.getInteger("baaas.load.decisions", 2000);
+    private static final Duration TIMEOUT = LatencyDistribution.parseDuration(System.getProperty("baaas.load.timeout", "10m"));
+    private static final Duration PASS_INTERVAL = LatencyDistribution.parseDuration(System.getProperty("baaas.load.pass-interval", "200ms"));
+    private static final String DASHBOARD_AUTH_SECRET = "baaas-dfs-kafka-credentials";
+
+    @Inject
+    DecisionRequestController requestController;
+
+    @Inject
+    DecisionController decisionController;
+
+    @Inject
+    DecisionVersionController versionController;
+
+    @Inject
+    OpenShiftClient openShiftClient;
+
+    @Inject
+    PlatformConfigProvider platformConfigProvider;
+
+    private SimulatedCluster cluster;
+
+    @Test
+    void testFleetReachesCurrent() throws InterruptedException {
+        //Given
+        createDashboardCredentials();
+        cluster = SimulatedCluster.start(openShiftClient, platformConfigProvider.getPlatform(), CONTROLLER_NS, SimulatorSettings.fromSystemProperties());
+        ReconcileDriver driver = new ReconcileDriver(client, server, requestController, decisionController, versionController);
+        Map<String, Instant> created = new HashMap<>();
+        for (int i = 0; i < DECISIONS; i++) {
+            DecisionRequest request = buildRequest(getCustomer(i % CUSTOMERS), "decision-" + i);
+            client.customResources(DecisionRequest.class).inNamespace(CONTROLLER_NS).create(request);
+            created.put(getKey(getNamespace(request.getSpec().getCustomerId()), request.getSpec().getName()), Instant.now());
+        }
+
+        //When
+        Instant start = Instant.now();
+        Map<String, Duration> timesToCurrent = new HashMap<>();
+        Duration admissionTime = Duration.ZERO;
+        int admitted = 0;
+        int passes = 0;
+        long peakHeap = 0;
+        Instant deadline = start.plus(TIMEOUT);
+        while (timesToCurrent.size() < DECISIONS && Instant.now().isBefore(deadline)) {
+            passes++;
+            Instant admissionStart = Instant.now();
+            driver.reconcileRequests(CONTROLLER_NS);
+            Duration admissionPass = Duration.between(admissionStart, Instant.now());
+            int admittedNow = countAdmitted();
+            if (admittedNow > admitted) {
+                admissionTime = admissionTime.plus(admissionPass);
+                admitted = admittedNow;
+            }
+            driver.reconcileDecisions();
+            driver.reconcileVersions();
+            collectCurrent(created, timesToCurrent);
+            peakHeap = Math.max(peakHeap, getUsedHeap());
+            LOGGER.info("Pass {}: {} admitted, {} CURRENT, {} API calls", passes, admitted, timesToCurrent.size(), driver.getTotalApiCalls());
+            // Lets the simulated controllers catch up, the operator would be waiting for their watch events
+            Thread.sleep(PASS_INTERVAL.toMillis());
+        }
+        Duration elapsed = Duration.between(start, Instant.now());
+        System.gc();
+
+        //Then
+        FleetLoadReport report = new FleetLoadReport(CUSTOMERS, DECISIONS, passes, elapsed, admitted, admissionTime,
+                List.copyOf(timesToCurrent.values()), driver.getApiCalls(), driver.getFailures(), peakHeap, getUsedHeap());
+        LOGGER.info("Fleet load report: {}", report);
+        report.write(Paths.get("target", "fleet-load-report.json"));
+        assertThat(admitted, is(DECISIONS));
+        assertThat(report.getCurrent(), is(DECISIONS));
+    }
+
+    @AfterEach
+    void cleanUpFleet() {
+        if (cluster != null) {
+            cluster.close();
+        }
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String namespace = getNamespace(getCustomer(i));
+            client.customResources(Decision.class).inNamespace(namespace).delete();
+            client.customResources(DecisionVersion.class).inNamespace(namespace).delete();
+            client.customResources(KogitoRuntime.class).inNamespace(namespace).delete();
+            networkingTestUtils.cleanUp(namespace);
+            client.secrets().inNamespace(namespace).delete();
+            client.namespaces().withName(namespace).delete();
+        }
+        client.customResources(PipelineRun.class).inNamespace(CONTROLLER_NS).delete();
+        client.customResources(DecisionRequest.class).inNamespace(CONTROLLER_NS).delete();
+        client.secrets().inNamespace(CONTROLLER_NS).withName(DASHBOARD_AUTH_SECRET).delete();
+    }
+
+    private void collectCurrent(Map<String, Instant> created, Map<String, Duration> timesToCurrent) {
+        Instant now = Instant.now();
+        client.customResources(Decision.class).inAnyNamespace().list().getItems().stream()
+                .filter(d -> d.getStatus() != null && d.getStatus().getEndpoint() != null)
+                .filter(d -> Objects.equals(d.getStatus().getVersionId(), d.getSpec().getDefinition().getVersion()))
+                .map(d -> getKey(d.getMetadata().getNamespace(), d.getMetadata().getName()))
+                .filter(key -> !timesToCurrent.containsKey(key) && created.containsKey(key))
+                .forEach(key -> timesToCurrent.put(key, Duration.between(created.get(key), now)));
+    }
+
+    private int countAdmitted() {
+        return (int) client.customResources(DecisionRequest.class).inNamespace(CONTROLLER_NS).list().getItems().stream()
+                .filter(r -> r.getStatus() != null && AdmissionStatus.SUCCESS.equals(r.getStatus().getState()))
+                .count();
+    }
+
+    private void createDashboardCredentials() {
+        client.secrets().inNamespace(CONTROLLER_NS).createOrReplace(new SecretBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName(DASHBOARD_AUTH_SECRET)
+                        .withNamespace(CONTROLLER_NS)
+                        .build())
+                .withData(Map.of(
+                        "bootstrapservers", encode("dashboard-kafka-bootstrap:9093"),
+                        CLIENTID_KEY, encode("dashboard"),
+                        CLIENTSECRET_KEY, encode("dashboard-secret")))
+                .build());
+    }
+
+    private static DecisionRequest buildRequest(String customer, String name) {
+        return new DecisionRequestBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName(customer + "-" + name)
+                        .withNamespace(CONTROLLER_NS)
+                        .build())
+                .withSpec(new DecisionRequestSpec()
+                        .setCustomerId(customer)
+                        .setName(name)
+                        .setVersion("1")
+                        .setSource(URI.create("https://baaas-load.s3.amazonaws.com/" + customer + "/" + name + ".dmn"))
+                        .setKafka(new KafkaRequest()
+                                .setBootstrapServers(customer + "-kafka-bootstrap:9093")
+                                .setInputTopic(name + "-requests")
+                                .setOutputTopic(name + "-responses")
+                                .setCredential(new KafkaCredential()
+                                        .setClientId(customer + "-client")
+                                        .setClientSecret(customer + "-secret"))))
+                .build();
+    }
+
+    private static long getUsedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static String getCustomer(int index) {
+        return String.format("load-customer-%03d", index);
+    }
+
+    private static String getNamespace(String customer) {
+        return "baaas-" + customer;
+    }
+
+    private static String getKey(String namespace, String name) {
+        return namespace + "/" + name;
+    }
+
+    private static String encode(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionRequest;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.controller.BackoffEventSource;
+import org.kie.baaas.dfs.controller.DecisionController;
+import org.kie.baaas.dfs.controller.DecisionRequestController;
+import org.kie.baaas.dfs.controller.DecisionVersionController;
+import org.kie.baaas.dfs.controller.ResyncEventSource;
+import org.kie.baaas.dfs.controller.ShardEventSource;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.client.CustomResource;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.openshift.client.server.mock.OpenShiftServer;
+import io.javaoperatorsdk.operator.api.Context;
+import io.javaoperatorsdk.operator.api.DefaultContext;
+import io.javaoperatorsdk.operator.api.ResourceController;
+import io.javaoperatorsdk.operator.api.UpdateControl;
+import io.javaoperatorsdk.operator.processing.event.Event;
+import io.javaoperatorsdk.operator.processing.event.EventList;
+import io.javaoperatorsdk.operator.processing.event.EventSource;
+import io.javaoperatorsdk.operator.processing.event.EventSourceManager;
+import io.javaoperatorsdk.operator.processing.event.internal.CustomResourceEvent;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Calls the controllers the way the operator's event dispatcher would and applies the returned {@link UpdateControl}.
+ * A pass over a resource type runs {@code baaas.load.callers} reconciles at a time, so that the controllers see
+ * concurrent callers. The controllers are initialized once per application, the events of their event sources are
+ * collected per resource and handed to its next reconcile in its {@link Context}, as the SDK would after coalescing
+ * them; a reconcile without any gets the event of the resource itself. Every API call made during a pass is attributed
+ * to the reconciled resource type.
+ */
+public class ReconcileDriver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReconcileDriver.class);
+
+    private static final int CALLERS = Integer.getInteger("baaas.load.callers", 8);
+
+    // The controllers are application scoped, initializing them again would open their watches again
+    private static final Set<ResourceController<?>> INITIALIZED = ConcurrentHashMap.newKeySet();
+    private static final Map<String, EventSource> EVENT_SOURCES = new ConcurrentHashMap<>();
+    private static volatile ReconcileDriver active;
+
+    private final KubernetesClient client;
+    private final OpenShiftServer server;
+    private final DecisionRequestController requestController;
+    private final DecisionController decisionController;
+    private final DecisionVersionController versionController;
+    private final int callers;
+    private final Map<String, List<Event>> pendingEvents = new ConcurrentHashMap<>();
+    private final Map<String, Long> apiCalls = Collections.synchronizedMap(new TreeMap<>());
+    private final Map<String, Long> reconciles = Collections.synchronizedMap(new TreeMap<>());
+    private final Map<String, Long> failures = Collections.synchronizedMap(new TreeMap<>());
+    private final Map<String, Long> events = Collections.synchronizedMap(new TreeMap<>());
+
+    public ReconcileDriver(KubernetesClient client, OpenShiftServer server, DecisionRequestController requestController,
+            DecisionController decisionController, DecisionVersionController versionController) {
+        this(client, server, requestController, decisionController, versionController, CALLERS);
+    }
+
+    public ReconcileDriver(KubernetesClient client, OpenShiftServer server, DecisionRequestController requestController,
+            DecisionController decisionController, DecisionVersionController versionController, int callers) {
+        this.client = client;
+        this.server = server;
+        this.requestController = requestController;
+        this.decisionController = decisionController;
+        this.versionController = versionController;
+        this.callers = Math.max(1, callers);
+        active = this;
+        init(requestController);
+        init(decisionController);
+        init(versionController);
+    }
+
+    public void reconcileRequests(String namespace) {
+        reconcileAll(DecisionRequest.class, client.customResources(DecisionRequest.class).inNamespace(namespace).list().getItems(), requestController);
+    }
+
+    public void reconcileRequest(DecisionRequest request) {
+        reconcileAll(DecisionRequest.class, List.of(request), requestController);
+    }
+
+    public void reconcileDecisions() {
+        reconcileAll(Decision.class, ensureUids(Decision.class, client.customResources(Decision.class).inAnyNamespace().list().getItems()), decisionController);
+    }
+
+    public void reconcileDecision(Decision decision) {
+        reconcileAll(Decision.class, List.of(ensureUid(Decision.class, decision)), decisionController);
+    }
+
+    public void reconcileVersions() {
+        reconcileAll(DecisionVersion.class, ensureUids(DecisionVersion.class, client.customResources(DecisionVersion.class).inAnyNamespace().list().getItems()),
+                versionController);
+    }
+
+    public void reconcileVersion(DecisionVersion version) {
+        reconcileAll(DecisionVersion.class, List.of(ensureUid(DecisionVersion.class, version)), versionController);
+    }
+
+    public Map<String, Long> getApiCalls() {
+        return apiCalls;
+    }
+
+    public Map<String, Long> getReconciles() {
+        return reconciles;
+    }
+
+    public Map<String, Long> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return per event type, the events the event sources delivered
+     */
+    public Map<String, Long> getEvents() {
+        return events;
+    }
+
+    public long getTotalApiCalls() {
+        synchronized (apiCalls) {
+            return apiCalls.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    // Each of these opens a watch, backoff, shard and resync triggers do not
+    public int getEventSourceCount() {
+        return (int) EVENT_SOURCES.values().stream()
+                .filter(s -> !(s instanceof BackoffEventSource) && !(s instanceof ShardEventSource) && !(s instanceof ResyncEventSource))
+                .count();
+    }
+
+    public Map<String, EventSource> getEventSources() {
+        return EVENT_SOURCES;
+    }
+
+    private <R extends CustomResource<?, ?>> void reconcileAll(Class<R> type, List<R> resources, ResourceController<R> controller) {
+        if (resources.isEmpty()) {
+            return;
+        }
+        String kind = type.getSimpleName();
+        long before = requestCount();
+        if (resources.size() == 1 || callers == 1) {
+            resources.forEach(resource -> reconcile(type, resource, controller));
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(callers, resources.size()), new DriverThreadFactory(kind));
+            try {
+                resources.forEach(resource -> executor.execute(() -> reconcile(type, resource, controller)));
+            } finally {
+                executor.shutdown();
+            }
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+            }
+        }
+        apiCalls.merge(kind, requestCount() - before, Long::sum);
+    }
+
+    private <R extends CustomResource<?, ?>> void reconcile(Class<R> type, R resource, ResourceController<R> controller) {
+        String kind = type.getSimpleName();
+        try {
+            apply(type, controller.createOrUpdateResource(resource, getContext(resource)));
+        } catch (RuntimeException e) {
+            // The operator would log it and retry on the next event, which is what the next pass does
+            LOGGER.debug("Reconcile of {} {}/{} failed", kind, resource.getMetadata().getNamespace(), resource.getMetadata().getName(), e);
+            failures.merge(kind, 1L, Long::sum);
+        }
+        reconciles.merge(kind, 1L, Long::sum);
+    }
+
+    private <R extends CustomResource<?, ?>> Context<R> getContext(R resource) {
+        List<Event> triggers = resource.getMetadata().getUid() == null ? null : pendingEvents.remove(resource.getMetadata().getUid());
+        if (triggers == null || triggers.isEmpty()) {
+            triggers = List.of(new CustomResourceEvent(Watcher.Action.MODIFIED, resource, null));
+        }
+        return new DefaultContext<>(new EventList(new ArrayList<>(triggers)), null);
+    }
+
+    private <R extends CustomResource<?, ?>> void apply(Class<R> type, UpdateControl<R> control) {
+        if (control == null || control.getCustomResource() == null) {
+            return;
+        }
+        R resource = control.getCustomResource();
+        if (control.isUpdateCustomResource() || control.isUpdateCustomResourceAndStatusSubResource()) {
+            resource = client.customResources(type).inNamespace(resource.getMetadata().getNamespace()).replace(resource);
+        }
+        if (control.isUpdateStatusSubResource() || control.isUpdateCustomResourceAndStatusSubResource()) {
+            client.customResources(type).inNamespace(resource.getMetadata().getNamespace()).updateStatus(resource);
+        }
+    }
+
+    // The mock server does not assign uids, which the controllers rely on for owner references
+    public <R extends CustomResource<?, ?>> R ensureUid(Class<R> type, R resource) {
+        if (resource.getMetadata().getUid() != null) {
+            return resource;
+        }
+        resource.getMetadata().setUid(UUID.randomUUID().toString());
+        return client.customResources(type).inNamespace(resource.getMetadata().getNamespace()).replace(resource);
+    }
+
+    private <R extends CustomResource<?, ?>> List<R> ensureUids(Class<R> type, List<R> resources) {
+        List<R> result = new ArrayList<>(resources.size());
+        resources.forEach(resource -> result.add(ensureUid(type, resource)));
+        return result;
+    }
+
+    private long requestCount() {
+        return server.getOpenShiftMockServer().getRequestCount();
+    }
+
+    private void onEvent(Event event) {
+        events.merge(event.getClass().getSimpleName(), 1L, Long::sum);
+        if (event.getRelatedCustomResourceUid() != null) {
+            pendingEvents.computeIfAbsent(event.getRelatedCustomResourceUid(), uid -> Collections.synchronizedList(new ArrayList<>())).add(event);
+        }
+    }
+
+    // Event sources outlive the driver that initialized their controller, their events go to the latest one
+    private static void dispatch(Event event) {
+        ReconcileDriver driver = active;
+        if (driver != null) {
+            driver.onEvent(event);
+        }
+    }
+
+    private static void init(ResourceController<?> controller) {
+        if (!INITIALIZED.add(controller)) {
+            return;
+        }
+        EventSourceManager eventSourceManager = Mockito.mock(EventSourceManager.class);
+        doAnswer(i -> {
+            EventSource eventSource = i.getArgument(1);
+            eventSource.setEventHandler(ReconcileDriver::dispatch);
+            return EVENT_SOURCES.put(i.getArgument(0), eventSource);
+        }).when(eventSourceManager).registerEventSource(anyString(), any(EventSource.class));
+        doAnswer(i -> Optional.ofNullable(EVENT_SOURCES.remove(i.getArgument(0))))
+                .when(eventSourceManager).deRegisterEventSource(anyString());
+        when(eventSourceManager.getRegisteredEventSources()).thenReturn(EVENT_SOURCES);
+        controller.init(eventSourceManager);
+    }
+
+    private static class DriverThreadFactory implements ThreadFactory {
+
+        private final String kind;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private DriverThreadFactory(String kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "reconcile-driver-" + kind + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.controller.AbstractControllerTest;
+import org.kie.baaas.dfs.controller.DecisionController;
+import org.kie.baaas.dfs.controller.DecisionRequestController;
+import org.kie.baaas.dfs.controller.DecisionVersionController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.quarkus.test.junit.QuarkusTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Replays watch event traces recorded with {@code baaas.trace.file}. Pass one with
+ * {@code -Dbaaas.trace.replay=<file> -Dbaaas.trace.speed=1x|max} to reproduce a reconcile storm offline.
+ */
+@QuarkusTest
+class TraceReplayTest extends AbstractControllerTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TraceReplayTest.class);
+
+    @Inject
+    DecisionRequestController requestController;
+
+    @Inject
+    DecisionController decisionController;
+
+    @Inject
+    DecisionVersionController versionController;
+
+    @Inject
+    OpenShiftClient openShiftClient;
+
+    private ReconcileDriver driver;
+
+    @BeforeEach
+    void createDriver() {
+        driver = new ReconcileDriver(client, server, requestController, decisionController, versionController);
+    }
+
+    @Test
+    void testReplaySampleTrace() throws IOException {
+        //Given
+        TraceReplayer replayer = new TraceReplayer(openShiftClient, driver);
+
+        //When
+        TraceReplayer.Result result;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                TraceReplayTest.class.getResourceAsStream("/traces/sample-trace.jsonl"), StandardCharsets.UTF_8))) {
+            result = replayer.replay(reader, TraceReplayer.Speed.MAX);
+        }
+
+        //Then
+        assertThat(result.getEvents(), is(7));
+        assertThat(result.getSkipped(), is(0));
+        assertThat(result.getReconciles(), greaterThan(0));
+        assertThat(driver.getFailures(), is(anEmptyMap()));
+        DecisionVersion version = client.customResources(DecisionVersion.class).inNamespace(CUSTOMER_NS).withName("some-decision-1").get();
+        assertThat(version, is(notNullValue()));
+        assertThat(version.getMetadata().getUid(), equalTo("8e4f2c10-6d3b-4a2e-b1c9-5f7a0d2e4c63"));
+    }
+
+    @Test
+    @Tag("load")
+    void testReplayTrace() {
+        String trace = System.getProperty("baaas.trace.replay");
+        assumeTrue(trace != null, "No trace given with -Dbaaas.trace.replay");
+
+        TraceReplayer.Result result = new TraceReplayer(openShiftClient, driver)
+                .replay(Paths.get(trace), TraceReplayer.Speed.parse(System.getProperty("baaas.trace.speed", "max")));
+
+        LOGGER.info("Replayed {}: {}. API calls: {}. Failed reconciles: {}", trace, result, driver.getApiCalls(), driver.getFailures());
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.api.model.networking.v1.Ingress;
+import io.fabric8.kubernetes.client.dsl.base.CustomResourceDefinitionContext;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.fabric8.openshift.api.model.Route;
+import io.fabric8.openshift.client.OpenShiftClient;
+
+import static org.kie.baaas.dfs.controller.DecisionLabels.DECISION_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.OWNER_UID_LABEL;
+import static org.kie.baaas.dfs.service.JsonResourceUtils.getLabel;
+import static org.kie.baaas.dfs.service.JsonResourceUtils.getName;
+import static org.kie.baaas.dfs.service.JsonResourceUtils.getNamespace;
+import static org.kie.baaas.dfs.service.KogitoService.KOGITO_RUNTIME_CONTEXT;
+import static org.kie.baaas.dfs.service.PipelineService.PIPELINE_RUN_CONTEXT;
+
+/**
+ * Feeds a trace written by the operator's WatchEventRecorder back into the controllers. Each event is applied to the
+ * mock server and the Decisions and DecisionVersions it relates to are reconciled, the same way the event sources would
+ * route it. Replay is sequential, so the same trace always produces the same reconciles.
+ */
+public class TraceReplayer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TraceReplayer.class);
+
+    public enum Speed {
+        /**
+         * Keeps the recorded gaps between events.
+         */
+        REAL_TIME,
+        /**
+         * Replays the next event as soon as the previous one has been reconciled.
+         */
+        MAX;
+
+        public static Speed parse(String value) {
+            return "1x".equals(value) ? REAL_TIME : valueOf(value.toUpperCase());
+        }
+    }
+
+    private final OpenShiftClient client;
+    private final ReconcileDriver driver;
+    private String traceNamespace;
+
+    public TraceReplayer(OpenShiftClient client, ReconcileDriver driver) {
+        this.client = client;
+        this.driver = driver;
+    }
+
+    public Result replay(Path trace, Speed speed) {
+        try (InputStream is = open(trace); BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            return replay(reader, speed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Result replay(BufferedReader reader, Speed speed) throws IOException {
+        Result result = new Result();
+        Instant start = Instant.now();
+        Long firstTs = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonObject event = parse(line);
+            if ("trace".equals(event.getString("kind"))) {
+                traceNamespace = event.getString("namespace", null);
+                continue;
+            }
+            long ts = event.getJsonNumber("ts").longValue();
+            if (firstTs == null) {
+                firstTs = ts;
+            }
+            if (speed == Speed.REAL_TIME) {
+                sleepUntil(start.plusMillis(ts - firstTs));
+            }
+            result.events++;
+            JsonObject object = toMockNamespace(event.getJsonObject("object"));
+            if (!apply(event.getString("kind"), event.getString("action"), object)) {
+                result.skipped++;
+                continue;
+            }
+            result.reconciles += reconcile(getRelatedUids(event.getString("kind"), object));
+        }
+        result.elapsed = Duration.between(start, Instant.now());
+        LOGGER.info("Replayed {}", result);
+        return result;
+    }
+
+    private boolean apply(String kind, String action, JsonObject object) {
+        if ("ERROR".equals(action)) {
+            return false;
+        }
+        boolean deleted = "DELETED".equals(action);
+        String namespace = getNamespace(object);
+        String name = getName(object);
+        try {
+            switch (kind) {
+                case "decisions":
+                    if (deleted) {
+                        client.customResources(Decision.class).inNamespace(namespace).withName(name).delete();
+                    } else {
+                        client.customResources(Decision.class).inNamespace(namespace).createOrReplace(Serialization.unmarshal(object.toString(), Decision.class));
+                    }
+                    return true;
+                case "decisionversions":
+                    if (deleted) {
+                        client.customResources(DecisionVersion.class).inNamespace(namespace).withName(name).delete();
+                    } else {
+                        client.customResources(DecisionVersion.class).inNamespace(namespace).createOrReplace(Serialization.unmarshal(object.toString(), DecisionVersion.class));
+                    }
+                    return true;
+                case "pipelineruns":
+                    return applyGeneric(PIPELINE_RUN_CONTEXT, deleted, namespace, name, object);
+                case "kogitoruntimes":
+                    return applyGeneric(KOGITO_RUNTIME_CONTEXT, deleted, namespace, name, object);
+                case "routes":
+                    if (deleted) {
+                        client.routes().inNamespace(namespace).withName(name).delete();
+                    } else {
+                        client.routes().inNamespace(namespace).createOrReplace(Serialization.unmarshal(object.toString(), Route.class));
+                    }
+                    return true;
+                case "ingresses":
+                    if (deleted) {
+                        client.network().v1().ingresses().inNamespace(namespace).withName(name).delete();
+                    } else {
+                        client.network().v1().ingresses().inNamespace(namespace).createOrReplace(Serialization.unmarshal(object.toString(), Ingress.class));
+                    }
+                    return true;
+                default:
+                    LOGGER.debug("Skipping event for unknown kind {}", kind);
+                    return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean applyGeneric(CustomResourceDefinitionContext context, boolean deleted, String namespace, String name, JsonObject object) throws IOException {
+        if (deleted) {
+            client.customResource(context).delete(namespace, name);
+        } else {
+            client.customResource(context).createOrReplace(namespace, object.toString());
+        }
+        return true;
+    }
+
+    // Same routing as the event sources: owners, the owner uid label and, for a Decision, its versions
+    private Set<String> getRelatedUids(String kind, JsonObject object) {
+        Set<String> uids = new HashSet<>();
+        JsonObject metadata = object.getJsonObject("metadata");
+        if (metadata.containsKey("ownerReferences")) {
+            metadata.getJsonArray("ownerReferences").forEach(o -> uids.add(o.asJsonObject().getString("uid")));
+        }
+        String ownerUid = getLabel(object, OWNER_UID_LABEL);
+        if (ownerUid != null) {
+            uids.add(ownerUid);
+        }
+        if ("decisions".equals(kind)) {
+            client.customResources(DecisionVersion.class).inNamespace(getNamespace(object)).withLabel(DECISION_LABEL, getName(object))
+                    .list().getItems().forEach(v -> uids.add(v.getMetadata().getUid()));
+        }
+        return uids;
+    }
+
+    private int reconcile(Set<String> uids) {
+        if (uids.isEmpty()) {
+            return 0;
+        }
+        int reconciles = 0;
+        for (Decision decision : client.customResources(Decision.class).inAnyNamespace().list().getItems()) {
+            if (uids.contains(decision.getMetadata().getUid())) {
+                driver.reconcileDecision(decision);
+                reconciles++;
+            }
+        }
+        for (DecisionVersion version : client.customResources(DecisionVersion.class).inAnyNamespace().list().getItems()) {
+            if (uids.contains(version.getMetadata().getUid())) {
+                driver.reconcileVersion(version);
+                reconciles++;
+            }
+        }
+        return reconciles;
+    }
+
+    // Resources recorded in the operator namespace, e.g. PipelineRuns, belong in the mock client's namespace.
+    // The recorded resourceVersion would not match the mock server's.
+    private JsonObject toMockNamespace(JsonObject object) {
+        JsonObject metadata = object.getJsonObject("metadata");
+        JsonObjectBuilder builder = Json.createObjectBuilder(metadata).remove("resourceVersion");
+        if (traceNamespace != null && Objects.equals(traceNamespace, metadata.getString("namespace", null))) {
+            builder.add("namespace", client.getNamespace());
+        }
+        return Json.createObjectBuilder(object).add("metadata", builder).build();
+    }
+
+    private static JsonObject parse(String line) {
+        try (JsonReader reader = Json.createReader(new StringReader(line))) {
+            return reader.readObject();
+        }
+    }
+
+    private static InputStream open(Path trace) throws IOException {
+        InputStream is = Files.newInputStream(trace);
+        return trace.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(is) : is;
+    }
+
+    private static void sleepUntil(Instant instant) {
+        long millis = Duration.between(Instant.now(), instant).toMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class Result {
+
+        private int events;
+        private int skipped;
+        private int reconciles;
+        private Duration elapsed = Duration.ZERO;
+
+        public int getEvents() {
+            return events;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public int getReconciles() {
+            return reconciles;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d events (%d skipped), %d reconciles in %dms", events, skipped, reconciles, elapsed.toMillis());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.load;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+
+/**
+ * Cost of the watches and event sources the operator keeps per DecisionVersion, measured at increasing fleet sizes.
+ */
+public class WatchScalingReport {
+
+    private static final double KB = 1024;
+
+    private final int baselineWatches;
+    private final int baselineThreads;
+    private final long baselineHeap;
+    private final List<Sample> samples = new ArrayList<>();
+
+    public WatchScalingReport(int baselineWatches, int baselineThreads, long baselineHeap) {
+        this.baselineWatches = baselineWatches;
+        this.baselineThreads = baselineThreads;
+        this.baselineHeap = baselineHeap;
+    }
+
+    public Sample add(int versions, int watches, int eventSources, int threads, long heapAfterGc, List<Duration> dispatchLatencies) {
+        Sample sample = new Sample(versions, watches, eventSources, threads, heapAfterGc, dispatchLatencies);
+        samples.add(sample);
+        return sample;
+    }
+
+    public List<Sample> getSamples() {
+        return samples;
+    }
+
+    public JsonObject toJson() {
+        JsonArrayBuilder sizes = Json.createArrayBuilder();
+        samples.forEach(s -> sizes.add(Json.createObjectBuilder()
+                .add("versions", s.versions)
+                .add("watches", s.watches)
+                .add("watchesPerVersion", s.getWatchesPerVersion())
+                .add("eventSources", s.eventSources)
+                .add("threads", s.threads)
+                .add("threadsPerVersion", s.getThreadsPerVersion())
+                .add("heapAfterGcKb", s.heapAfterGc / KB)
+                .add("heapPerVersionKb", s.getHeapPerVersion() / KB)
+                .add("dispatchLatencyMs", Json.createObjectBuilder()
+                        .add("samples", s.dispatchLatencies.size())
+                        .add("p50", s.getDispatchLatency(50).toMillis())
+                        .add("p99", s.getDispatchLatency(99).toMillis())
+                        .add("max", s.getDispatchLatency(100).toMillis()))));
+        return Json.createObjectBuilder()
+                .add("baseline", Json.createObjectBuilder()
+                        .add("watches", baselineWatches)
+                        .add("threads", baselineThreads)
+                        .add("heapAfterGcKb", baselineHeap / KB))
+                .add("sizes", sizes)
+                .build();
+    }
+
+    public void write(Path file) {
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, toJson().toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        samples.forEach(s -> sb.append(String.format("%n%6d versions: %.2f watches/version, %d event sources, %.2f threads/version, "
+                + "%.1fKB heap/version, dispatch p50=%dms p99=%dms",
+                s.versions, s.getWatchesPerVersion(), s.eventSources, s.getThreadsPerVersion(), s.getHeapPerVersion() / KB,
+                s.getDispatchLatency(50).toMillis(), s.getDispatchLatency(99).toMillis())));
+        return sb.toString();
+    }
+
+    public class Sample {
+
+        private final int versions;
+        private final int watches;
+        private final int eventSources;
+        private final int threads;
+        private final long heapAfterGc;
+        private final List<Duration> dispatchLatencies;
+
+        private Sample(int versions, int watches, int eventSources, int threads, long heapAfterGc, List<Duration> dispatchLatencies) {
+            this.versions = versions;
+            this.watches = watches;
+            this.eventSources = eventSources;
+            this.threads = threads;
+            this.heapAfterGc = heapAfterGc;
+            this.dispatchLatencies = new ArrayList<>(dispatchLatencies);
+            Collections.sort(this.dispatchLatencies);
+        }
+
+        public int getVersions() {
+            return versions;
+        }
+
+        public int getDispatched() {
+            return dispatchLatencies.size();
+        }
+
+        public double getWatchesPerVersion() {
+            return (double) (watches - baselineWatches) / versions;
+        }
+
+        public double getThreadsPerVersion() {
+            return (double) (threads - baselineThreads) / versions;
+        }
+
+        public double getHeapPerVersion() {
+            return (double) (heapAfterGc - baselineHeap) / versions;
+        }
+
+        /**
+         * Nearest-rank percentile of the time from a Decision update to the owned version's event reaching the handler.
+         */
+        public Duration getDispatchLatency(double percentile) {
+            if (dispatchLatencies.isEmpty()) {
+                return Duration.ZERO;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * dispatchLatencies.size());
+            return dispatchLatencies.get(Math.max(0, rank - 1));
+        }
+    }
+}
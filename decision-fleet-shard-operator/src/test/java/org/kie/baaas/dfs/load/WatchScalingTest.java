@@ -0,0 +1,244 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.load;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionBuilder;
+import org.kie.baaas.dfs.api.DecisionSpec;
+import org.kie.baaas.dfs.api.DecisionVersion;
+import org.kie.baaas.dfs.api.DecisionVersionBuilder;
+import org.kie.baaas.dfs.api.DecisionVersionSpec;
+import org.kie.baaas.dfs.api.DecisionVersionStatus;
+import org.kie.baaas.dfs.app.OpenShiftServerPatch;
+import org.kie.baaas.dfs.controller.AbstractControllerTest;
+import org.kie.baaas.dfs.controller.DecisionController;
+import org.kie.baaas.dfs.controller.DecisionRequestController;
+import org.kie.baaas.dfs.controller.DecisionVersionController;
+import org.kie.baaas.dfs.model.PipelineRun;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.javaoperatorsdk.operator.processing.event.Event;
+import io.javaoperatorsdk.operator.processing.event.EventHandler;
+import io.quarkus.test.junit.QuarkusTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.kie.baaas.dfs.controller.DecisionLabels.CUSTOMER_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.DECISION_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.MANAGED_BY_LABEL;
+import static org.kie.baaas.dfs.controller.DecisionLabels.OPERATOR_NAME;
+
+/**
+ * Grows the fleet to 1k, 5k and 10k DecisionVersions and records the open watches, threads, heap after GC and the
+ * latency of dispatching a Decision change to the owned version at each size.
+ * Sizes are set with {@code -Dbaaas.scaling.sizes=1000,5000,10000}. The report is written to {@code target/watch-scaling-report.json}.
+ */
+@QuarkusTest
+@Tag("load")
+class WatchScalingTest extends AbstractControllerTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WatchScalingTest.class);
+
+    private static final List<Integer> SIZES = Arrays.stream(System.getProperty("baaas.scaling.sizes", "1000,5000,10000").split(","))
+            .map(String::trim)
+            .map(Integer::valueOf)
+            .collect(Collectors.toList());
+    private static final int CUSTOMERS = Integer.getInteger("baaas.scaling.customers", 100);
+    private static final int DISPATCH_SAMPLES = Integer.getInteger("baaas.scaling.dispatch-samples", 100);
+    private static final double MAX_WATCHES_PER_VERSION = Double.parseDouble(System.getProperty("baaas.scaling.max-watches-per-version", "1"));
+    private static final double MAX_HEAP_PER_VERSION_KB = Double.parseDouble(System.getProperty("baaas.scaling.max-heap-per-version-kb", "512"));
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    @Inject
+    DecisionRequestController requestController;
+
+    @Inject
+    DecisionController decisionController;
+
+    @Inject
+    DecisionVersionController versionController;
+
+    @Test
+    void testWatchAndHeapScaling() throws InterruptedException {
+        //Given
+        OpenShiftServerPatch patch = (OpenShiftServerPatch) server;
+        ReconcileDriver driver = new ReconcileDriver(client, server, requestController, decisionController, versionController);
+        DispatchLatencyHandler handler = new DispatchLatencyHandler();
+        WatchScalingReport report = new WatchScalingReport(patch.getWatchRequestCount(), getThreadCount(), getHeapAfterGc());
+        List<Decision> decisions = new ArrayList<>();
+
+        for (int size : SIZES) {
+            //When
+            for (int i = decisions.size(); i < size; i++) {
+                decisions.add(createDecision(driver, i));
+            }
+            awaitWatches(patch, driver.getEventSourceCount(), size);
+            driver.getEventSources().values().forEach(s -> s.setEventHandler(handler));
+            List<Duration> latencies = measureDispatch(decisions, handler);
+
+            //Then
+            WatchScalingReport.Sample sample = report.add(size, patch.getWatchRequestCount(), driver.getEventSourceCount(), getThreadCount(),
+                    getHeapAfterGc(), latencies);
+            LOGGER.info("{} DecisionVersions: {}", size, report);
+            assertThat(sample.getDispatched(), is(Math.min(size, DISPATCH_SAMPLES)));
+            assertThat(sample.getWatchesPerVersion(), lessThanOrEqualTo(MAX_WATCHES_PER_VERSION));
+            assertThat(sample.getHeapPerVersion() / 1024, lessThanOrEqualTo(MAX_HEAP_PER_VERSION_KB));
+        }
+        LOGGER.info("Watch scaling report: {}", report);
+        report.write(Paths.get("target", "watch-scaling-report.json"));
+    }
+
+    @AfterEach
+    void cleanUpVersions() {
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String namespace = getNamespace(getCustomer(i));
+            client.customResources(Decision.class).inNamespace(namespace).delete();
+            client.customResources(DecisionVersion.class).inNamespace(namespace).delete();
+        }
+        client.customResources(PipelineRun.class).inNamespace(CONTROLLER_NS).delete();
+    }
+
+    private Decision createDecision(ReconcileDriver driver, int index) {
+        String customer = getCustomer(index % CUSTOMERS);
+        String namespace = getNamespace(customer);
+        String name = "decision-" + index;
+        DecisionVersionSpec definition = new DecisionVersionSpec()
+                .setVersion("1")
+                .setSource(URI.create("https://baaas-scaling.s3.amazonaws.com/" + customer + "/" + name + ".dmn"));
+        Decision decision = client.customResources(Decision.class).inNamespace(namespace).create(new DecisionBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName(name)
+                        .withNamespace(namespace)
+                        .addToLabels(MANAGED_BY_LABEL, OPERATOR_NAME)
+                        .addToLabels(CUSTOMER_LABEL, customer)
+                        .build())
+                .withSpec(new DecisionSpec().setDefinition(definition))
+                .build());
+        DecisionVersion version = client.customResources(DecisionVersion.class).inNamespace(namespace).create(new DecisionVersionBuilder()
+                .withMetadata(new ObjectMetaBuilder()
+                        .withName(name + "-1")
+                        .withNamespace(namespace)
+                        .withUid(UUID.randomUUID().toString())
+                        .addToLabels(MANAGED_BY_LABEL, OPERATOR_NAME)
+                        .addToLabels(CUSTOMER_LABEL, customer)
+                        .addToLabels(DECISION_LABEL, name)
+                        .build())
+                .withSpec(definition)
+                .withStatus(new DecisionVersionStatus())
+                .build());
+        driver.reconcileVersion(version);
+        return decision;
+    }
+
+    // Watches are opened asynchronously, events sent before the server registered one would be lost
+    private void awaitWatches(OpenShiftServerPatch patch, int eventSources, int size) throws InterruptedException {
+        Instant deadline = Instant.now().plus(TIMEOUT);
+        while (patch.getWatchRequestCount() < eventSources && Instant.now().isBefore(deadline)) {
+            Thread.sleep(100);
+        }
+        LOGGER.info("{} watches open for {} DecisionVersions", patch.getWatchRequestCount(), size);
+    }
+
+    private List<Duration> measureDispatch(List<Decision> decisions, DispatchLatencyHandler handler) throws InterruptedException {
+        int step = Math.max(1, decisions.size() / DISPATCH_SAMPLES);
+        List<Duration> latencies = new ArrayList<>();
+        for (int i = 0; i < decisions.size() && latencies.size() < DISPATCH_SAMPLES; i += step) {
+            Decision decision = decisions.get(i);
+            String versionUid = client.customResources(DecisionVersion.class).inNamespace(decision.getMetadata().getNamespace())
+                    .withName(decision.getMetadata().getName() + "-1").get().getMetadata().getUid();
+            handler.expect(versionUid);
+            Decision current = client.customResources(Decision.class).inNamespace(decision.getMetadata().getNamespace())
+                    .withName(decision.getMetadata().getName()).get();
+            current.getMetadata().setAnnotations(Map.of("baaas.scaling/touched", Instant.now().toString()));
+            client.customResources(Decision.class).inNamespace(decision.getMetadata().getNamespace()).replace(current);
+            Duration latency = handler.await(versionUid, TIMEOUT);
+            if (latency != null) {
+                latencies.add(latency);
+            }
+        }
+        return latencies;
+    }
+
+    private static int getThreadCount() {
+        return ManagementFactory.getThreadMXBean().getThreadCount();
+    }
+
+    private static long getHeapAfterGc() throws InterruptedException {
+        System.gc();
+        Thread.sleep(200);
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static String getCustomer(int index) {
+        return String.format("scaling-customer-%03d", index);
+    }
+
+    private static String getNamespace(String customer) {
+        return "baaas-" + customer;
+    }
+
+    /**
+     * Stands in for the operator's DefaultEventHandler and times the first event received for each expected version.
+     */
+    private static class DispatchLatencyHandler implements EventHandler {
+
+        private final Map<String, Instant> expected = new ConcurrentHashMap<>();
+        private final Map<String, Duration> received = new ConcurrentHashMap<>();
+
+        void expect(String versionUid) {
+            received.remove(versionUid);
+            expected.put(versionUid, Instant.now());
+        }
+
+        Duration await(String versionUid, Duration timeout) throws InterruptedException {
+            Instant deadline = Instant.now().plus(timeout);
+            while (!received.containsKey(versionUid) && Instant.now().isBefore(deadline)) {
+                Thread.sleep(1);
+            }
+            expected.remove(versionUid);
+            return received.get(versionUid);
+        }
+
+        @Override
+        public void handleEvent(Event event) {
+            Instant start = expected.get(event.getRelatedCustomResourceUid());
+            if (start != null) {
+                received.putIfAbsent(event.getRelatedCustomResourceUid(), Duration.between(start, Instant.now()));
+            }
+        }
+    }
+}
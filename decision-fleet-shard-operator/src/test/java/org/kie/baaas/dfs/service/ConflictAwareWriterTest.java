@@ -0,0 +1,207 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.service;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.api.Decision;
+import org.kie.baaas.dfs.api.DecisionBuilder;
+import org.kie.baaas.dfs.api.DecisionStatus;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.javaoperatorsdk.operator.api.Context;
+import io.javaoperatorsdk.operator.api.RetryInfo;
+import io.javaoperatorsdk.operator.api.UpdateControl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConflictAwareWriterTest {
+
+    private final ConflictAwareWriter writer = new ConflictAwareWriter();
+
+    private final String uid = UUID.randomUUID().toString();
+
+    @BeforeEach
+    void init() {
+        writer.maxRetries = 2;
+    }
+
+    @Test
+    void testStatusReappliedOnRetry() {
+        //Given
+        Decision reconciled = decision(new DecisionStatus().setVersionId("2").setEndpoint(URI.create("http://some-decision")), "1");
+        writer.updateStatus(reconciled);
+        Decision latest = decision(new DecisionStatus().setVersionId("1"), "2");
+
+        //When
+        Optional<UpdateControl<Decision>> retry = writer.retryStatus(latest, retrying());
+
+        //Then
+        assertThat(retry.isPresent(), is(true));
+        assertThat(retry.get().isUpdateStatusSubResource(), is(true));
+        assertThat(retry.get().getCustomResource().getStatus(), equalTo(reconciled.getStatus()));
+        assertThat(writer.getStats(), equalTo(Map.of("Decision", Map.of(ConflictAwareWriter.CONFLICTS, 1L))));
+    }
+
+    @Test
+    void testReconcileRunsWithoutRetry() {
+        //Given
+        writer.updateStatus(decision(new DecisionStatus().setVersionId("2"), "1"));
+
+        //When
+        Optional<UpdateControl<Decision>> next = writer.retryStatus(decision(null, "2"), null);
+        Optional<UpdateControl<Decision>> retry = writer.retryStatus(decision(null, "2"), retrying());
+
+        //Then
+        assertThat(next.isPresent(), is(false));
+        // The status was written, later reconciles never reapply it
+        assertThat(retry.isPresent(), is(false));
+    }
+
+    @Test
+    void testStatusRetriesAreBounded() {
+        //Given
+        writer.updateStatus(decision(new DecisionStatus().setVersionId("2"), "1"));
+
+        //When
+        assertThat(writer.retryStatus(decision(null, "2"), retrying()).isPresent(), is(true));
+        assertThat(writer.retryStatus(decision(null, "3"), retrying()).isPresent(), is(true));
+        Optional<UpdateControl<Decision>> exhausted = writer.retryStatus(decision(null, "4"), retrying());
+
+        //Then
+        assertThat(exhausted.isPresent(), is(false));
+        assertThat(writer.getStats().get("Decision"), equalTo(Map.of(ConflictAwareWriter.CONFLICTS, 2L, ConflictAwareWriter.EXHAUSTED, 1L)));
+    }
+
+    @Test
+    void testStatusNotReappliedWithoutConflict() {
+        //Given
+        writer.updateStatus(decision(new DecisionStatus().setVersionId("2"), "1"));
+
+        //When
+        Optional<UpdateControl<Decision>> retry = writer.retryStatus(decision(null, "1"), retrying());
+
+        //Then
+        assertThat(retry.isPresent(), is(false));
+        assertThat(writer.getStats(), equalTo(Map.of()));
+    }
+
+    @Test
+    void testStatusNotReappliedWhenCacheLags() {
+        //Given
+        Decision reconciled = decision(null, "1");
+        writer.updateStatus(decision(new DecisionStatus().setVersionId("2"), "2"), reconciled);
+
+        //When
+        Optional<UpdateControl<Decision>> retry = writer.retryStatus(decision(null, "1"), retrying());
+
+        //Then
+        assertThat(retry.isPresent(), is(false));
+        assertThat(writer.getStats(), equalTo(Map.of()));
+    }
+
+    @Test
+    void testForgottenOnDelete() {
+        //Given
+        Decision reconciled = decision(new DecisionStatus().setVersionId("2"), "1");
+        writer.updateStatus(reconciled);
+
+        //When
+        writer.forget(reconciled);
+
+        //Then
+        assertThat(writer.retryStatus(decision(null, "2"), retrying()).isPresent(), is(false));
+    }
+
+    @Test
+    void testWriteRetriesConflicts() {
+        //Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        //When
+        String written = writer.write("KogitoRuntime", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new KubernetesClientException("conflict", 409, null);
+            }
+            return "written";
+        });
+
+        //Then
+        assertThat(written, is("written"));
+        assertThat(writer.getStats().get("KogitoRuntime"), equalTo(Map.of(ConflictAwareWriter.CONFLICTS, 2L)));
+    }
+
+    @Test
+    void testWriteWaitsBetweenConflicts() {
+        //Given
+        writer.retryDelayMs = 20;
+        AtomicInteger attempts = new AtomicInteger();
+        long start = System.nanoTime();
+
+        //When
+        writer.write("KogitoRuntime", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new KubernetesClientException("conflict", 409, null);
+            }
+            return "written";
+        });
+
+        //Then
+        // At least half of 20 then 40ms
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(30L));
+    }
+
+    @Test
+    void testWriteRethrowsOtherErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        KubernetesClientException e = assertThrows(KubernetesClientException.class, () -> writer.write("KogitoRuntime", () -> {
+            attempts.incrementAndGet();
+            throw new KubernetesClientException("forbidden", 403, null);
+        }));
+
+        assertThat(e.getCode(), is(403));
+        assertThat(attempts.get(), is(1));
+    }
+
+    private Decision decision(DecisionStatus status, String resourceVersion) {
+        Decision decision = new DecisionBuilder()
+                .withMetadata(new ObjectMetaBuilder().withName("some-decision").withUid(uid).withResourceVersion(resourceVersion).build())
+                .build();
+        decision.setStatus(status);
+        return decision;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Context<Decision> retrying() {
+        Context<Decision> context = mock(Context.class);
+        when(context.getRetryInfo()).thenReturn(Optional.of(mock(RetryInfo.class)));
+        return context;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.simulation;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.fabric8.kubernetes.api.model.LoadBalancerIngress;
+import io.fabric8.kubernetes.api.model.LoadBalancerStatusBuilder;
+import io.fabric8.kubernetes.api.model.networking.v1.Ingress;
+import io.fabric8.kubernetes.api.model.networking.v1.IngressStatusBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watch;
+
+/**
+ * Ingress controller: publishes a load-balancer IP on every Ingress.
+ */
+public class IngressSimulator extends ResourceSimulator<Ingress> {
+
+    private final KubernetesClient client;
+    private final SimulatorSettings settings;
+    private final AtomicInteger addresses = new AtomicInteger();
+
+    public IngressSimulator(KubernetesClient client, SimulatorSettings settings, ScheduledExecutorService executor, Random random) {
+        super(executor, random);
+        this.client = client;
+        this.settings = settings;
+    }
+
+    @Override
+    protected Watch watch() {
+        return client.network().v1().ingresses().inAnyNamespace().watch(this);
+    }
+
+    @Override
+    protected Ingress get(String namespace, String name) {
+        return client.network().v1().ingresses().inNamespace(namespace).withName(name).get();
+    }
+
+    @Override
+    protected boolean needsProgress(Ingress ingress) {
+        return ingress.getStatus() == null
+                || ingress.getStatus().getLoadBalancer() == null
+                || ingress.getStatus().getLoadBalancer().getIngress() == null
+                || ingress.getStatus().getLoadBalancer().getIngress().isEmpty();
+    }
+
+    @Override
+    protected void progress(String namespace, String name, Runnable done) {
+        schedule(settings.getNetworkAdmission(), () -> {
+            Ingress ingress = Objects.requireNonNull(get(namespace, name), "Ingress " + name + " no longer exists");
+            int address = addresses.incrementAndGet();
+            ingress.setStatus(new IngressStatusBuilder()
+                    .withLoadBalancer(new LoadBalancerStatusBuilder()
+                            .withIngress(new LoadBalancerIngress(null, "10.0." + (address / 250 % 250) + "." + (address % 250 + 1)))
+                            .build())
+                    .build());
+            client.network().v1().ingresses().inNamespace(namespace).createOrReplace(ingress);
+            done.run();
+        }, done);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.simulation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.kie.baaas.dfs.model.KogitoRuntime;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watch;
+
+/**
+ * Kogito operator: a KogitoRuntime is Provisioning and then Deployed.
+ */
+public class KogitoRuntimeSimulator extends ResourceSimulator<KogitoRuntime> {
+
+    static final String PROVISIONING = "Provisioning";
+    static final String DEPLOYED = "Deployed";
+
+    private final KubernetesClient client;
+    private final SimulatorSettings settings;
+
+    public KogitoRuntimeSimulator(KubernetesClient client, SimulatorSettings settings, ScheduledExecutorService executor, Random random) {
+        super(executor, random);
+        this.client = client;
+        this.settings = settings;
+    }
+
+    @Override
+    protected Watch watch() {
+        return client.customResources(KogitoRuntime.class).inAnyNamespace().watch(this);
+    }
+
+    @Override
+    protected KogitoRuntime get(String namespace, String name) {
+        return client.customResources(KogitoRuntime.class).inNamespace(namespace).withName(name).get();
+    }
+
+    @Override
+    protected boolean needsProgress(KogitoRuntime runtime) {
+        Map<String, Object> deployed = StatusConditions.get(runtime.getStatus(), DEPLOYED);
+        return deployed == null || !"True".equals(deployed.get("status"));
+    }
+
+    @Override
+    protected void progress(String namespace, String name, Runnable done) {
+        schedule(settings.getKogitoRuntimeProvisioning(), () -> {
+            updateStatus(namespace, name, Map.of("conditions", List.of(
+                    StatusConditions.of(PROVISIONING, "True", "", ""),
+                    StatusConditions.of(DEPLOYED, "False", "", ""))));
+            schedule(settings.getKogitoRuntimeDeploy(), () -> {
+                updateStatus(namespace, name, Map.of(
+                        "externalURI", "http://" + name + "." + namespace + ".svc",
+                        "conditions", List.of(
+                                StatusConditions.of(PROVISIONING, "False", "", ""),
+                                StatusConditions.of(DEPLOYED, "True", "", ""))));
+                done.run();
+            }, done);
+        }, done);
+    }
+
+    private void updateStatus(String namespace, String name, Map<String, Object> status) {
+        KogitoRuntime runtime = client.customResources(KogitoRuntime.class).inNamespace(namespace).withName(name).get();
+        Objects.requireNonNull(runtime, "KogitoRuntime " + name + " no longer exists");
+        runtime.setStatus(status);
+        client.customResources(KogitoRuntime.class).inNamespace(namespace).updateStatus(runtime);
+    }
+}
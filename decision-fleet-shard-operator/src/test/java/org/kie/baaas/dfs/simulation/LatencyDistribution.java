@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.simulation;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * How long a simulated controller takes for one of its steps.
+ * <p>
+ * {@link #parse(String)} accepts {@code fixed:<d>}, {@code uniform:<min>-<max>} and {@code lognormal:<median>,<sigma>}
+ * where durations are written as {@code 250ms}, {@code 3s} or {@code 2m}.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    LatencyDistribution NONE = fixed(Duration.ZERO);
+
+    Duration sample(Random random);
+
+    static LatencyDistribution fixed(Duration latency) {
+        return random -> latency;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long range = max.toMillis() - min.toMillis();
+        return random -> min.plusMillis((long) (random.nextDouble() * range));
+    }
+
+    /**
+     * Long-tailed latencies, typical for image builds and pod scheduling.
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        return random -> Duration.ofMillis(Math.round(median.toMillis() * Math.exp(sigma * random.nextGaussian())));
+    }
+
+    static LatencyDistribution parse(String value) {
+        String[] parts = value.trim().split(":", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid latency distribution: " + value);
+        }
+        switch (parts[0]) {
+            case "fixed":
+                return fixed(parseDuration(parts[1]));
+            case "uniform":
+                String[] range = parts[1].split("-", 2);
+                return uniform(parseDuration(range[0]), parseDuration(range[1]));
+            case "lognormal":
+                String[] params = parts[1].split(",", 2);
+                return logNormal(parseDuration(params[0]), Double.parseDouble(params[1]));
+            default:
+                throw new IllegalArgumentException("Unknown latency distribution: " + parts[0]);
+        }
+    }
+
+    static Duration parseDuration(String value) {
+        String duration = value.trim();
+        if (duration.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(duration.substring(0, duration.length() - 2)));
+        }
+        if (duration.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(duration.substring(0, duration.length() - 1)));
+        }
+        if (duration.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(duration.substring(0, duration.length() - 1)));
+        }
+        return Duration.ofMillis(Long.parseLong(duration));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.simulation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.kie.baaas.dfs.api.ResourceUtils;
+import org.kie.baaas.dfs.model.PipelineRun;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watch;
+
+/**
+ * Tekton: a PipelineRun starts Running and then either Succeeded or Failed.
+ */
+public class PipelineRunSimulator extends ResourceSimulator<PipelineRun> {
+
+    static final String SUCCEEDED = "Succeeded";
+
+    private final KubernetesClient client;
+    private final String namespace;
+    private final SimulatorSettings settings;
+
+    public PipelineRunSimulator(KubernetesClient client, String namespace, SimulatorSettings settings, ScheduledExecutorService executor, Random random) {
+        super(executor, random);
+        this.client = client;
+        this.namespace = namespace;
+        this.settings = settings;
+    }
+
+    @Override
+    protected Watch watch() {
+        return client.customResources(PipelineRun.class).inNamespace(namespace).watch(this);
+    }
+
+    @Override
+    protected PipelineRun get(String namespace, String name) {
+        return client.customResources(PipelineRun.class).inNamespace(namespace).withName(name).get();
+    }
+
+    @Override
+    protected boolean needsProgress(PipelineRun run) {
+        Map<String, Object> condition = StatusConditions.get(run.getStatus(), SUCCEEDED);
+        return condition == null || "Unknown".equals(condition.get("status"));
+    }
+
+    @Override
+    protected void progress(String namespace, String name, Runnable done) {
+        String startTime = ResourceUtils.now();
+        schedule(settings.getPipelineRunStart(), () -> {
+            updateStatus(name, Map.of(
+                    "startTime", startTime,
+                    "conditions", List.of(StatusConditions.of(SUCCEEDED, "Unknown", "Running", "Tasks Completed: 0 (Failed: 0, Cancelled 0), Incomplete: 5, Skipped: 0"))));
+            schedule(settings.getPipelineRunBuild(), () -> {
+                boolean failed = nextFailure(settings.getPipelineRunFailureRate());
+                updateStatus(name, Map.of(
+                        "startTime", startTime,
+                        "completionTime", ResourceUtils.now(),
+                        "conditions", List.of(failed
+                                ? StatusConditions.of(SUCCEEDED, "False", "Failed", "Tasks Completed: 3 (Failed: 1, Cancelled 0), Skipped: 1")
+                                : StatusConditions.of(SUCCEEDED, "True", SUCCEEDED, "Tasks Completed: 5 (Failed: 0, Cancelled 0), Skipped: 0"))));
+                done.run();
+            }, done);
+        }, done);
+    }
+
+    private void updateStatus(String name, Map<String, Object> status) {
+        PipelineRun run = client.customResources(PipelineRun.class).inNamespace(namespace).withName(name).get();
+        Objects.requireNonNull(run, "PipelineRun " + name + " no longer exists");
+        run.setStatus(status);
+        client.customResources(PipelineRun.class).inNamespace(namespace).updateStatus(run);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.simulation;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.WatcherException;
+
+/**
+ * Stands in for an external controller: watches its resources on the mock server and moves their status forward after
+ * a latency drawn from a {@link LatencyDistribution}. A resource is only progressed by one chain of steps at a time.
+ */
+public abstract class ResourceSimulator<T extends HasMetadata> implements Watcher<T>, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceSimulator.class);
+
+    private final ScheduledExecutorService executor;
+    private final Random random;
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+    private Watch watch;
+
+    protected ResourceSimulator(ScheduledExecutorService executor, Random random) {
+        this.executor = executor;
+        this.random = random;
+    }
+
+    public void start() {
+        this.watch = watch();
+    }
+
+    @Override
+    public void close() {
+        if (watch != null) {
+            watch.close();
+        }
+    }
+
+    /**
+     * Opens the watch on the simulated resources with this simulator as {@link Watcher}.
+     */
+    protected abstract Watch watch();
+
+    protected abstract T get(String namespace, String name);
+
+    protected abstract boolean needsProgress(T resource);
+
+    /**
+     * Starts the chain of status changes for the resource. Must call {@code done} once the chain is over.
+     */
+    protected abstract void progress(String namespace, String name, Runnable done);
+
+    @Override
+    public void eventReceived(Action action, T resource) {
+        if (action == Action.DELETED || action == Action.ERROR) {
+            return;
+        }
+        String namespace = resource.getMetadata().getNamespace();
+        String name = resource.getMetadata().getName();
+        String key = namespace + "/" + name;
+        if (needsProgress(resource) && inProgress.add(key)) {
+            Runnable done = () -> inProgress.remove(key);
+            executor.execute(() -> {
+                // Events can be stale by the time they are delivered, only the current state counts
+                T current = get(namespace, name);
+                if (current == null || !needsProgress(current)) {
+                    done.run();
+                    return;
+                }
+                LOGGER.debug("Simulating {} {}", current.getKind(), key);
+                progress(namespace, name, done);
+            });
+        }
+    }
+
+    @Override
+    public void onClose(WatcherException e) {
+        if (e != null) {
+            LOGGER.warn("Simulator watch closed", e);
+        }
+    }
+
+    protected void schedule(LatencyDistribution latency, Runnable step, Runnable done) {
+        executor.schedule(() -> {
+            try {
+                step.run();
+            } catch (RuntimeException e) {
+                // Deleted or replaced in the meantime. The next watch event starts over.
+                LOGGER.debug("Simulation step failed", e);
+                done.run();
+            }
+        }, latency.sample(random).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    protected boolean nextFailure(double rate) {
+        return rate > 0 && random.nextDouble() < rate;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.simulation;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.openshift.api.model.Route;
+import io.fabric8.openshift.api.model.RouteIngressBuilder;
+import io.fabric8.openshift.api.model.RouteIngressConditionBuilder;
+import io.fabric8.openshift.api.model.RouteStatusBuilder;
+import io.fabric8.openshift.client.OpenShiftClient;
+
+/**
+ * OpenShift router: admits every Route and assigns a host when none was requested.
+ */
+public class RouteSimulator extends ResourceSimulator<Route> {
+
+    static final String ADMITTED = "Admitted";
+
+    private final OpenShiftClient client;
+    private final SimulatorSettings settings;
+
+    public RouteSimulator(OpenShiftClient client, SimulatorSettings settings, ScheduledExecutorService executor, Random random) {
+        super(executor, random);
+        this.client = client;
+        this.settings = settings;
+    }
+
+    @Override
+    protected Watch watch() {
+        return client.routes().inAnyNamespace().watch(this);
+    }
+
+    @Override
+    protected Route get(String namespace, String name) {
+        return client.routes().inNamespace(namespace).withName(name).get();
+    }
+
+    @Override
+    protected boolean needsProgress(Route route) {
+        return route.getStatus() == null
+                || route.getStatus().getIngress() == null
+                || route.getStatus().getIngress().isEmpty();
+    }
+
+    @Override
+    protected void progress(String namespace, String name, Runnable done) {
+        schedule(settings.getNetworkAdmission(), () -> {
+            Route route = Objects.requireNonNull(get(namespace, name), "Route " + name + " no longer exists");
+            String host = route.getSpec().getHost();
+            if (host == null) {
+                host = name + "-" + namespace + ".apps.simulated.baaas";
+                route.getSpec().setHost(host);
+            }
+            route.setStatus(new RouteStatusBuilder()
+                    .withIngress(new RouteIngressBuilder()
+                            .withHost(host)
+                            .withRouterName("default")
+                            .withConditions(new RouteIngressConditionBuilder()
+                                    .withType(ADMITTED)
+                                    .withStatus("True")
+                                    .build())
+                            .build())
+                    .build());
+            client.routes().inNamespace(namespace).createOrReplace(route);
+            done.run();
+        }, done);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.kie.baaas.dfs.model.Platform;
+
+import io.fabric8.openshift.client.OpenShiftClient;
+
+/**
+ * The external controllers the operator depends on, simulated against the mock server: Tekton, the Kogito operator and
+ * the platform router or ingress controller.
+ */
+public class SimulatedCluster implements AutoCloseable {
+
+    private final ScheduledExecutorService executor;
+    private final List<ResourceSimulator<?>> simulators = new ArrayList<>();
+
+    private SimulatedCluster(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public static SimulatedCluster start(OpenShiftClient client, Platform platform, String controllerNamespace, SimulatorSettings settings) {
+        SimulatedCluster cluster = new SimulatedCluster(Executors.newScheduledThreadPool(2, r -> {
+            Thread thread = new Thread(r, "simulated-cluster");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        Random random = new Random(settings.getSeed());
+        cluster.simulators.add(new PipelineRunSimulator(client, controllerNamespace, settings, cluster.executor, random));
+        cluster.simulators.add(new KogitoRuntimeSimulator(client, settings, cluster.executor, random));
+        if (Platform.OPENSHIFT.equals(platform)) {
+            cluster.simulators.add(new RouteSimulator(client, settings, cluster.executor, random));
+        } else {
+            cluster.simulators.add(new IngressSimulator(client, settings, cluster.executor, random));
+        }
+        cluster.simulators.forEach(ResourceSimulator::start);
+        return cluster;
+    }
+
+    @Override
+    public void close() {
+        simulators.forEach(ResourceSimulator::close);
+        executor.shutdownNow();
+    }
+}
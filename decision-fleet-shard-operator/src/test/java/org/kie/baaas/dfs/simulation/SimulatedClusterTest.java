@@ -0,0 +1,123 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.simulation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.kie.baaas.dfs.controller.AbstractControllerTest;
+import org.kie.baaas.dfs.model.KogitoRuntime;
+import org.kie.baaas.dfs.model.PipelineRun;
+import org.kie.baaas.dfs.model.Platform;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.quarkus.test.junit.QuarkusTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+@QuarkusTest
+class SimulatedClusterTest extends AbstractControllerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Inject
+    OpenShiftClient openShiftClient;
+
+    private SimulatedCluster cluster;
+
+    @AfterEach
+    void stopCluster() {
+        if (cluster != null) {
+            cluster.close();
+        }
+    }
+
+    @Test
+    void testPipelineRunSucceeds() throws InterruptedException {
+        //Given
+        cluster = SimulatedCluster.start(openShiftClient, Platform.OPENSHIFT, CONTROLLER_NS, new SimulatorSettings());
+        PipelineRun pipelineRun = new PipelineRun();
+        pipelineRun.setMetadata(new ObjectMetaBuilder().withName("customer1-some-decision-1").withNamespace(CONTROLLER_NS).build());
+
+        //When
+        client.customResources(PipelineRun.class).inNamespace(CONTROLLER_NS).create(pipelineRun);
+
+        //Then
+        Map<String, Object> succeeded = await(() -> getCompletion("customer1-some-decision-1"));
+        assertThat(succeeded.get("status"), equalTo("True"));
+    }
+
+    @Test
+    void testPipelineRunFails() throws InterruptedException {
+        //Given
+        cluster = SimulatedCluster.start(openShiftClient, Platform.OPENSHIFT, CONTROLLER_NS, new SimulatorSettings().setPipelineRunFailureRate(1));
+        PipelineRun pipelineRun = new PipelineRun();
+        pipelineRun.setMetadata(new ObjectMetaBuilder().withName("customer1-some-decision-2").withNamespace(CONTROLLER_NS).build());
+
+        //When
+        client.customResources(PipelineRun.class).inNamespace(CONTROLLER_NS).create(pipelineRun);
+
+        //Then
+        Map<String, Object> succeeded = await(() -> getCompletion("customer1-some-decision-2"));
+        assertThat(succeeded.get("status"), equalTo("False"));
+    }
+
+    @Test
+    void testKogitoRuntimeIsDeployed() throws InterruptedException {
+        //Given
+        cluster = SimulatedCluster.start(openShiftClient, Platform.OPENSHIFT, CONTROLLER_NS, new SimulatorSettings());
+        KogitoRuntime runtime = new KogitoRuntime();
+        runtime.setMetadata(new ObjectMetaBuilder().withName("some-decision-1").withNamespace(CUSTOMER_NS).build());
+
+        //When
+        client.customResources(KogitoRuntime.class).inNamespace(CUSTOMER_NS).create(runtime);
+
+        //Then
+        Map<String, Object> deployed = await(() -> {
+            Map<String, Object> condition = StatusConditions.get(client.customResources(KogitoRuntime.class)
+                    .inNamespace(CUSTOMER_NS).withName("some-decision-1").get().getStatus(), KogitoRuntimeSimulator.DEPLOYED);
+            return condition != null && "True".equals(condition.get("status")) ? condition : null;
+        });
+        assertThat(deployed.get("reason"), is(notNullValue()));
+    }
+
+    private Map<String, Object> getCompletion(String name) {
+        Map<String, Object> condition = StatusConditions.get(client.customResources(PipelineRun.class)
+                .inNamespace(CONTROLLER_NS).withName(name).get().getStatus(), PipelineRunSimulator.SUCCEEDED);
+        return condition == null || "Unknown".equals(condition.get("status")) ? null : condition;
+    }
+
+    private static <T> T await(Supplier<T> condition) throws InterruptedException {
+        Instant deadline = Instant.now().plus(TIMEOUT);
+        while (Instant.now().isBefore(deadline)) {
+            T value = condition.get();
+            if (value != null) {
+                return value;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Simulated resource did not progress within " + TIMEOUT);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.simulation;
+
+/**
+ * Latencies of the simulated controllers. Every value can be overridden with a system property, e.g.
+ * {@code -Dbaaas.simulation.pipeline-run.build=lognormal:90s,0.4}.
+ */
+public class SimulatorSettings {
+
+    private static final String PREFIX = "baaas.simulation.";
+
+    private LatencyDistribution pipelineRunStart = LatencyDistribution.NONE;
+    private LatencyDistribution pipelineRunBuild = LatencyDistribution.NONE;
+    private double pipelineRunFailureRate;
+    private LatencyDistribution kogitoRuntimeProvisioning = LatencyDistribution.NONE;
+    private LatencyDistribution kogitoRuntimeDeploy = LatencyDistribution.NONE;
+    private LatencyDistribution networkAdmission = LatencyDistribution.NONE;
+    private long seed = 42;
+
+    public static SimulatorSettings fromSystemProperties() {
+        SimulatorSettings settings = new SimulatorSettings();
+        settings.pipelineRunStart = latency("pipeline-run.start", settings.pipelineRunStart);
+        settings.pipelineRunBuild = latency("pipeline-run.build", settings.pipelineRunBuild);
+        settings.pipelineRunFailureRate = Double.parseDouble(System.getProperty(PREFIX + "pipeline-run.failure-rate", "0"));
+        settings.kogitoRuntimeProvisioning = latency("kogito-runtime.provisioning", settings.kogitoRuntimeProvisioning);
+        settings.kogitoRuntimeDeploy = latency("kogito-runtime.deploy", settings.kogitoRuntimeDeploy);
+        settings.networkAdmission = latency("network.admission", settings.networkAdmission);
+        settings.seed = Long.getLong(PREFIX + "seed", settings.seed);
+        return settings;
+    }
+
+    private static LatencyDistribution latency(String name, LatencyDistribution defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        return value == null ? defaultValue : LatencyDistribution.parse(value);
+    }
+
+    public LatencyDistribution getPipelineRunStart() {
+        return pipelineRunStart;
+    }
+
+    public SimulatorSettings setPipelineRunStart(LatencyDistribution pipelineRunStart) {
+        this.pipelineRunStart = pipelineRunStart;
+        return this;
+    }
+
+    public LatencyDistribution getPipelineRunBuild() {
+        return pipelineRunBuild;
+    }
+
+    public SimulatorSettings setPipelineRunBuild(LatencyDistribution pipelineRunBuild) {
+        this.pipelineRunBuild = pipelineRunBuild;
+        return this;
+    }
+
+    public double getPipelineRunFailureRate() {
+        return pipelineRunFailureRate;
+    }
+
+    public SimulatorSettings setPipelineRunFailureRate(double pipelineRunFailureRate) {
+        this.pipelineRunFailureRate = pipelineRunFailureRate;
+        return this;
+    }
+
+    public LatencyDistribution getKogitoRuntimeProvisioning() {
+        return kogitoRuntimeProvisioning;
+    }
+
+    public SimulatorSettings setKogitoRuntimeProvisioning(LatencyDistribution kogitoRuntimeProvisioning) {
+        this.kogitoRuntimeProvisioning = kogitoRuntimeProvisioning;
+        return this;
+    }
+
+    public LatencyDistribution getKogitoRuntimeDeploy() {
+        return kogitoRuntimeDeploy;
+    }
+
+    public SimulatorSettings setKogitoRuntimeDeploy(LatencyDistribution kogitoRuntimeDeploy) {
+        this.kogitoRuntimeDeploy = kogitoRuntimeDeploy;
+        return this;
+    }
+
+    public LatencyDistribution getNetworkAdmission() {
+        return networkAdmission;
+    }
+
+    public SimulatorSettings setNetworkAdmission(LatencyDistribution networkAdmission) {
+        this.networkAdmission = networkAdmission;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public SimulatorSettings setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+}
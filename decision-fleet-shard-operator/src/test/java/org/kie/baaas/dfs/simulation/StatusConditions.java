@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kie.baaas.dfs.simulation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.kie.baaas.dfs.api.ResourceUtils;
+
+class StatusConditions {
+
+    private StatusConditions() {
+    }
+
+    static Map<String, Object> of(String type, String status, String reason, String message) {
+        return Map.of(
+                "type", type,
+                "status", status,
+                "reason", reason,
+                "message", message,
+                "lastTransitionTime", ResourceUtils.now());
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> get(Map<String, Object> status, String type) {
+        if (status == null || !(status.get("conditions") instanceof List)) {
+            return null;
+        }
+        return ((List<Object>) status.get("conditions")).stream()
+                .filter(Map.class::isInstance)
+                .map(c -> (Map<String, Object>) c)
+                .filter(c -> Objects.equals(type, c.get("type")))
+                .findFirst()
+                .orElse(null);
+    }
+}